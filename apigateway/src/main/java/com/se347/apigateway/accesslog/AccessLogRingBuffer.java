@@ -0,0 +1,145 @@
+package com.se347.apigateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Ring buffer không khoá, cấp phát sẵn, cho các bản ghi access log
+ *
+ * Hàng đợi bounded MPMC theo sequence từng slot (kiểu Vyukov): producer (event loop) giành slot
+ * bằng một CAS trên tail rồi ghi thẳng vào Entry có sẵn, không tạo object mới cho mỗi request.
+ * Consumer (writer nền) giành slot bằng CAS trên head, nên producer cũng có thể lấy bỏ bản ghi
+ * cũ nhất khi đầy (DROP_OLDEST).
+ */
+public class AccessLogRingBuffer {
+
+    /**
+     * Hành vi khi buffer đầy: bỏ bản ghi mới hoặc bỏ bản ghi cũ nhất để giữ bản ghi mới
+     */
+    public enum Overflow {
+        DROP_NEWEST, DROP_OLDEST
+    }
+
+    private static final int MAX_EVICT_ATTEMPTS = 4;
+
+    private final Entry[] entries;
+    private final int mask;
+    private final Overflow overflow;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AccessLogRingBuffer(int capacity, Overflow overflow) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.entries = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new Entry(i);
+        }
+        this.mask = size - 1;
+        this.overflow = overflow;
+    }
+
+    /**
+     * Ghi một bản ghi; false nếu bị bỏ do buffer đầy
+     */
+    public boolean offer(long timestampMillis, String route, String method, int status, long latencyNanos,
+                         long requestBytes, long responseBytes, long userHash) {
+        int evictAttempts = 0;
+        while (true) {
+            long position = tail.get();
+            Entry entry = entries[(int) (position & mask)];
+            long diff = entry.sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    entry.timestampMillis = timestampMillis;
+                    entry.route = route;
+                    entry.method = method;
+                    entry.status = status;
+                    entry.latencyNanos = latencyNanos;
+                    entry.requestBytes = requestBytes;
+                    entry.responseBytes = responseBytes;
+                    entry.userHash = userHash;
+                    entry.sequence = position + 1;
+                    return true;
+                }
+            } else if (diff < 0) {
+                // Đầy
+                if (overflow == Overflow.DROP_OLDEST && evictAttempts++ < MAX_EVICT_ATTEMPTS && poll(null)) {
+                    dropped.incrementAndGet();
+                    continue;
+                }
+                dropped.incrementAndGet();
+                return false;
+            }
+            // diff > 0: producer khác vừa giành slot này, đọc lại tail
+        }
+    }
+
+    /**
+     * Lấy tối đa max bản ghi, theo thứ tự ghi; entry chỉ hợp lệ trong lúc sink chạy
+     */
+    public int drain(Consumer<Entry> sink, int max) {
+        int count = 0;
+        while (count < max && poll(sink)) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean poll(Consumer<Entry> sink) {
+        while (true) {
+            long position = head.get();
+            Entry entry = entries[(int) (position & mask)];
+            long diff = entry.sequence - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    if (sink != null) {
+                        sink.accept(entry);
+                    }
+                    entry.route = null;
+                    entry.method = null;
+                    entry.sequence = position + mask + 1;
+                    return true;
+                }
+            } else if (diff < 0) {
+                // Rỗng
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    /**
+     * Tổng số bản ghi bị bỏ do buffer đầy
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Một slot của buffer; các field được publish qua sequence (volatile)
+     */
+    public static final class Entry {
+
+        private volatile long sequence;
+        long timestampMillis;
+        String route;
+        String method;
+        int status;
+        long latencyNanos;
+        long requestBytes;
+        long responseBytes;
+        long userHash;
+
+        private Entry(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
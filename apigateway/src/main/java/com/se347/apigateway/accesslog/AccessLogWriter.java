@@ -0,0 +1,180 @@
+package com.se347.apigateway.accesslog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Access log có cấu trúc của Gateway: mỗi request một dòng JSON gọn
+ * (route, method, status, latency, kích thước request/response, hash của user id)
+ *
+ * Trên event loop chỉ có: quyết định sampling và ghi các giá trị nguyên thuỷ vào AccessLogRingBuffer.
+ * Thread nền "access-log-writer" gom bản ghi theo lô, format và ghi qua logger "gateway.access"
+ * (cấu hình appender/level riêng trong logback).
+ * - sample-rate: tỉ lệ giữ lại request thành công; lỗi (>= 400) và request chậm (>= slow-threshold) luôn được ghi
+ * - overflow: DROP_NEWEST hoặc DROP_OLDEST khi buffer đầy (không bao giờ chặn event loop)
+ * - user id được hash (FNV-1a 64 bit có salt) để log không chứa id thật
+ * Metrics: gateway.access-log.buffered, gateway.access-log.dropped, gateway.access-log.written
+ */
+@Component
+public class AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLogger = LoggerFactory.getLogger("gateway.access");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int DRAIN_BATCH = 256;
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final long drainIntervalNanos;
+    private final long userHashSeed;
+    private final AccessLogRingBuffer buffer;
+    private final Counter written;
+
+    // Chỉ dùng trên thread writer
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AccessLogWriter(MeterRegistry meterRegistry,
+                           @Value("${gateway.access-log.enabled:true}") boolean enabled,
+                           @Value("${gateway.access-log.capacity:8192}") int capacity,
+                           @Value("${gateway.access-log.overflow:DROP_NEWEST}") AccessLogRingBuffer.Overflow overflow,
+                           @Value("${gateway.access-log.sample-rate:1.0}") double sampleRate,
+                           @Value("${gateway.access-log.slow-threshold:PT1S}") Duration slowThreshold,
+                           @Value("${gateway.access-log.drain-interval:PT0.05S}") Duration drainInterval,
+                           @Value("${gateway.access-log.user-hash-salt:}") String userHashSalt) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.drainIntervalNanos = drainInterval.toNanos();
+        this.userHashSeed = fnv1a(FNV_OFFSET, userHashSalt);
+        this.buffer = new AccessLogRingBuffer(capacity, overflow);
+
+        this.written = Counter.builder("gateway.access-log.written")
+                .description("Access log records written by the background writer")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access-log.buffered", buffer, AccessLogRingBuffer::size)
+                .description("Access log records waiting in the ring buffer")
+                .register(meterRegistry);
+        Gauge.builder("gateway.access-log.dropped", buffer, AccessLogRingBuffer::dropped)
+                .description("Access log records dropped because the ring buffer was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(Duration.ofSeconds(2).toMillis());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ghi nhận một request đã kết thúc (gọi trên event loop, không chặn)
+     * requestBytes/responseBytes là Content-Length (-1 nếu không biết); userId null nếu chưa xác thực
+     */
+    public void record(String route, String method, int status, long latencyNanos,
+                       long requestBytes, long responseBytes, String userId) {
+        if (!enabled || !sampled(status, latencyNanos)) {
+            return;
+        }
+        long userHash = userId != null ? fnv1a(userHashSeed, userId) : 0;
+        buffer.offer(System.currentTimeMillis(), route, method, status, latencyNanos,
+                requestBytes, responseBytes, userHash);
+    }
+
+    private boolean sampled(int status, long latencyNanos) {
+        if (sampleRate >= 1.0 || status >= 400 || latencyNanos >= slowThresholdNanos) {
+            return true;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (buffer.drain(this::write, DRAIN_BATCH) == 0) {
+                    LockSupport.parkNanos(drainIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Access log writer failed: {}", e.getMessage());
+            }
+        }
+        // Ghi nốt khi tắt
+        while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+            // tiếp tục
+        }
+    }
+
+    private void write(AccessLogRingBuffer.Entry entry) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(entry.timestampMillis))
+                .append("\",\"route\":\"").append(entry.route)
+                .append("\",\"method\":\"").append(entry.method)
+                .append("\",\"status\":").append(entry.status)
+                .append(",\"latencyMs\":").append(entry.latencyNanos / 1_000_000.0)
+                .append(",\"requestBytes\":");
+        appendSize(entry.requestBytes);
+        line.append(",\"responseBytes\":");
+        appendSize(entry.responseBytes);
+        line.append(",\"user\":");
+        if (entry.userHash == 0) {
+            line.append("null");
+        } else {
+            line.append('"').append(Long.toHexString(entry.userHash)).append('"');
+        }
+        line.append('}');
+        accessLogger.info(line.toString());
+        written.increment();
+    }
+
+    private void appendSize(long bytes) {
+        if (bytes < 0) {
+            line.append("null");
+        } else {
+            line.append(bytes);
+        }
+    }
+
+    private static long fnv1a(long seed, String value) {
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,90 @@
+package com.se347.apigateway.bff;
+
+import com.eduweb.security.HmacSigner;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gọi GET trực tiếp đến service qua lb:// từ bên trong Gateway (route tổng hợp, shadow request)
+ *
+ * Request được ký HMAC giống HmacSigningFilter và mang theo thông tin user mà
+ * JwtAuthenticationFilter đã đặt, nên token chỉ được xác thực một lần cho cả trang.
+ */
+@Component
+public class SignedServiceClient {
+
+    private static final List<String> IDENTITY_HEADERS = List.of(
+            "X-User-Id", "X-Username", "X-User-Roles", "X-Authenticated");
+
+    private final WebClient webClient;
+    private final HmacSigner hmacSigner;
+
+    public SignedServiceClient(WebClient.Builder webClientBuilder,
+                               ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                               HmacSigner hmacSigner) {
+        this.webClient = webClientBuilder.filter(loadBalancerFunction).build();
+        this.hmacSigner = hmacSigner;
+    }
+
+    /**
+     * GET lb://{service}{path}; lỗi HTTP được trả về dạng WebClientResponseException
+     */
+    public Mono<JsonNode> get(String service, String path, HttpHeaders identity) {
+        return Mono.defer(() -> signedGet(service, path, null, identity)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class));
+    }
+
+    /**
+     * GET lb://{service}{path}?{query}, bỏ body response và chỉ trả về status (dùng cho shadow request)
+     */
+    public Mono<HttpStatusCode> getDiscardingBody(String service, String path, String query, HttpHeaders identity) {
+        return Mono.defer(() -> signedGet(service, path, query, identity)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())));
+    }
+
+    private WebClient.RequestHeadersSpec<?> signedGet(String service, String path, String query, HttpHeaders identity) {
+        String nonce = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+        String bodyHash = HmacSigner.emptyBodySha256();
+        // Chữ ký chỉ gồm path (giống HmacSigningFilter), không gồm query
+        String signature = hmacSigner.sign(HmacSigner.payload("GET", path, bodyHash, nonce, timestamp));
+
+        URI uri = UriComponentsBuilder.newInstance()
+                .scheme("http")
+                .host(service)
+                .path(path)
+                .query(query)
+                .build(true)
+                .toUri();
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    for (String name : IDENTITY_HEADERS) {
+                        String value = identity.getFirst(name);
+                        if (value != null) {
+                            headers.set(name, value);
+                        }
+                    }
+                    headers.set("X-Gateway-Source", "api-gateway");
+                    headers.set(HmacSigner.HEADER_SIGNATURE, signature);
+                    headers.set(HmacSigner.HEADER_NONCE, nonce);
+                    headers.set(HmacSigner.HEADER_TIMESTAMP, timestamp);
+                    headers.set(HmacSigner.HEADER_GATEWAY_SIGNED, "true");
+                    headers.set(HmacSigner.HEADER_BODY_SHA256, bodyHash);
+                });
+    }
+}
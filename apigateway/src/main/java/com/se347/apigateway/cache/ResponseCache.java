@@ -0,0 +1,180 @@
+package com.se347.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache response của các GET công khai (catalog course/category) tại Gateway
+ *
+ * Hai tầng:
+ * - L1: Caffeine trong bộ nhớ của từng instance Gateway
+ * - L2: Redis, dùng chung giữa các instance (hash gồm body Base64, content type, ETag, thời điểm hết hạn)
+ *
+ * Khi course thay đổi, toàn bộ cache bị xoá (invalidateAll). Mỗi lần xoá tăng generation,
+ * response đang được tải từ trước thời điểm xoá sẽ không được ghi vào cache nữa.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    private static final String KEY_PREFIX = "gateway:response-cache:";
+
+    private static final String FIELD_BODY = "body";
+    private static final String FIELD_CONTENT_TYPE = "contentType";
+    private static final String FIELD_ETAG = "etag";
+    private static final String FIELD_EXPIRES_AT = "expiresAt";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Cache<String, CachedResponse> local;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(ReactiveStringRedisTemplate redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${gateway.response-cache.max-entries:5000}") long maxEntries) {
+        this.redisTemplate = redisTemplate;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new ResponseExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "gateway.response");
+    }
+
+    /**
+     * Generation hiện tại; truyền lại cho put() để bỏ các response tải trước lần invalidate gần nhất
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Tìm response trong L1, sau đó trong L2 (Redis lỗi được coi như miss)
+     */
+    public Mono<CachedResponse> get(String key) {
+        CachedResponse cached = local.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return Mono.just(cached);
+        }
+
+        long startGeneration = generation.get();
+        return redisTemplate.<String, String>opsForHash().entries(KEY_PREFIX + key)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .flatMap(fields -> Mono.justOrEmpty(fromRedis(fields)))
+                .doOnNext(found -> {
+                    if (generation.get() == startGeneration) {
+                        local.put(key, found);
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Response cache lookup failed for {}: {}", key, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Ghi response vào L1 và L2, trừ khi cache đã bị invalidate sau khi request bắt đầu
+     */
+    public void put(String key, CachedResponse response, long requestGeneration) {
+        if (generation.get() != requestGeneration) {
+            return;
+        }
+        local.put(key, response);
+
+        long ttlMillis = response.expiresAtMillis() - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        String redisKey = KEY_PREFIX + key;
+        Map<String, String> fields = Map.of(
+                FIELD_BODY, Base64.getEncoder().encodeToString(response.body()),
+                FIELD_CONTENT_TYPE, response.contentType() != null ? response.contentType() : "",
+                FIELD_ETAG, response.etag(),
+                FIELD_EXPIRES_AT, String.valueOf(response.expiresAtMillis()));
+
+        redisTemplate.opsForHash().putAll(redisKey, fields)
+                .then(redisTemplate.expire(redisKey, Duration.ofMillis(ttlMillis)))
+                .subscribe(null, e -> logger.warn("Response cache write failed for {}: {}", key, e.getMessage()));
+    }
+
+    /**
+     * Xoá toàn bộ response đã cache (L1 của instance này và L2 dùng chung)
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        local.invalidateAll();
+
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build();
+        redisTemplate.scan(options)
+                .buffer(500)
+                .concatMap(keys -> redisTemplate.unlink(keys.toArray(String[]::new)))
+                .reduce(0L, Long::sum)
+                .subscribe(removed -> logger.debug("Response cache invalidated, {} shared entries removed", removed),
+                        e -> logger.warn("Response cache invalidation failed: {}", e.getMessage()));
+    }
+
+    private CachedResponse fromRedis(Map<String, String> fields) {
+        if (fields.isEmpty() || !fields.containsKey(FIELD_BODY) || !fields.containsKey(FIELD_ETAG)) {
+            return null;
+        }
+        try {
+            String contentType = fields.get(FIELD_CONTENT_TYPE);
+            CachedResponse response = new CachedResponse(
+                    Base64.getDecoder().decode(fields.get(FIELD_BODY)),
+                    contentType == null || contentType.isEmpty() ? null : contentType,
+                    fields.get(FIELD_ETAG),
+                    Long.parseLong(fields.get(FIELD_EXPIRES_AT)));
+            return response.isExpired() ? null : response;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed response cache entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Response 200 đã cache
+     */
+    public record CachedResponse(byte[] body, String contentType, String etag, long expiresAtMillis) {
+
+        public boolean isExpired() {
+            return expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Entry L1 hết hạn cùng lúc với entry L2
+     */
+    private static final class ResponseExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.se347.apigateway.configs;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -24,12 +26,26 @@ public class JwtConfig {
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
 
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
     /**
-     * Tạo SecretKey từ JWT secret
+     * Dựng SecretKey và JwtParser một lần khi khởi động (parser của jjwt là thread-safe)
      */
-    public SecretKey getSigningKey() {
+    @PostConstruct
+    void init() {
         byte[] keyBytes = Base64.getDecoder().decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    /**
+     * Lấy SecretKey đã dựng sẵn từ JWT secret
+     */
+    public SecretKey getSigningKey() {
+        return signingKey;
     }
 
     /**
@@ -43,11 +59,7 @@ public class JwtConfig {
      * Parse JWT token và lấy claims
      */
     public Claims parseToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -90,7 +102,13 @@ public class JwtConfig {
      * Lấy role từ token
      */
     public List<String> getRolesFromToken(String token) {
-        Claims claims = parseToken(token);
+        return getRolesFromClaims(parseToken(token));
+    }
+
+    /**
+     * Lấy role từ claims đã parse
+     */
+    public List<String> getRolesFromClaims(Claims claims) {
         Object roles = claims.get("roles");
         if (roles instanceof List<?>) {
             return ((List<?>) roles).stream().map(Object::toString).toList();
@@ -0,0 +1,13 @@
+package com.se347.apigateway.configs;
+
+import com.se347.apigateway.loadbalancer.OutlierAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Mọi route lb:// dùng load balancer có loại instance bất thường + power of two choices
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = OutlierAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,48 @@
+package com.se347.apigateway.configs;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ cho Gateway: mỗi instance có một queue tạm (exclusive, auto-delete)
+ * bind vào course exchange để nhận sự kiện course thay đổi và xoá response cache
+ */
+@Configuration
+public class RabbitConfig {
+
+    @Value("${app.rabbitmq.exchange.course:course.exchange}")
+    private String courseExchangeName;
+
+    @Value("${app.rabbitmq.routing-key.course-created:course-created}")
+    private String courseCreatedRoutingKey;
+
+    @Value("${app.rabbitmq.routing-key.course-updated:course-updated}")
+    private String courseUpdatedRoutingKey;
+
+    @Bean
+    public TopicExchange courseExchange() {
+        return new TopicExchange(courseExchangeName, true, false);
+    }
+
+    @Bean
+    public Queue responseCacheInvalidationQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("gateway.response-cache."));
+    }
+
+    @Bean
+    public Binding bindingCourseCreatedInvalidation(Queue responseCacheInvalidationQueue, TopicExchange courseExchange) {
+        return BindingBuilder.bind(responseCacheInvalidationQueue).to(courseExchange).with(courseCreatedRoutingKey);
+    }
+
+    @Bean
+    public Binding bindingCourseUpdatedInvalidation(Queue responseCacheInvalidationQueue, TopicExchange courseExchange) {
+        return BindingBuilder.bind(responseCacheInvalidationQueue).to(courseExchange).with(courseUpdatedRoutingKey);
+    }
+}
@@ -3,6 +3,8 @@ package com.se347.apigateway.configs;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Mono;
 
 @Configuration
@@ -15,6 +17,42 @@ public class RateLimitConfig {
             .map(addr -> addr.getAddress().getHostAddress())
             .switchIfEmpty(Mono.just("unknown"));
     }
-}
 
+    /**
+     * Key theo user đã xác thực: "{tier}:{userId}", fallback về "ANONYMOUS:{ip}"
+     *
+     * X-User-Id/X-User-Roles do JwtAuthenticationFilter đặt (header từ client đã bị xoá),
+     * nên filter này phải đứng sau JwtAuthenticationFilter trong route.
+     * Tier là role có quota cao nhất trong X-User-Roles.
+     */
+    @Bean
+    public KeyResolver userKeyResolver(RateLimitProperties properties) {
+        return exchange -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String userId = request.getHeaders().getFirst("X-User-Id");
+            if (StringUtils.hasText(userId)) {
+                String tier = resolveTier(request.getHeaders().getFirst("X-User-Roles"), properties);
+                return Mono.just(tier + ":" + userId);
+            }
+            String ip = request.getRemoteAddress() != null
+                ? request.getRemoteAddress().getAddress().getHostAddress()
+                : "unknown";
+            return Mono.just(RateLimitProperties.ANONYMOUS_TIER + ":" + ip);
+        };
+    }
 
+    private String resolveTier(String rolesHeader, RateLimitProperties properties) {
+        String tier = RateLimitProperties.AUTHENTICATED_TIER;
+        int best = -1;
+        if (StringUtils.hasText(rolesHeader)) {
+            for (String role : rolesHeader.split(",")) {
+                RateLimitProperties.Quota quota = properties.getTiers().get(role.trim());
+                if (quota != null && quota.getReplenishRate() > best) {
+                    best = quota.getReplenishRate();
+                    tier = role.trim();
+                }
+            }
+        }
+        return tier;
+    }
+}
@@ -0,0 +1,82 @@
+package com.se347.apigateway.configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cấu hình rate limit theo user/role cho các route của Gateway
+ *
+ * Mỗi tier (ADMIN, USER, ANONYMOUS, ...) có quota token bucket riêng.
+ * Gateway xin Redis cấp token theo lô (lease) để đa số request được quyết định trong bộ nhớ.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    public static final String ANONYMOUS_TIER = "ANONYMOUS";
+    public static final String AUTHENTICATED_TIER = "USER";
+
+    /**
+     * Quota theo tier, key là tên role trong X-User-Roles (hoặc ANONYMOUS)
+     */
+    private Map<String, Quota> tiers = new HashMap<>();
+
+    /**
+     * Thời gian một lô token được giữ cục bộ; cũng quyết định kích thước lô (replenishRate * leaseDuration)
+     */
+    private Duration leaseDuration = Duration.ofMillis(250);
+
+    /**
+     * Số bucket cục bộ tối đa (mỗi route + user/IP một bucket)
+     */
+    private long maxTrackedKeys = 100_000;
+
+    /**
+     * Có thêm X-RateLimit-* headers vào response không
+     */
+    private boolean includeHeaders = true;
+
+    public Quota quotaFor(String tier) {
+        Quota quota = tiers.get(tier);
+        if (quota == null) {
+            quota = tiers.get(ANONYMOUS_TIER);
+        }
+        return quota != null ? quota : Quota.DEFAULT;
+    }
+
+    public Map<String, Quota> getTiers() { return tiers; }
+    public void setTiers(Map<String, Quota> tiers) { this.tiers = tiers; }
+    public Duration getLeaseDuration() { return leaseDuration; }
+    public void setLeaseDuration(Duration leaseDuration) { this.leaseDuration = leaseDuration; }
+    public long getMaxTrackedKeys() { return maxTrackedKeys; }
+    public void setMaxTrackedKeys(long maxTrackedKeys) { this.maxTrackedKeys = maxTrackedKeys; }
+    public boolean isIncludeHeaders() { return includeHeaders; }
+    public void setIncludeHeaders(boolean includeHeaders) { this.includeHeaders = includeHeaders; }
+
+    /**
+     * Token bucket: replenishRate token/giây, tối đa burstCapacity token
+     */
+    public static class Quota {
+
+        static final Quota DEFAULT = new Quota(10, 20);
+
+        private int replenishRate;
+        private int burstCapacity;
+
+        public Quota() {}
+
+        public Quota(int replenishRate, int burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(int replenishRate) { this.replenishRate = replenishRate; }
+        public int getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(int burstCapacity) { this.burstCapacity = burstCapacity; }
+    }
+}
@@ -0,0 +1,49 @@
+package com.se347.apigateway.configs;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker cho từng service phía sau Gateway (một breaker cho mỗi tên service lb://)
+ *
+ * Trạng thái và số lời gọi của breaker được xuất qua Micrometer
+ * (resilience4j.circuitbreaker.state, resilience4j.circuitbreaker.calls, ...).
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${gateway.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${gateway.circuit-breaker.slow-call-duration:PT5S}") Duration slowCallDuration,
+            @Value("${gateway.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${gateway.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+            @Value("${gateway.circuit-breaker.wait-duration-in-open-state:PT10S}") Duration waitDurationInOpenState,
+            @Value("${gateway.circuit-breaker.permitted-calls-in-half-open-state:5}") int permittedCallsInHalfOpenState) {
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
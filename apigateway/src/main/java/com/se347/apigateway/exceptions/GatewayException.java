@@ -59,6 +59,30 @@ public class GatewayException extends BaseGatewayException {
         }
     }
     
+    public static class ConcurrencyLimitExceededException extends GatewayException {
+        public ConcurrencyLimitExceededException(String serviceName, int limit) {
+            super("Too many concurrent requests to service " + serviceName + " (limit " + limit + ")", HttpStatus.SERVICE_UNAVAILABLE, "CONCURRENCY_LIMIT_EXCEEDED");
+        }
+    }
+    
+    public static class LoadShedException extends GatewayException {
+        public LoadShedException(String priority) {
+            super("Gateway is overloaded, " + priority + " priority requests are temporarily rejected", HttpStatus.SERVICE_UNAVAILABLE, "LOAD_SHED");
+        }
+    }
+    
+    public static class PayloadTooLargeException extends GatewayException {
+        public PayloadTooLargeException(long maxSize) {
+            super("Request body exceeds the limit of " + maxSize + " bytes for this route", HttpStatus.PAYLOAD_TOO_LARGE, "PAYLOAD_TOO_LARGE");
+        }
+    }
+    
+    public static class BodyBudgetExhaustedException extends GatewayException {
+        public BodyBudgetExhaustedException(long requested) {
+            super("Gateway cannot buffer another " + requested + " bytes of request body right now", HttpStatus.SERVICE_UNAVAILABLE, "BODY_BUDGET_EXHAUSTED");
+        }
+    }
+    
     public static class RequestValidationException extends GatewayException {
         public RequestValidationException(String message) {
             super("Request validation failed: " + message, HttpStatus.BAD_REQUEST, "REQUEST_VALIDATION_ERROR");
@@ -31,7 +31,13 @@ public class GatewayWebExceptionHandler implements WebExceptionHandler {
     
     @Override
     public @org.springframework.lang.NonNull Mono<Void> handle(@org.springframework.lang.NonNull ServerWebExchange exchange, @org.springframework.lang.NonNull Throwable ex) {
-        logger.error("Exception occurred in WebFlux pipeline", ex);
+        // Từ chối nhanh khi service quá tải là hành vi bình thường, không log stack trace cho từng request
+        boolean fastFail = isFastFail(ex);
+        if (fastFail) {
+            logger.debug("Request rejected: {}", ex.getMessage());
+        } else {
+            logger.error("Exception occurred in WebFlux pipeline", ex);
+        }
         
         ServerHttpResponse response = exchange.getResponse();
         
@@ -43,6 +49,9 @@ public class GatewayWebExceptionHandler implements WebExceptionHandler {
         response.setStatusCode(status);
         response.getHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
         response.getHeaders().add("X-Error-Source", "api-gateway");
+        if (fastFail) {
+            response.getHeaders().add("Retry-After", "1");
+        }
         
         // Convert error response to JSON
         String jsonResponse = convertToJson(errorResponse);
@@ -53,6 +62,17 @@ public class GatewayWebExceptionHandler implements WebExceptionHandler {
         );
     }
     
+    /**
+     * Request bị Gateway từ chối để bảo vệ service hoặc chính Gateway
+     * (circuit breaker mở, vượt concurrency limit, hết ngân sách body, bỏ tải theo ưu tiên)
+     */
+    private boolean isFastFail(Throwable ex) {
+        return ex instanceof GatewayException.CircuitBreakerOpenException
+            || ex instanceof GatewayException.ConcurrencyLimitExceededException
+            || ex instanceof GatewayException.BodyBudgetExhaustedException
+            || ex instanceof GatewayException.LoadShedException;
+    }
+    
     /**
      * Xác định HTTP status từ exception
      */
@@ -0,0 +1,79 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.accesslog.AccessLogWriter;
+import com.se347.apigateway.exceptions.BaseGatewayException;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ghi một bản ghi access log cho mỗi request qua route của Gateway (xem AccessLogWriter)
+ *
+ * Chạy ngoài cùng nên latency gồm toàn bộ filter của Gateway và thời gian chờ service.
+ * Request lỗi chưa có status trên response (GatewayWebExceptionHandler đặt sau),
+ * nên status được lấy từ exception giống cách handler xác định. Client huỷ → 499.
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final AccessLogWriter accessLog;
+
+    public AccessLogFilter(AccessLogWriter accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!accessLog.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(v -> record(exchange, start, statusOf(exchange.getResponse())))
+                .doOnError(e -> record(exchange, start, statusOf(e)))
+                .doOnCancel(() -> record(exchange, start, CLIENT_CLOSED_REQUEST));
+    }
+
+    private void record(ServerWebExchange exchange, long start, int status) {
+        ServerHttpResponse response = exchange.getResponse();
+        accessLog.record(GatewayMetrics.routeId(exchange),
+                exchange.getRequest().getMethod().name(),
+                status,
+                System.nanoTime() - start,
+                exchange.getRequest().getHeaders().getContentLength(),
+                response.getHeaders().getContentLength(),
+                exchange.getAttribute(JwtAuthenticationFilter.AUTHENTICATED_USER_ID_ATTR));
+    }
+
+    private static int statusOf(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        return status != null ? status.value() : 200;
+    }
+
+    private static int statusOf(Throwable e) {
+        if (e instanceof BaseGatewayException gatewayException) {
+            return gatewayException.getHttpStatus().value();
+        }
+        if (e instanceof ResponseStatusException responseStatusException) {
+            return responseStatusException.getStatusCode().value();
+        }
+        if (e instanceof IllegalArgumentException) {
+            return 400;
+        }
+        return 500;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,249 @@
+package com.se347.apigateway.filters;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.se347.apigateway.bff.SignedServiceClient;
+import com.se347.apigateway.exceptions.GatewayException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Course Detail Aggregation Filter cho API Gateway (backend-for-frontend cho trang chi tiết khoá học)
+ *
+ * Route tổng hợp GET /api/bff/courses/slug/{courseSlug}: Gateway tự gọi song song các service
+ * (đã xác thực JWT một lần ở JwtAuthenticationFilter, mỗi lời gọi được ký HMAC) và trả về một response:
+ * - course (bắt buộc) và sections kèm lessons của từng section (courseservice)
+ * - instructor (userservice), enrollment + progress của người xem (enrollmentservice)
+ *
+ * Mỗi phần có timeout riêng (partTimeout). Phần phụ lỗi/quá hạn → giá trị null, lý do nằm trong
+ * "errors" và header X-Partial-Response: true. Chỉ lỗi của phần course làm cả request lỗi.
+ * Filter kết thúc request, không chuyển tiếp (route dùng uri no://op).
+ */
+@Component
+public class CourseDetailAggregationFilter extends AbstractGatewayFilterFactory<CourseDetailAggregationFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseDetailAggregationFilter.class);
+
+    private static final String COURSE_SERVICE = "courseservice";
+    private static final String USER_SERVICE = "userservice";
+    private static final String ENROLLMENT_SERVICE = "enrollmentservice";
+    private static final int LESSON_CONCURRENCY = 8;
+
+    private final SignedServiceClient client;
+    private final ObjectMapper objectMapper;
+    private final Duration defaultPartTimeout;
+
+    public CourseDetailAggregationFilter(SignedServiceClient client,
+                                         ObjectMapper objectMapper,
+                                         @Value("${gateway.bff.part-timeout:PT2S}") Duration defaultPartTimeout) {
+        super(Config.class);
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.defaultPartTimeout = defaultPartTimeout;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("partTimeout");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Duration partTimeout = config.getPartTimeout() != null ? config.getPartTimeout() : defaultPartTimeout;
+
+        return (exchange, chain) -> {
+            String courseSlug = ServerWebExchangeUtils.getUriTemplateVariables(exchange).get("courseSlug");
+            if (courseSlug == null) {
+                return Mono.error(new GatewayException.RequestValidationException("courseSlug is required"));
+            }
+            Aggregation aggregation = new Aggregation(exchange.getRequest().getHeaders(), partTimeout);
+
+            Mono<JsonNode> course = client.get(COURSE_SERVICE, "/api/courses/slug/" + courseSlug, aggregation.identity)
+                    .timeout(partTimeout)
+                    .onErrorMap(e -> courseError(courseSlug, partTimeout, e));
+            Mono<JsonNode> sections = aggregation.optional("sections",
+                    client.get(COURSE_SERVICE, "/api/courses/slug/" + courseSlug + "/sections", aggregation.identity))
+                    .flatMap(aggregation::withLessons);
+
+            return Mono.zip(course.flatMap(aggregation::dependentParts), sections)
+                    .flatMap(parts -> {
+                        ObjectNode body = parts.getT1();
+                        body.set("sections", parts.getT2());
+                        return write(exchange, body, aggregation.errors);
+                    });
+        };
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ObjectNode body, Map<String, String> errors) {
+        body.put("partial", !errors.isEmpty());
+        body.set("errors", objectMapper.valueToTree(errors));
+
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(new GatewayException.FilterException("CourseDetailAggregationFilter", e.getMessage(), e));
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setCacheControl("private, no-store");
+        if (!errors.isEmpty()) {
+            response.getHeaders().set("X-Partial-Response", "true");
+            logger.debug("Partial course detail response, failed parts: {}", errors);
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    /**
+     * Phần course là bắt buộc: giữ 404 của courseservice, các lỗi khác thành 503/504
+     */
+    private Throwable courseError(String courseSlug, Duration timeout, Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            return new GatewayException("Course " + courseSlug + " not found", HttpStatus.NOT_FOUND, "COURSE_NOT_FOUND");
+        }
+        if (e instanceof TimeoutException) {
+            return new GatewayException.ServiceTimeoutException(COURSE_SERVICE, timeout.toMillis(), e);
+        }
+        return new GatewayException.ServiceUnavailableException(COURSE_SERVICE, e);
+    }
+
+    /**
+     * Trạng thái tổng hợp của một request
+     */
+    private final class Aggregation {
+
+        private final HttpHeaders identity;
+        private final Duration partTimeout;
+        private final Map<String, String> errors = Collections.synchronizedMap(new TreeMap<>());
+
+        private Aggregation(HttpHeaders identity, Duration partTimeout) {
+            this.identity = identity;
+            this.partTimeout = partTimeout;
+        }
+
+        /**
+         * Phần phụ: quá hạn hoặc lỗi → null và ghi lý do vào errors (không làm hỏng cả response)
+         */
+        private Mono<JsonNode> optional(String name, Mono<JsonNode> call) {
+            return call.timeout(partTimeout)
+                    .defaultIfEmpty(NullNode.instance)
+                    .onErrorResume(e -> {
+                        errors.put(name, describe(e));
+                        return Mono.just(NullNode.instance);
+                    });
+        }
+
+        /**
+         * Các phần cần thông tin của course: instructor, enrollment (+ progress) của người xem
+         */
+        private Mono<ObjectNode> dependentParts(JsonNode course) {
+            String courseId = course.path("courseId").asText(null);
+            String instructorId = course.path("instructorId").asText(null);
+            String viewerId = identity.getFirst("X-User-Id");
+
+            Mono<JsonNode> instructor = instructorId == null ? Mono.just(NullNode.instance)
+                    : optional("instructor", client.get(USER_SERVICE, "/api/users/profiles/id/" + instructorId, identity));
+
+            Mono<JsonNode> enrollment = courseId == null || viewerId == null ? Mono.just(NullNode.instance)
+                    : optional("enrollment", client.get(ENROLLMENT_SERVICE,
+                            "/api/courses/id/" + courseId + "/enrollments/student/id/" + viewerId, identity)
+                            // Chưa ghi danh không phải là lỗi
+                            .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(NullNode.instance)));
+
+            Mono<ObjectNode> enrollmentWithProgress = enrollment.flatMap(enrollmentNode -> {
+                ObjectNode result = objectMapper.createObjectNode();
+                result.set("enrollment", enrollmentNode);
+                String enrollmentId = enrollmentNode.path("enrollmentId").asText(null);
+                if (enrollmentId == null) {
+                    result.set("progress", NullNode.instance);
+                    return Mono.just(result);
+                }
+                return optional("progress", client.get(ENROLLMENT_SERVICE,
+                        "/api/course-progress/enrollment/id/" + enrollmentId, identity))
+                        .map(progress -> result.set("progress", progress));
+            });
+
+            return Mono.zip(instructor, enrollmentWithProgress).map(parts -> {
+                ObjectNode body = objectMapper.createObjectNode();
+                body.set("course", course);
+                body.set("instructor", parts.getT1());
+                body.setAll(parts.getT2());
+                return body;
+            });
+        }
+
+        /**
+         * Gắn lessons vào từng section (gọi song song, giữ thứ tự section)
+         */
+        private Mono<JsonNode> withLessons(JsonNode sections) {
+            if (!sections.isArray() || sections.isEmpty()) {
+                return Mono.just(sections);
+            }
+            return Flux.fromIterable(sections)
+                    .flatMapSequential(section -> {
+                        String sectionId = section.path("sectionId").asText(null);
+                        if (sectionId == null || !(section instanceof ObjectNode sectionNode)) {
+                            return Mono.just(section);
+                        }
+                        return optional("lessons:" + sectionId, client.get(COURSE_SERVICE,
+                                "/api/courses/sections/id/" + sectionId + "/lessons", identity))
+                                .map(lessons -> (JsonNode) sectionNode.set("lessons", lessons));
+                    }, LESSON_CONCURRENCY)
+                    .collectList()
+                    .map(list -> {
+                        ArrayNode array = objectMapper.createArrayNode();
+                        array.addAll(list);
+                        return array;
+                    });
+        }
+
+        private String describe(Throwable e) {
+            if (e instanceof TimeoutException) {
+                return "timeout after " + partTimeout.toMillis() + "ms";
+            }
+            if (e instanceof WebClientResponseException responseException) {
+                return "HTTP " + responseException.getStatusCode().value();
+            }
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        // Timeout của mỗi lời gọi service; mặc định gateway.bff.part-timeout
+        private Duration partTimeout;
+
+        public Duration getPartTimeout() { return partTimeout; }
+        public void setPartTimeout(Duration partTimeout) { this.partTimeout = partTimeout; }
+    }
+}
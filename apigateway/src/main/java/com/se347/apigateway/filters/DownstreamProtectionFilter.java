@@ -0,0 +1,167 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.exceptions.GatewayException;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.resilience.GradientConcurrencyLimit;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downstream Protection Filter cho API Gateway
+ *
+ * Filter này sẽ:
+ * 1. Từ chối ngay (503) khi circuit breaker của service đang mở
+ * 2. Giới hạn số request đồng thời của route theo GradientConcurrencyLimit (tự giảm khi service chậm đi)
+ * 3. Ghi nhận kết quả (lỗi kết nối, 5xx, độ trễ) cho breaker và limiter
+ *
+ * Request bị từ chối được GatewayWebExceptionHandler trả về ngay, không chiếm kết nối đến service.
+ * Filter chạy trước HmacSigningFilter (OrderedGatewayFilter, sau LoadShedding/RequestBodyPolicy):
+ * từ chối trước khi đọc và hash body. Request không đến được service (JWT, rate limit, cache hit)
+ * chỉ trả lại permit, không được tính là mẫu độ trễ/kết quả.
+ * Metrics: gateway.concurrency.limit, gateway.concurrency.in-flight, gateway.concurrency.rejected (tag route)
+ * và resilience4j.circuitbreaker.* (tag name = service).
+ */
+@Component
+public class DownstreamProtectionFilter extends AbstractGatewayFilterFactory<DownstreamProtectionFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamProtectionFilter.class);
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GradientConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public DownstreamProtectionFilter(CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("initialLimit", "minLimit", "maxLimit");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        GatewayFilter filter = (exchange, chain) -> {
+            String routeId = GatewayMetrics.routeId(exchange);
+            String service = GatewayMetrics.serviceName(exchange);
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(service);
+            GradientConcurrencyLimit limit = limits.computeIfAbsent(routeId, id -> newLimit(id, config));
+
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejected(routeId, "circuit-open");
+                return Mono.error(new GatewayException.CircuitBreakerOpenException(service));
+            }
+            if (!limit.tryAcquire()) {
+                circuitBreaker.releasePermission();
+                rejected(routeId, "concurrency-limit");
+                return Mono.error(new GatewayException.ConcurrencyLimitExceededException(service, limit.getLimit()));
+            }
+
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnSuccess(ignored -> {
+                        if (!ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+                            // Filter phía sau đã tự trả response (401, 429, cache...): không phải mẫu của service
+                            circuitBreaker.releasePermission();
+                            limit.cancel();
+                            return;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        HttpStatusCode status = exchange.getResponse().getStatusCode();
+                        if (status != null && status.is5xxServerError()) {
+                            circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS,
+                                    new GatewayException.ServiceUnavailableException(service));
+                            limit.release(elapsed, isOverloaded(status));
+                        } else {
+                            circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                            limit.release(elapsed, false);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (!ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+                            circuitBreaker.releasePermission();
+                            limit.cancel();
+                            return;
+                        }
+                        long elapsed = System.nanoTime() - start;
+                        circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, e);
+                        limit.release(elapsed, true);
+                    })
+                    .doOnCancel(() -> {
+                        circuitBreaker.releasePermission();
+                        limit.cancel();
+                    });
+        };
+        return new OrderedGatewayFilter(filter, Ordered.HIGHEST_PRECEDENCE + 2);
+    }
+
+    /**
+     * 502/503/504: service quá tải hoặc không phản hồi → limiter giảm limit
+     */
+    private boolean isOverloaded(HttpStatusCode status) {
+        int code = status.value();
+        return code == 502 || code == 503 || code == 504;
+    }
+
+    private GradientConcurrencyLimit newLimit(String routeId, Config config) {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit());
+        Gauge.builder("gateway.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit of a route")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight)
+                .description("Requests of a route currently waiting on the upstream service")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        logger.debug("Adaptive concurrency limit created for route {} (initial {})", routeId, limit.getLimit());
+        return limit;
+    }
+
+    private void rejected(String routeId, String reason) {
+        Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected before reaching the upstream service")
+                .tags("route", routeId, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+    }
+}
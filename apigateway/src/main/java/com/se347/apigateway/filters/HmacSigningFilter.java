@@ -1,21 +1,28 @@
 package com.se347.apigateway.filters;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
-import com.se347.apigateway.utils.HashUtil;
 import com.se347.apigateway.exceptions.HmacException;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.eduweb.security.HmacSigner;
 
 /**
  * HMAC Signing Filter cho API Gateway
@@ -30,18 +37,19 @@ public class HmacSigningFilter extends AbstractGatewayFilterFactory<HmacSigningF
 
     private static final Logger logger = LoggerFactory.getLogger(HmacSigningFilter.class);
 
-    @Value("${gateway.hmac.secret}")
-    private String secret;
+    private final HmacSigner hmacSigner;
+    private final GatewayMetrics metrics;
 
-    public HmacSigningFilter() {
+    public HmacSigningFilter(HmacSigner hmacSigner, GatewayMetrics metrics) {
         super(Config.class);
+        this.hmacSigner = hmacSigner;
+        this.metrics = metrics;
     }
 
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
-            String method = request.getMethod().name();
             String url = request.getURI().getPath();
 
             // Chỉ ký request cho các path cần thiết
@@ -49,58 +57,72 @@ public class HmacSigningFilter extends AbstractGatewayFilterFactory<HmacSigningF
                 return chain.filter(exchange);
             }
 
-            logger.debug("HMAC signing for path: {}", url);
-            
-            return exchange.getRequest().getBody()
-            .reduce(exchange.getResponse().bufferFactory().wrap(new byte[0]), (prev, next) -> {
-                byte[] a = new byte[prev.readableByteCount()];
-                prev.read(a);
-                byte[] b = new byte[next.readableByteCount()];
-                next.read(b);
-                byte[] merged = new byte[a.length + b.length];
-                System.arraycopy(a, 0, merged, 0, a.length);
-                System.arraycopy(b, 0, merged, a.length, b.length);
-                return exchange.getResponse().bufferFactory().wrap(merged);
+            // Hash body theo từng DataBuffer khi nó chảy qua, giữ nguyên buffer gốc để chuyển tiếp
+            StreamingBody body = new StreamingBody();
+            String routeId = GatewayMetrics.routeId(exchange);
+            long start = System.nanoTime();
+            return request.getBody()
+            .doOnNext(body::append)
+            .doOnError(e -> {
+                body.release();
+                metrics.recordFilter(GatewayMetrics.FILTER_HMAC, routeId, GatewayMetrics.OUTCOME_ERROR, start);
             })
-            .defaultIfEmpty(exchange.getResponse().bufferFactory().wrap(new byte[0]))
-            .flatMap(buffer -> {
-                byte[] bytes = new byte[buffer.readableByteCount()];
-                buffer.read(bytes);
-
-                String bodyHash = HashUtil.base64Sha256(bytes);
-                String nonce = UUID.randomUUID().toString();
-                String timestamp = String.valueOf(Instant.now().getEpochSecond());
-                String payload = method + "\n" + url + "\n" + bodyHash + "\n" + nonce + "\n" + timestamp;
-                String hmacSignature = computeHmacSHA256(secret, payload);
-
-                logger.debug("HMAC signing - Method: {}, URL: {}, BodyHash: {}, Nonce: {}, Timestamp: {}", 
-                           method, url, bodyHash, nonce, timestamp);
-                logger.debug("HMAC signing payload: {}", payload);
-                logger.debug("HMAC signature: {}", hmacSignature);
-
-                ServerHttpRequest decorated = new org.springframework.http.server.reactive.ServerHttpRequestDecorator(request) {
-                    @Override
-                    public @org.springframework.lang.NonNull reactor.core.publisher.Flux<org.springframework.core.io.buffer.DataBuffer> getBody() {
-                        org.springframework.core.io.buffer.DataBufferFactory f = exchange.getResponse().bufferFactory();
-                        return reactor.core.publisher.Flux.just(f.wrap(bytes));
-                    }
-                };
+            .doOnCancel(body::release)
+            // Chỉ lỗi của bước ký mới thành HmacSigningException; lỗi đọc body (413...) và lỗi của
+            // các filter phía sau đi thẳng đến GatewayWebExceptionHandler với status của chúng
+            .then(Mono.fromCallable(() -> sign(request, body, routeId, start))
+                .onErrorMap(throwable -> {
+                    body.release();
+                    metrics.recordFilter(GatewayMetrics.FILTER_HMAC, routeId, GatewayMetrics.OUTCOME_ERROR, start);
+                    logger.error("HMAC signing failed", throwable);
+                    return new HmacException.HmacSigningException("Failed to sign request", throwable);
+                }))
+            // Downstream có thể xong/lỗi mà không đọc body (filter trả response sớm): trả buffer về pool
+            .flatMap(signed -> chain.filter(exchange.mutate().request(signed).build())
+                .doFinally(signal -> body.release()));
+        };
+    }
+
+    /**
+     * Ký request sau khi đã đọc hết body: thêm các header HMAC, body được phát lại từ buffer đã giữ
+     */
+    private ServerHttpRequest sign(ServerHttpRequest request, StreamingBody body, String routeId, long start) {
+        String method = request.getMethod().name();
+        String url = request.getURI().getPath();
+        String bodyHash = body.hash();
+        String nonce = UUID.randomUUID().toString();
+        String timestamp = String.valueOf(Instant.now().getEpochSecond());
+        String payload = HmacSigner.payload(method, url, bodyHash, nonce, timestamp);
+        String hmacSignature = hmacSigner.sign(payload);
+
+        // Thời gian đọc + hash body và ký, chưa gồm phần chuyển tiếp đến service
+        metrics.recordFilter(GatewayMetrics.FILTER_HMAC, routeId, GatewayMetrics.OUTCOME_SUCCESS, start);
+        if (body.size() > 0) {
+            metrics.recordBodySize(GatewayMetrics.DIRECTION_REQUEST, routeId, body.size());
+        }
 
-                ServerHttpRequest mutatedRequest = decorated.mutate()
-                    .header("HMAC-AUTH", hmacSignature)
-                    .header("HMAC-NONCE", nonce)
-                    .header("HMAC-TIMESTAMP", timestamp)
-                    .header("X-Gateway-Signed", "true")
-                    .header("X-Body-SHA256", bodyHash)
-                    .build();
+        ServerHttpRequest decorated = new ServerHttpRequestDecorator(request) {
+            @Override
+            public @NonNull Flux<DataBuffer> getBody() {
+                return body.replay();
+            }
+        };
 
-                return chain.filter(exchange.mutate().request(mutatedRequest).build());
+        long bodySize = body.size();
+        return decorated.mutate()
+            // Body đã đọc hết: chuyển tiếp với Content-Length (service từ chối body ký mà không có Content-Length)
+            .headers(headers -> {
+                if (bodySize > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+                    headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                    headers.setContentLength(bodySize);
+                }
             })
-            .onErrorResume(throwable -> {
-                logger.error("HMAC signing failed", throwable);
-                throw new HmacException.HmacSigningException("Failed to sign request", throwable);
-            });
-        };
+            .header(HmacSigner.HEADER_SIGNATURE, hmacSignature)
+            .header(HmacSigner.HEADER_NONCE, nonce)
+            .header(HmacSigner.HEADER_TIMESTAMP, timestamp)
+            .header(HmacSigner.HEADER_GATEWAY_SIGNED, "true")
+            .header(HmacSigner.HEADER_BODY_SHA256, bodyHash)
+            .build();
     }
 
     /**
@@ -116,16 +138,64 @@ public class HmacSigningFilter extends AbstractGatewayFilterFactory<HmacSigningF
     }
 
     /**
-     * Compute HMAC-SHA256 signature
+     * Body của request đang được ký
+     *
+     * Mỗi DataBuffer được đưa vào MessageDigest ngay khi đến (đọc qua ByteBuffer view,
+     * không copy, không đổi read position) và được giữ lại nguyên vẹn để chuyển tiếp.
+     * Buffer được giải phóng nếu request lỗi/bị huỷ trước khi chuyển tiếp, khi downstream
+     * kết thúc mà chưa subscribe replay(), hoặc khi downstream bỏ qua chúng;
+     * bình thường downstream sẽ release sau khi ghi.
      */
-    private String computeHmacSHA256(String secretKey, String data) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] hmac = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hmac);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute HMAC", e);
+    private static final class StreamingBody {
+
+        private final MessageDigest digest = HmacSigner.newSha256();
+        private final List<DataBuffer> buffers = new ArrayList<>();
+        private long size;
+        private boolean replayed;
+        private boolean released;
+
+        synchronized void append(DataBuffer buffer) {
+            size += buffer.readableByteCount();
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    digest.update(iterator.next());
+                }
+            }
+            buffers.add(buffer);
+        }
+
+        synchronized long size() {
+            return size;
+        }
+
+        String hash() {
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+
+        /**
+         * Quyền sở hữu buffer chuyển cho downstream khi nó subscribe (không phải khi gọi getBody())
+         */
+        Flux<DataBuffer> replay() {
+            return Flux.defer(() -> {
+                List<DataBuffer> snapshot;
+                synchronized (this) {
+                    if (replayed || released) {
+                        return Flux.error(new IllegalStateException("Request body has already been consumed"));
+                    }
+                    replayed = true;
+                    snapshot = new ArrayList<>(buffers);
+                }
+                return Flux.fromIterable(snapshot)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            });
+        }
+
+        synchronized void release() {
+            if (!replayed && !released) {
+                buffers.forEach(DataBufferUtils::release);
+            }
+            released = true;
+            buffers.clear();
         }
     }
 
@@ -1,9 +1,12 @@
 package com.se347.apigateway.filters;
 
-import com.se347.apigateway.configs.JwtConfig;
 import com.se347.apigateway.exceptions.JwtException;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.securities.JwtClaimsCache;
+import com.se347.apigateway.securities.TokenBlacklistService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -11,7 +14,7 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -30,11 +33,17 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
+    // User id đã xác thực, dùng cho access log (attribute dùng chung giữa các exchange đã mutate)
+    public static final String AUTHENTICATED_USER_ID_ATTR = "gateway.authenticatedUserId";
+
+    @Autowired
+    private JwtClaimsCache jwtClaimsCache;
+
     @Autowired
-    private JwtConfig jwtConfig;
+    private TokenBlacklistService tokenBlacklistService;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private GatewayMetrics metrics;
 
     public JwtAuthenticationFilter() {
         super(Config.class);
@@ -60,51 +69,71 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
                 throw new JwtException.JwtTokenMissingException("Authorization token is required");
             }
             
-            // Kiểm tra token có trong blacklist
-            if (redisTemplate.hasKey("blacklist:" + token)) {
-                throw new JwtException.JwtTokenInvalidException("Token is blacklisted or expired");
-            }
+            // Kiểm tra token có trong blacklist (non-blocking, đa số request không cần gọi Redis)
+            String routeId = GatewayMetrics.routeId(exchange);
+            long blacklistStart = System.nanoTime();
+            return tokenBlacklistService.isBlacklisted(token)
+                .doOnNext(blacklisted -> metrics.recordFilter(GatewayMetrics.FILTER_BLACKLIST, routeId,
+                    blacklisted ? GatewayMetrics.OUTCOME_REJECTED : GatewayMetrics.OUTCOME_SUCCESS, blacklistStart))
+                .doOnError(e -> metrics.recordFilter(GatewayMetrics.FILTER_BLACKLIST, routeId,
+                    GatewayMetrics.OUTCOME_ERROR, blacklistStart))
+                .flatMap(blacklisted -> {
+                    if (blacklisted) {
+                        return Mono.error(new JwtException.JwtTokenInvalidException("Token is blacklisted or expired"));
+                    }
+                    return authenticate(exchange, chain, request, token, routeId);
+                });
+        };
+    }
 
-            try {
-                // Validate token chữ ký/hạn
-                if (!jwtConfig.isTokenValid(token)) {
-                    return Mono.error(new JwtException.JwtTokenInvalidException("Token is invalid or expired"));
-                }
-
-                // Lấy thông tin user từ token
-                String username = jwtConfig.getUsernameFromToken(token);
-                String userId = jwtConfig.getUserIdFromToken(token);
-                logger.debug("UserId: {}", userId);
-                java.util.List<String> roles = jwtConfig.getRolesFromToken(token);
-
-                // Sanitize: remove any spoofed identity headers from client
-                ServerHttpRequest sanitized = request.mutate()
-                    .headers(h -> {
-                        h.remove("X-User-Id");
-                        h.remove("X-Username");
-                        h.remove("X-User-Roles");
-                        h.remove("X-Authenticated");
-                    })
-                    .build();
-
-                // Thêm thông tin user vào request headers (chỉ do gateway đặt)
-                ServerHttpRequest modifiedRequest = sanitized.mutate()
-                    .header("X-User-Id", userId)
-                    .header("X-Username", username)
-                    .header("X-User-Roles", String.join(",", roles))
-                    .header("X-Authenticated", "true")
-                    .build();
-
-                // Tiếp tục với request đã được modify
-                return chain.filter(exchange.mutate().request(modifiedRequest).build());
-
-            } catch (JwtException e) {
-                return Mono.error(e);
-            } catch (Exception e) {
-                logger.error("JWT validation failed", e);
-                return Mono.error(new JwtException.JwtTokenInvalidException("Token validation failed: " + e.getMessage(), e));
+    /**
+     * Validate token và chuyển tiếp request kèm thông tin user
+     */
+    private Mono<Void> authenticate(ServerWebExchange exchange, GatewayFilterChain chain,
+                                    ServerHttpRequest request, String token, String routeId) {
+        try {
+            // Validate token chữ ký/hạn (chỉ parse một lần, các lần sau lấy từ cache)
+            long jwtStart = System.nanoTime();
+            JwtClaimsCache.VerifiedToken verified = jwtClaimsCache.resolve(token).orElse(null);
+            metrics.recordFilter(GatewayMetrics.FILTER_JWT, routeId,
+                verified != null ? GatewayMetrics.OUTCOME_SUCCESS : GatewayMetrics.OUTCOME_REJECTED, jwtStart);
+            if (verified == null) {
+                return Mono.error(new JwtException.JwtTokenInvalidException("Token is invalid or expired"));
             }
-        };
+
+            // Lấy thông tin user từ token
+            String username = verified.username();
+            String userId = verified.userId();
+            exchange.getAttributes().put(AUTHENTICATED_USER_ID_ATTR, userId);
+            List<String> roles = verified.roles();
+
+            // Sanitize: remove any spoofed identity headers from client
+            ServerHttpRequest sanitized = request.mutate()
+                .headers(h -> {
+                    h.remove("X-User-Id");
+                    h.remove("X-Username");
+                    h.remove("X-User-Roles");
+                    h.remove("X-Authenticated");
+                })
+                .build();
+
+            // Thêm thông tin user vào request headers (chỉ do gateway đặt)
+            ServerHttpRequest modifiedRequest = sanitized.mutate()
+                .header("X-User-Id", userId)
+                .header("X-Username", username)
+                .header("X-User-Roles", String.join(",", roles))
+                .header("X-Authenticated", "true")
+                .build();
+
+            // Tiếp tục với request đã được modify
+            return chain.filter(exchange.mutate().request(modifiedRequest).build());
+
+        } catch (JwtException e) {
+            return Mono.error(e);
+        } catch (Exception e) {
+            logger.error("JWT validation failed", e);
+            return Mono.error(new JwtException.JwtTokenInvalidException("Token validation failed: " + e.getMessage(), e));
+        }
     }
 
     /**
@@ -1,9 +1,7 @@
 package com.se347.apigateway.filters;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.securities.JwtClaimsCache;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -13,19 +11,18 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.util.Base64;
-
 @Component
 public class JwtEmailHeaderFilter extends AbstractGatewayFilterFactory<JwtEmailHeaderFilter.Config>
         implements GlobalFilter, Ordered {
 
-    // Đọc secret key từ file application.yml
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Dùng chung cache claims với JwtAuthenticationFilter để không parse token lại
+    private final JwtClaimsCache jwtClaimsCache;
+    private final GatewayMetrics metrics;
 
-    public JwtEmailHeaderFilter() {
+    public JwtEmailHeaderFilter(JwtClaimsCache jwtClaimsCache, GatewayMetrics metrics) {
         super(Config.class);
+        this.jwtClaimsCache = jwtClaimsCache;
+        this.metrics = metrics;
     }
 
     public static class Config {
@@ -59,7 +56,10 @@ public class JwtEmailHeaderFilter extends AbstractGatewayFilterFactory<JwtEmailH
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
+            long start = System.nanoTime();
             String email = extractSubject(token);
+            metrics.recordFilter(GatewayMetrics.FILTER_JWT_EMAIL, GatewayMetrics.routeId(exchange),
+                    email != null ? GatewayMetrics.OUTCOME_SUCCESS : GatewayMetrics.OUTCOME_REJECTED, start);
 
             if (email != null && !email.isEmpty()) {
                 // Phải tạo request mới (immutable)
@@ -75,24 +75,13 @@ public class JwtEmailHeaderFilter extends AbstractGatewayFilterFactory<JwtEmailH
     }
 
     /**
-     * Giải mã JWT và lấy subject (ở đây là email)
+     * Lấy subject (ở đây là email) từ claims đã xác thực
+     * Token không hợp lệ trả về null để request vẫn đi qua Gateway
      */
     private String extractSubject(String token) {
-        try {
-            // Secret key phải được Base64 encode trong cấu hình
-            SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(jwtSecret));
-
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            return claims.getSubject(); // thường là email hoặc username
-        } catch (Exception e) {
-            // Tránh throw lỗi để request vẫn đi qua Gateway
-            return null;
-        }
+        return jwtClaimsCache.resolve(token)
+                .map(JwtClaimsCache.VerifiedToken::username)
+                .orElse(null);
     }
 
     /**
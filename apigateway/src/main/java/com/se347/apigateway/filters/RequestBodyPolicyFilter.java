@@ -0,0 +1,179 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.exceptions.GatewayException;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.resilience.RequestBodyBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request Body Policy Filter cho API Gateway
+ *
+ * Filter này sẽ (trước khi đọc bất kỳ buffer nào của body):
+ * 1. Trả 413 nếu Content-Length vượt maxSize của route; body không có Content-Length (chunked)
+ *    bị cắt với 413 ngay khi vượt maxSize
+ * 2. Route BUFFER (body bị giữ trong bộ nhớ, ví dụ để HmacSigningFilter tính hash): giữ chỗ
+ *    Content-Length byte (hoặc maxSize nếu chunked) trong RequestBodyBudget. Hết ngân sách →
+ *    chưa đọc body (TCP tự backpressure) và chờ tối đa gateway.body-budget.max-wait, sau đó 503
+ * 3. Route STREAM: body đi thẳng đến service, không giữ chỗ ngân sách, chỉ kiểm tra maxSize
+ *
+ * Filter chạy ngay sau LoadSheddingFilter, trước các filter khác của route, không phụ thuộc thứ tự khai báo.
+ * Metrics: gateway.body.rejected (tag route, reason) và gateway.body.budget.* của RequestBodyBudget.
+ */
+@Component
+public class RequestBodyPolicyFilter extends AbstractGatewayFilterFactory<RequestBodyPolicyFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestBodyPolicyFilter.class);
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(20);
+
+    private final RequestBodyBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final DataSize defaultMaxSize;
+    private final Duration maxWait;
+
+    public RequestBodyPolicyFilter(RequestBodyBudget budget,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${gateway.body-budget.default-max-size:10MB}") DataSize defaultMaxSize,
+                                   @Value("${gateway.body-budget.max-wait:PT2S}") Duration maxWait) {
+        super(Config.class);
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+        this.defaultMaxSize = defaultMaxSize;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxSize", "mode");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxSize = (config.getMaxSize() != null ? config.getMaxSize() : defaultMaxSize).toBytes();
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            long contentLength = request.getHeaders().getContentLength();
+            boolean chunked = contentLength < 0 && request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING);
+
+            // Không có body (GET/DELETE)
+            if (contentLength <= 0 && !chunked) {
+                return chain.filter(exchange);
+            }
+
+            String routeId = GatewayMetrics.routeId(exchange);
+            if (contentLength > maxSize) {
+                rejected(routeId, "too-large");
+                return Mono.error(new GatewayException.PayloadTooLargeException(maxSize));
+            }
+
+            ServerHttpRequest limited = chunked ? limitBody(request, maxSize, routeId) : request;
+            if (config.getMode() == Mode.STREAM) {
+                return chain.filter(exchange.mutate().request(limited).build());
+            }
+
+            long reserved = chunked ? maxSize : contentLength;
+            if (reserved > budget.getCapacity()) {
+                rejected(routeId, "too-large");
+                return Mono.error(new GatewayException.PayloadTooLargeException(budget.getCapacity()));
+            }
+            return reserve(reserved)
+                    .onErrorMap(e -> {
+                        rejected(routeId, "budget-exhausted");
+                        logger.debug("Body budget exhausted for route {} ({} bytes, {} in use)",
+                                routeId, reserved, budget.getUsed());
+                        return new GatewayException.BodyBudgetExhaustedException(reserved);
+                    })
+                    .then(Mono.defer(() -> chain.filter(exchange.mutate().request(limited).build())
+                            .doFinally(signal -> budget.release(reserved))));
+        };
+        return new OrderedGatewayFilter(filter, Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+
+    /**
+     * Giữ chỗ trong ngân sách, thử lại đến maxWait nếu đang hết
+     */
+    private Mono<Void> reserve(long bytes) {
+        if (budget.tryReserve(bytes)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> budget.tryReserve(bytes) ? Boolean.TRUE : null)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(RETRY_INTERVAL))
+                .timeout(maxWait)
+                .then();
+    }
+
+    /**
+     * Body không có Content-Length: đếm byte khi chảy qua và dừng với 413 khi vượt maxSize
+     */
+    private ServerHttpRequest limitBody(ServerHttpRequest request, long maxSize, String routeId) {
+        return new ServerHttpRequestDecorator(request) {
+            @Override
+            public @NonNull Flux<DataBuffer> getBody() {
+                AtomicLong total = new AtomicLong();
+                return super.getBody().handle((buffer, sink) -> {
+                    if (total.addAndGet(buffer.readableByteCount()) > maxSize) {
+                        DataBufferUtils.release(buffer);
+                        rejected(routeId, "too-large");
+                        sink.error(new GatewayException.PayloadTooLargeException(maxSize));
+                    } else {
+                        sink.next(buffer);
+                    }
+                });
+            }
+        };
+    }
+
+    private void rejected(String routeId, String reason) {
+        Counter.builder("gateway.body.rejected")
+                .description("Requests rejected by the per-route body policy")
+                .tags("route", routeId, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * BUFFER: body bị giữ trong Gateway (mặc định); STREAM: body đi thẳng đến service
+     */
+    public enum Mode {
+        BUFFER, STREAM
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        // Kích thước body tối đa; mặc định gateway.body-budget.default-max-size
+        private DataSize maxSize;
+
+        private Mode mode = Mode.BUFFER;
+
+        public DataSize getMaxSize() { return maxSize; }
+        public void setMaxSize(DataSize maxSize) { this.maxSize = maxSize; }
+
+        public Mode getMode() { return mode; }
+        public void setMode(Mode mode) { this.mode = mode; }
+    }
+}
@@ -0,0 +1,240 @@
+package com.se347.apigateway.filters;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Request Coalescing Filter cho API Gateway (single-flight)
+ *
+ * Filter này sẽ:
+ * 1. Gộp các GET giống nhau đang chạy đồng thời thành một lời gọi đến service
+ * 2. Request đầu tiên (leader) gọi service, các request sau (waiter) chờ response của leader
+ * 3. Response được sao chép cho tất cả waiter
+ *
+ * Key = method + path + query + phạm vi xác thực (scope) của route.
+ * Waiter tự gọi service nếu chờ quá maxWait, vượt quá maxWaiters,
+ * hoặc leader không có response dùng chung được (lỗi, bị huỷ, body quá lớn, có Set-Cookie).
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescingFilter.class);
+    private static final String COALESCED_HEADER = "X-Coalesced";
+
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final int maxBodyBytes;
+
+    public RequestCoalescingFilter(@Value("${gateway.coalescing.max-body-size:1MB}") DataSize maxBodySize) {
+        super(Config.class);
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("scope", "maxWait", "maxWaiters");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = coalescingKey(exchange, config.getScope());
+            InFlight created = new InFlight();
+            InFlight existing = inFlight.putIfAbsent(key, created);
+
+            if (existing == null) {
+                return lead(exchange, chain, key, created);
+            }
+            if (!existing.tryJoin(config.getMaxWaiters())) {
+                logger.debug("Coalescing waiter limit reached for {}", key);
+                return chain.filter(exchange);
+            }
+
+            // Leader không có response dùng chung trong maxWait → tự gọi service
+            return existing.result()
+                    .timeout(config.getMaxWait(), Mono.empty())
+                    .map(shared -> writeShared(exchange, shared))
+                    .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                    .flatMap(Function.identity());
+        };
+    }
+
+    /**
+     * Gọi service cho leader và phát response cho các waiter
+     */
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, String key, InFlight flight) {
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public @NonNull Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+                if (getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                    flight.complete(null);
+                    return super.writeWith(body);
+                }
+                return Flux.from(body).collectList().flatMap(buffers -> {
+                    DataBuffer joined = bufferFactory().join(buffers);
+                    if (joined.readableByteCount() > maxBodyBytes) {
+                        flight.complete(null);
+                        return super.writeWith(Mono.just(joined));
+                    }
+
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    flight.complete(new SharedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(getHeaders()), bytes));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    // Chưa có response (lỗi, huỷ, không có body) → waiter tự gọi service
+                    inFlight.remove(key, flight);
+                    flight.complete(null);
+                });
+    }
+
+    /**
+     * Ghi bản sao response của leader cho một waiter
+     */
+    private Mono<Void> writeShared(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach((name, values) -> {
+            if (!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                    && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    && !HttpHeaders.CONNECTION.equalsIgnoreCase(name)) {
+                headers.put(name, values);
+            }
+        });
+        headers.setContentLength(shared.body().length);
+        headers.set(COALESCED_HEADER, "true");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private String coalescingKey(ServerWebExchange exchange, Scope scope) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+
+        StringBuilder key = new StringBuilder()
+                .append(route != null ? route.getId() : "").append(':')
+                .append(request.getMethod().name()).append(' ')
+                .append(request.getURI().getRawPath());
+        if (query != null) {
+            key.append('?').append(query);
+        }
+
+        // X-User-Id/X-User-Roles do JwtAuthenticationFilter đặt, filter này phải đứng sau nó
+        HttpHeaders headers = request.getHeaders();
+        switch (scope) {
+            case USER -> key.append("|user=").append(headers.getFirst("X-User-Id"));
+            case ROLES -> key.append("|roles=").append(headers.getFirst("X-User-Roles"));
+            case PUBLIC -> { }
+        }
+        return key.toString();
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {}
+
+    /**
+     * Một lời gọi đang chạy và các waiter của nó
+     */
+    private static final class InFlight {
+
+        private final Sinks.One<SharedResponse> sink = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        boolean tryJoin(int maxWaiters) {
+            int current;
+            do {
+                current = waiters.get();
+                if (current >= maxWaiters) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        Mono<SharedResponse> result() {
+            return sink.asMono();
+        }
+
+        void complete(SharedResponse response) {
+            if (response != null) {
+                sink.tryEmitValue(response);
+            } else {
+                sink.tryEmitEmpty();
+            }
+        }
+    }
+
+    /**
+     * Phạm vi xác thực đưa vào key: chỉ gộp request có cùng quyền nhìn thấy dữ liệu
+     */
+    public enum Scope {
+        // Response không phụ thuộc user
+        PUBLIC,
+        // Response phụ thuộc role (X-User-Roles)
+        ROLES,
+        // Response phụ thuộc từng user (X-User-Id)
+        USER
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        private Scope scope = Scope.USER;
+
+        // Thời gian tối đa một waiter chờ leader
+        private Duration maxWait = Duration.ofSeconds(2);
+
+        // Số waiter tối đa cho mỗi lời gọi đang chạy
+        private int maxWaiters = 1000;
+
+        public Scope getScope() { return scope; }
+        public void setScope(Scope scope) { this.scope = scope; }
+
+        public Duration getMaxWait() { return maxWait; }
+        public void setMaxWait(Duration maxWait) { this.maxWait = maxWait; }
+
+        public int getMaxWaiters() { return maxWaiters; }
+        public void setMaxWaiters(int maxWaiters) { this.maxWaiters = maxWaiters; }
+    }
+}
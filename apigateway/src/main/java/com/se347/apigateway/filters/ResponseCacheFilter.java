@@ -0,0 +1,226 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.cache.ResponseCache;
+import com.se347.apigateway.utils.HashUtil;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Response Cache Filter cho API Gateway
+ *
+ * Filter này sẽ:
+ * 1. Trả response GET của các path được cấu hình từ cache (L1 Caffeine, L2 Redis) mà không gọi service
+ * 2. Khi miss, chuyển tiếp request rồi lưu response 200 vào cache
+ * 3. Gắn ETag (SHA-256 của body) và trả 304 khi If-None-Match khớp
+ *
+ * Chỉ dùng cho dữ liệu không phụ thuộc user (catalog course/category), cache bị xoá khi course thay đổi.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCache responseCache;
+    private final Duration defaultTtl;
+    private final int maxBodyBytes;
+
+    public ResponseCacheFilter(ResponseCache responseCache,
+                               @Value("${gateway.response-cache.default-ttl:PT60S}") Duration defaultTtl,
+                               @Value("${gateway.response-cache.max-body-size:256KB}") DataSize maxBodySize) {
+        super(Config.class);
+        this.responseCache = responseCache;
+        this.defaultTtl = defaultTtl;
+        this.maxBodyBytes = (int) maxBodySize.toBytes();
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = new ArrayList<>();
+        for (String path : config.getPaths()) {
+            patterns.add(PathPatternParser.defaultInstance.parse(path.trim()));
+        }
+        Duration ttl = config.getTtl() != null ? config.getTtl() : defaultTtl;
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+
+            // Chỉ cache GET của các path đã cấu hình
+            if (request.getMethod() != HttpMethod.GET || !matches(patterns, request)) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(exchange);
+            long generation = responseCache.generation();
+
+            return responseCache.get(key)
+                    .map(cached -> serveCached(exchange, cached))
+                    .defaultIfEmpty(Mono.defer(() -> forward(exchange, chain, key, ttl, generation)))
+                    .flatMap(Function.identity());
+        };
+    }
+
+    /**
+     * Trả response từ cache (hoặc 304 nếu client đã có đúng phiên bản)
+     */
+    private Mono<Void> serveCached(ServerWebExchange exchange, ResponseCache.CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        if (notModified(exchange.getRequest(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        if (cached.contentType() != null) {
+            headers.setContentType(MediaType.parseMediaType(cached.contentType()));
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    /**
+     * Chuyển tiếp request, giữ lại body của response để cache và tính ETag
+     */
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain,
+                               String key, Duration ttl, long generation) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse original = exchange.getResponse();
+
+        ServerHttpResponseDecorator caching = new ServerHttpResponseDecorator(original) {
+            @Override
+            public @NonNull Mono<Void> writeWith(@NonNull Publisher<? extends DataBuffer> body) {
+                if (!isCacheable(this)) {
+                    return super.writeWith(body);
+                }
+                return Flux.from(body).collectList().flatMap(buffers -> {
+                    DataBuffer joined = bufferFactory().join(buffers);
+                    if (joined.readableByteCount() > maxBodyBytes) {
+                        return super.writeWith(Mono.just(joined));
+                    }
+
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+
+                    String etag = "\"" + HashUtil.base64Sha256(bytes) + "\"";
+                    MediaType contentType = getHeaders().getContentType();
+                    responseCache.put(key, new ResponseCache.CachedResponse(
+                            bytes,
+                            contentType != null ? contentType.toString() : null,
+                            etag,
+                            System.currentTimeMillis() + ttl.toMillis()), generation);
+
+                    getHeaders().setETag(etag);
+                    getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                    if (notModified(request, etag)) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+                        return setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+
+        logger.debug("Response cache miss: {}", key);
+        return chain.filter(exchange.mutate().response(caching).build());
+    }
+
+    /**
+     * Chỉ cache response 200 không chứa cookie và không bị service đánh dấu private/no-store
+     */
+    private boolean isCacheable(ServerHttpResponse response) {
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private boolean notModified(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(List<PathPattern> patterns, ServerHttpRequest request) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Key = route + path + query; không gồm thông tin user vì chỉ cache dữ liệu công khai
+     */
+    private String cacheKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        return (route != null ? route.getId() : "") + ":" + request.getURI().getRawPath()
+                + (query != null ? "?" + query : "");
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        // Các path pattern được cache, ví dụ /api/courses/slug/*
+        private List<String> paths = new ArrayList<>();
+
+        // Thời gian sống của entry; mặc định gateway.response-cache.default-ttl
+        private Duration ttl;
+
+        public List<String> getPaths() { return paths; }
+        public void setPaths(List<String> paths) { this.paths = paths; }
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+    }
+}
@@ -0,0 +1,169 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.bff.SignedServiceClient;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Traffic Mirror Filter cho API Gateway (shadow request để kiểm tra hiệu năng bản build mới)
+ *
+ * Với percent% request GET của route, Gateway gửi thêm một bản sao (đã ký HMAC, kèm thông tin user)
+ * đến uri shadow lb://{service}. Response của shadow bị bỏ; user chỉ nhận response của service chính.
+ * - Shadow chạy độc lập với request chính: không làm chậm, không bị huỷ theo request chính
+ * - Tối đa gateway.mirror.max-in-flight shadow request cùng lúc, quá thì bỏ qua; timeout gateway.mirror.timeout
+ * - Metrics: gateway.mirror.duration (tag route, target=primary|shadow, status) để so sánh độ trễ,
+ *   gateway.mirror.status-mismatch khi nhóm status khác nhau, gateway.mirror.skipped (tag reason)
+ *
+ * Filter phải đứng sau JwtAuthenticationFilter để shadow nhận cùng thông tin user.
+ */
+@Component
+public class TrafficMirrorFilter extends AbstractGatewayFilterFactory<TrafficMirrorFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficMirrorFilter.class);
+    private static final String TARGET_PRIMARY = "primary";
+    private static final String TARGET_SHADOW = "shadow";
+    private static final String STATUS_ERROR = "error";
+
+    private final SignedServiceClient client;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public TrafficMirrorFilter(SignedServiceClient client,
+                               MeterRegistry meterRegistry,
+                               @Value("${gateway.mirror.timeout:PT5S}") Duration timeout,
+                               @Value("${gateway.mirror.max-in-flight:100}") int maxInFlight) {
+        super(Config.class);
+        this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("uri", "percent");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        URI uri = config.getUri();
+        if (uri == null || !"lb".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("TrafficMirrorFilter requires an lb://{service} uri, got " + uri);
+        }
+        String shadowService = uri.getHost();
+        double fraction = Math.max(0, Math.min(100, config.getPercent())) / 100.0;
+
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || fraction <= 0
+                    || ThreadLocalRandom.current().nextDouble() >= fraction) {
+                return chain.filter(exchange);
+            }
+
+            String routeId = GatewayMetrics.routeId(exchange);
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                skipped(routeId, "max-in-flight");
+                return chain.filter(exchange);
+            }
+
+            long shadowStart = System.nanoTime();
+            Mono<String> shadow = client.getDiscardingBody(shadowService, request.getURI().getRawPath(),
+                            request.getURI().getRawQuery(), request.getHeaders())
+                    .timeout(timeout)
+                    .map(TrafficMirrorFilter::statusGroup)
+                    .onErrorResume(e -> {
+                        logger.debug("Shadow request to {} failed: {}", shadowService, e.toString());
+                        return Mono.just(STATUS_ERROR);
+                    })
+                    .doOnNext(status -> record(routeId, TARGET_SHADOW, status, shadowStart))
+                    .doFinally(signal -> inFlight.decrementAndGet())
+                    .cache();
+            shadow.subscribe();
+
+            long primaryStart = System.nanoTime();
+            return chain.filter(exchange)
+                    .doOnSuccess(v -> compare(exchange, routeId, shadow, statusGroup(exchange.getResponse().getStatusCode()), primaryStart))
+                    .doOnError(e -> compare(exchange, routeId, shadow, STATUS_ERROR, primaryStart));
+        };
+    }
+
+    private void compare(ServerWebExchange exchange, String routeId, Mono<String> shadow,
+                         String primaryStatus, long primaryStart) {
+        record(routeId, TARGET_PRIMARY, primaryStatus, primaryStart);
+        shadow.subscribe(shadowStatus -> {
+            if (!shadowStatus.equals(primaryStatus)) {
+                Counter.builder("gateway.mirror.status-mismatch")
+                        .description("Mirrored requests whose shadow status group differed from the primary")
+                        .tags("route", routeId, "primary", primaryStatus, "shadow", shadowStatus)
+                        .register(meterRegistry)
+                        .increment();
+                logger.debug("Shadow status {} differs from primary {} for {}",
+                        shadowStatus, primaryStatus, exchange.getRequest().getURI().getRawPath());
+            }
+        });
+    }
+
+    private void record(String routeId, String target, String status, long startNanos) {
+        Timer.builder("gateway.mirror.duration")
+                .description("Latency of mirrored requests on the primary and shadow targets")
+                .tags("route", routeId, "target", target, "status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void skipped(String routeId, String reason) {
+        Counter.builder("gateway.mirror.skipped")
+                .description("Requests selected for mirroring that were not mirrored")
+                .tags("route", routeId, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String statusGroup(HttpStatusCode status) {
+        return status == null ? "none" : (status.value() / 100) + "xx";
+    }
+
+    /**
+     * Configuration class cho filter
+     */
+    public static class Config {
+
+        // Service shadow, dạng lb://{service}
+        private URI uri;
+
+        // Phần trăm request GET được mirror (0-100)
+        private double percent;
+
+        public URI getUri() { return uri; }
+        public void setUri(URI uri) { this.uri = uri; }
+
+        public double getPercent() { return percent; }
+        public void setPercent(double percent) { this.percent = percent; }
+    }
+}
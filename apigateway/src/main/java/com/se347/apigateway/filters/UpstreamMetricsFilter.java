@@ -0,0 +1,52 @@
+package com.se347.apigateway.filters;
+
+import com.se347.apigateway.metrics.GatewayMetrics;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Đo độ trễ của service phía sau Gateway
+ *
+ * Chạy ngay trước NettyRoutingFilter nên chỉ tính thời gian từ lúc gửi request đến service
+ * cho đến khi nhận được response header (không gồm các filter của Gateway).
+ * Kích thước body response lấy từ Content-Length của service nếu có.
+ */
+@Component
+public class UpstreamMetricsFilter implements GlobalFilter, Ordered {
+
+    private final GatewayMetrics metrics;
+
+    public UpstreamMetricsFilter(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    String outcome = signal == SignalType.ON_COMPLETE
+                            ? GatewayMetrics.OUTCOME_SUCCESS
+                            : GatewayMetrics.OUTCOME_ERROR;
+                    metrics.recordUpstream(GatewayMetrics.serviceName(exchange), response.getStatusCode(), outcome, start);
+
+                    long contentLength = response.getHeaders().getContentLength();
+                    if (contentLength >= 0) {
+                        metrics.recordBodySize(GatewayMetrics.DIRECTION_RESPONSE, GatewayMetrics.routeId(exchange), contentLength);
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+}
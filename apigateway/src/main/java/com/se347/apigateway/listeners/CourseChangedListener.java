@@ -0,0 +1,37 @@
+package com.se347.apigateway.listeners;
+
+import com.se347.apigateway.cache.ResponseCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nhận sự kiện course được tạo/cập nhật từ courseservice và xoá response cache của catalog
+ *
+ * Nội dung message không được đọc: một thay đổi có thể ảnh hưởng nhiều trang danh sách,
+ * nên toàn bộ cache được xoá thay vì từng entry.
+ *
+ * courseservice publish course-updated khi course, section, lesson, content hoặc category đổi.
+ * Thay đổi không phát sự kiện (hoặc message bị mất khi RabbitMQ gián đoạn) chỉ cũ tối đa
+ * gateway.response-cache.default-ttl (mặc định 60 giây).
+ */
+@Component
+public class CourseChangedListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseChangedListener.class);
+
+    private final ResponseCache responseCache;
+
+    public CourseChangedListener(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @RabbitListener(queues = "#{responseCacheInvalidationQueue.name}")
+    public void onCourseChanged(Message message) {
+        logger.debug("Course changed ({}), invalidating response cache",
+                message.getMessageProperties().getReceivedRoutingKey());
+        responseCache.invalidateAll();
+    }
+}
@@ -0,0 +1,27 @@
+package com.se347.apigateway.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint /actuator/lbinstances: sức khoẻ thụ động của các instance lb:// theo service
+ */
+@Component
+@Endpoint(id = "lbinstances")
+public class InstanceHealthEndpoint {
+
+    private final InstanceHealthTracker tracker;
+
+    public InstanceHealthEndpoint(InstanceHealthTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @ReadOperation
+    public Map<String, List<InstanceHealthTracker.InstanceSnapshot>> instances() {
+        return tracker.snapshot();
+    }
+}
@@ -0,0 +1,215 @@
+package com.se347.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Theo dõi sức khoẻ thụ động của từng instance lb:// (dựa trên request thật, không gửi health check)
+ *
+ * - Độ trễ: peak-EWMA (tăng ngay theo mẫu chậm, giảm dần theo thời gian với hằng số latency-decay)
+ * - Tỉ lệ lỗi: EWMA của lỗi kết nối/5xx
+ * - Loại tạm thời (eject) khi lỗi liên tiếp >= consecutive-failures hoặc tỉ lệ lỗi >= error-rate-threshold
+ *   (sau ít nhất min-requests request). Thời gian loại = base-ejection-time * số lần bị loại, tối đa
+ *   max-ejection-time; không loại quá max-ejection-percent số instance của một service
+ * - Điểm chọn instance = độ trễ EWMA * (số request đang chạy + 1), càng thấp càng tốt
+ */
+@Component
+public class InstanceHealthTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceHealthTracker.class);
+    private static final double ERROR_RATE_ALPHA = 0.1;
+    private static final long STALE_AFTER_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final int consecutiveFailures;
+    private final double errorRateThreshold;
+    private final int minRequests;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+    private final double latencyDecayNanos;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceHealthTracker(@Value("${gateway.outlier.consecutive-failures:5}") int consecutiveFailures,
+                                 @Value("${gateway.outlier.error-rate-threshold:0.5}") double errorRateThreshold,
+                                 @Value("${gateway.outlier.min-requests:20}") int minRequests,
+                                 @Value("${gateway.outlier.base-ejection-time:PT30S}") Duration baseEjectionTime,
+                                 @Value("${gateway.outlier.max-ejection-time:PT5M}") Duration maxEjectionTime,
+                                 @Value("${gateway.outlier.max-ejection-percent:50}") int maxEjectionPercent,
+                                 @Value("${gateway.outlier.latency-decay:PT10S}") Duration latencyDecay) {
+        this.consecutiveFailures = consecutiveFailures;
+        this.errorRateThreshold = errorRateThreshold;
+        this.minRequests = minRequests;
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+        this.latencyDecayNanos = latencyDecay.toNanos();
+    }
+
+    /**
+     * Instance có đang nhận request không (không bị loại)
+     */
+    public boolean isAvailable(ServiceInstance instance) {
+        InstanceStats s = stats.get(key(instance));
+        return s == null || !s.isEjected(System.nanoTime());
+    }
+
+    /**
+     * Điểm chọn instance; instance chưa có số liệu được ưu tiên (điểm 0) để có mẫu đầu tiên
+     */
+    public double score(ServiceInstance instance) {
+        InstanceStats s = stats.get(key(instance));
+        return s == null ? 0 : s.score(System.nanoTime());
+    }
+
+    public void onStart(ServiceInstance instance) {
+        statsFor(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Ghi nhận kết quả một request; failed = lỗi kết nối/timeout hoặc 5xx
+     */
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats s = statsFor(instance);
+        s.inFlight.decrementAndGet();
+        long now = System.nanoTime();
+        boolean shouldEject = s.record(now, latencyNanos, failed, consecutiveFailures, errorRateThreshold, minRequests);
+        if (shouldEject && canEject(s.serviceId, now)) {
+            int failures = s.consecutiveFailures;
+            long duration = s.eject(now, baseEjectionNanos, maxEjectionNanos);
+            logger.warn("Ejected {} instance {}:{} for {} ms (error rate {}, consecutive failures {})",
+                    s.serviceId, s.host, s.port, TimeUnit.NANOSECONDS.toMillis(duration),
+                    String.format("%.2f", s.errorRate), failures);
+        }
+    }
+
+    /**
+     * Trạng thái theo service, dùng cho actuator endpoint
+     */
+    public Map<String, List<InstanceSnapshot>> snapshot() {
+        long now = System.nanoTime();
+        Map<String, List<InstanceSnapshot>> result = new TreeMap<>();
+        for (InstanceStats s : stats.values()) {
+            if (now - s.lastSeen > STALE_AFTER_NANOS) {
+                continue;
+            }
+            result.computeIfAbsent(s.serviceId, id -> new ArrayList<>()).add(s.snapshot(now));
+        }
+        result.values().forEach(list -> list.sort(Comparator.comparing(InstanceSnapshot::instance)));
+        return result;
+    }
+
+    private boolean canEject(String serviceId, long now) {
+        int total = 0;
+        int ejected = 0;
+        for (InstanceStats s : stats.values()) {
+            if (s.serviceId.equals(serviceId) && now - s.lastSeen <= STALE_AFTER_NANOS) {
+                total++;
+                if (s.isEjected(now)) {
+                    ejected++;
+                }
+            }
+        }
+        return (ejected + 1) * 100 <= total * maxEjectionPercent;
+    }
+
+    private InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(instance));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Trạng thái một instance tại thời điểm xem
+     */
+    public record InstanceSnapshot(String instance, boolean ejected, long ejectedForMillis, int ejections,
+                                   double latencyEwmaMillis, double errorRate, int consecutiveFailures,
+                                   int inFlight, long requests) {
+    }
+
+    private final class InstanceStats {
+
+        private final String serviceId;
+        private final String host;
+        private final int port;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // Chỉ ghi trong synchronized record/eject
+        private volatile double latencyEwmaNanos;
+        private volatile double errorRate;
+        private volatile int consecutiveFailures;
+        private volatile long requests;
+        private volatile long lastSeen = System.nanoTime();
+        private volatile long ejectedUntil;
+        private volatile int ejections;
+
+        private InstanceStats(ServiceInstance instance) {
+            this.serviceId = instance.getServiceId();
+            this.host = instance.getHost();
+            this.port = instance.getPort();
+        }
+
+        private boolean isEjected(long now) {
+            return ejectedUntil - now > 0;
+        }
+
+        private double score(long now) {
+            return decayedLatency(now) * (inFlight.get() + 1);
+        }
+
+        private double decayedLatency(long now) {
+            double elapsed = Math.max(0, now - lastSeen);
+            return latencyEwmaNanos * Math.exp(-elapsed / latencyDecayNanos);
+        }
+
+        private synchronized boolean record(long now, long latencyNanos, boolean failed,
+                                            int maxConsecutive, double threshold, int minimum) {
+            double decayed = decayedLatency(now);
+            latencyEwmaNanos = latencyNanos > decayed ? latencyNanos : decayed + (latencyNanos - decayed) * 0.2;
+            errorRate = errorRate * (1 - ERROR_RATE_ALPHA) + (failed ? ERROR_RATE_ALPHA : 0);
+            consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+            requests++;
+            lastSeen = now;
+
+            if (!failed) {
+                // Instance đã hồi phục: lần bị loại sau tính lại từ base-ejection-time
+                if (ejections > 0 && errorRate < threshold / 4) {
+                    ejections = 0;
+                }
+                return false;
+            }
+            return !isEjected(now)
+                    && (consecutiveFailures >= maxConsecutive || (requests >= minimum && errorRate >= threshold));
+        }
+
+        private synchronized long eject(long now, long baseNanos, long maxNanos) {
+            ejections++;
+            long duration = Math.min(maxNanos, baseNanos * ejections);
+            ejectedUntil = now + duration;
+            consecutiveFailures = 0;
+            return duration;
+        }
+
+        private InstanceSnapshot snapshot(long now) {
+            boolean ejected = isEjected(now);
+            return new InstanceSnapshot(host + ":" + port, ejected,
+                    ejected ? TimeUnit.NANOSECONDS.toMillis(ejectedUntil - now) : 0, ejections,
+                    decayedLatency(now) / 1_000_000.0, errorRate, consecutiveFailures, inFlight.get(), requests);
+        }
+    }
+}
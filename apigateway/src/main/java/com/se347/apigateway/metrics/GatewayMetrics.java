@@ -0,0 +1,108 @@
+package com.se347.apigateway.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics độ trễ của Gateway (xuất qua /actuator/prometheus)
+ *
+ * - gateway.filter.duration: thời gian của từng filter, tag filter/route/outcome
+ * - gateway.upstream.duration: thời gian chờ response từ service, tag service/status
+ * - gateway.body.size: kích thước body request/response, tag direction/route
+ *
+ * Tag chỉ gồm các giá trị có số lượng cố định (route id, tên service, nhóm status),
+ * không dùng path hay user để tránh bùng nổ cardinality.
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String FILTER_JWT = "jwt";
+    public static final String FILTER_JWT_EMAIL = "jwt-email";
+    public static final String FILTER_BLACKLIST = "blacklist";
+    public static final String FILTER_HMAC = "hmac";
+    public static final String FILTER_RATE_LIMITER = "rate-limiter";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_ERROR = "error";
+
+    public static final String DIRECTION_REQUEST = "request";
+    public static final String DIRECTION_RESPONSE = "response";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+
+    public GatewayMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordFilter(String filter, String route, String outcome, long startNanos) {
+        Timer.builder("gateway.filter.duration")
+                .description("Time spent in a gateway filter")
+                .tags("filter", filter, "route", route, "outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1).dividedBy(100))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstream(String service, HttpStatusCode status, String outcome, long startNanos) {
+        Timer.builder("gateway.upstream.duration")
+                .description("Time until the upstream service responded")
+                .tags("service", service, "status", statusGroup(status), "outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBodySize(String direction, String route, long bytes) {
+        DistributionSummary.builder("gateway.body.size")
+                .description("Size of request/response bodies passing through the gateway")
+                .baseUnit("bytes")
+                .tags("direction", direction, "route", route)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64d)
+                .maximumExpectedValue(512d * 1024 * 1024)
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Route id của exchange (đã được RoutePredicateHandlerMapping gắn vào)
+     */
+    public static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : UNKNOWN;
+    }
+
+    /**
+     * Tên service đích: host của URI lb://{service}, hoặc host của URI trực tiếp
+     */
+    public static String serviceName(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || route.getUri() == null || route.getUri().getHost() == null) {
+            return UNKNOWN;
+        }
+        return route.getUri().getHost().toLowerCase();
+    }
+
+    private static String statusGroup(HttpStatusCode status) {
+        if (status == null) {
+            return "none";
+        }
+        return (status.value() / 100) + "xx";
+    }
+}
@@ -0,0 +1,219 @@
+package com.se347.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.se347.apigateway.configs.RateLimitProperties;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Rate limiter lai cục bộ/Redis cho các route của Gateway
+ *
+ * Mỗi (route, key) có một bucket cục bộ giữ một lô token được Redis cấp (lease):
+ * - Còn token trong lô → cho qua ngay, không gọi Redis
+ * - Hết lô → một lần gọi Lua script để xin lô tiếp theo (các request đồng thời dùng chung lời gọi đó)
+ * - Redis hết token → từ chối cục bộ cho đến khi bucket kịp hồi lại một lô
+ * - Redis lỗi → tiếp tục chỉ với giới hạn cục bộ (fail-open như RedisRateLimiter)
+ *
+ * Quota lấy theo tier nằm ở đầu key ("{tier}:{id}", xem RateLimitConfig.userKeyResolver);
+ * route có thể ghi đè qua args hybrid-rate-limiter.tiers.{TIER}.*
+ */
+@Component
+@Primary
+public class HybridRateLimiter extends AbstractRateLimiter<HybridRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "hybrid-rate-limiter";
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> leaseScript;
+    private final RateLimitProperties properties;
+    private final GatewayMetrics metrics;
+    private final Cache<String, LocalBucket> buckets;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HybridRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                             RateLimitProperties properties,
+                             GatewayMetrics metrics,
+                             ConfigurationService configurationService) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.leaseScript = (RedisScript) RedisScript.of(new ClassPathResource("scripts/rate_limiter_lease.lua"), List.class);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        long start = System.nanoTime();
+        return decide(routeId, id)
+                .doOnNext(response -> metrics.recordFilter(GatewayMetrics.FILTER_RATE_LIMITER, routeId,
+                        response.isAllowed() ? GatewayMetrics.OUTCOME_SUCCESS : GatewayMetrics.OUTCOME_REJECTED, start));
+    }
+
+    private Mono<Response> decide(String routeId, String id) {
+        RateLimitProperties.Quota quota = quotaFor(routeId, id);
+        String bucketKey = routeId + ":" + id;
+        LocalBucket bucket = buckets.get(bucketKey, key -> new LocalBucket());
+
+        long now = System.nanoTime();
+        if (now - bucket.denyUntil < 0) {
+            return Mono.just(response(false, 0, quota));
+        }
+        if (now - bucket.leaseExpiresAt < 0 && bucket.tryTake()) {
+            return Mono.just(response(true, bucket.permits.get(), quota));
+        }
+
+        return bucket.refill(() -> lease(bucketKey, quota))
+                .then(Mono.fromSupplier(() -> bucket.tryTake()
+                        ? response(true, bucket.permits.get(), quota)
+                        : response(false, 0, quota)));
+    }
+
+    /**
+     * Xin Redis một lô token; trả về số token được cấp
+     */
+    private Mono<LeaseResult> lease(String bucketKey, RateLimitProperties.Quota quota) {
+        int batch = batchSize(quota);
+        String prefix = "request_rate_limiter.{" + bucketKey + "}";
+        List<String> keys = List.of(prefix + ".tokens", prefix + ".timestamp");
+        List<String> args = List.of(String.valueOf(quota.getReplenishRate()),
+                String.valueOf(quota.getBurstCapacity()),
+                String.valueOf(batch));
+
+        return redisTemplate.execute(leaseScript, keys, args)
+                .next()
+                .map(result -> new LeaseResult(result.get(0), batch, quota))
+                .onErrorResume(e -> {
+                    // Redis lỗi: vẫn giới hạn bằng bucket cục bộ
+                    logger.warn("Rate limiter lease failed, falling back to local limit: {}", e.getMessage());
+                    return Mono.just(new LeaseResult(batch, batch, quota));
+                })
+                .defaultIfEmpty(new LeaseResult(batch, batch, quota));
+    }
+
+    /**
+     * Kích thước lô = replenishRate * leaseDuration, trong khoảng [1, burstCapacity]
+     */
+    private int batchSize(RateLimitProperties.Quota quota) {
+        double seconds = properties.getLeaseDuration().toNanos() / 1_000_000_000d;
+        int batch = (int) Math.ceil(quota.getReplenishRate() * seconds);
+        return Math.max(1, Math.min(batch, quota.getBurstCapacity()));
+    }
+
+    private RateLimitProperties.Quota quotaFor(String routeId, String id) {
+        int separator = id.indexOf(':');
+        String tier = separator > 0 ? id.substring(0, separator) : RateLimitProperties.ANONYMOUS_TIER;
+
+        Config routeConfig = getConfig().get(routeId);
+        if (routeConfig != null && routeConfig.getTiers().containsKey(tier)) {
+            return routeConfig.getTiers().get(tier);
+        }
+        return properties.quotaFor(tier);
+    }
+
+    private Response response(boolean allowed, long remaining, RateLimitProperties.Quota quota) {
+        if (!properties.isIncludeHeaders()) {
+            return new Response(allowed, Map.of());
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(Math.max(0, remaining)));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(quota.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(quota.getBurstCapacity()));
+        return new Response(allowed, headers);
+    }
+
+    private record LeaseResult(long granted, int requested, RateLimitProperties.Quota quota) {}
+
+    /**
+     * Bucket cục bộ cho một (route, key)
+     */
+    private final class LocalBucket {
+
+        private final AtomicLong permits = new AtomicLong();
+        // Mốc System.nanoTime(), so sánh bằng hiệu số vì nanoTime có thể âm
+        private volatile long leaseExpiresAt = System.nanoTime();
+        private volatile long denyUntil = leaseExpiresAt;
+        private Mono<Void> pendingLease;
+
+        boolean tryTake() {
+            long current;
+            do {
+                current = permits.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!permits.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        /**
+         * Chỉ một lời gọi Redis cho mỗi bucket tại một thời điểm; các request khác chờ chung kết quả
+         */
+        synchronized Mono<Void> refill(Supplier<Mono<LeaseResult>> leaser) {
+            if (pendingLease == null) {
+                pendingLease = leaser.get()
+                        .doOnNext(this::apply)
+                        .doFinally(signal -> clearPending())
+                        .then()
+                        .cache();
+            }
+            return pendingLease;
+        }
+
+        private synchronized void clearPending() {
+            pendingLease = null;
+        }
+
+        private void apply(LeaseResult result) {
+            long now = System.nanoTime();
+            if (result.granted() > 0) {
+                // Token cũ chưa dùng của lô trước (đã hết hạn) bị bỏ
+                permits.set(result.granted());
+                leaseExpiresAt = now + properties.getLeaseDuration().toNanos();
+            } else {
+                // Từ chối cục bộ trong khoảng thời gian Redis cần để hồi lại một lô
+                permits.set(0);
+                long refillNanos = (long) (result.requested() * 1_000_000_000d
+                        / Math.max(1, result.quota().getReplenishRate()));
+                denyUntil = now + Math.min(refillNanos, Duration.ofSeconds(1).toNanos());
+            }
+        }
+    }
+
+    /**
+     * Cấu hình theo route (args hybrid-rate-limiter.*), ghi đè quota theo tier nếu cần
+     */
+    public static class Config {
+
+        private Map<String, RateLimitProperties.Quota> tiers = new HashMap<>();
+
+        public Map<String, RateLimitProperties.Quota> getTiers() { return tiers; }
+        public void setTiers(Map<String, RateLimitProperties.Quota> tiers) { this.tiers = tiers; }
+    }
+}
@@ -0,0 +1,129 @@
+package com.se347.apigateway.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Giới hạn số request đồng thời tự điều chỉnh theo độ trễ (kiểu gradient/Vegas)
+ *
+ * Sau mỗi cửa sổ mẫu (>= 100ms và >= 10 mẫu):
+ * - shortRtt: RTT trung bình trong cửa sổ, longRtt: trung bình trượt dài hạn của shortRtt
+ * - gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1): service chậm đi → gradient < 1 → giảm limit
+ * - newLimit = limit * gradient + sqrt(limit) (phần sqrt cho phép hàng đợi nhỏ để dò limit cao hơn)
+ * - Có lỗi/timeout trong cửa sổ → giảm limit 10%
+ * - Không tăng limit khi số request đồng thời còn dưới một nửa limit (tải thấp, RTT không phản ánh giới hạn)
+ *
+ * tryAcquire/release không khoá; chỉ phần cập nhật cuối cửa sổ là synchronized.
+ */
+public class GradientConcurrencyLimit {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Trạng thái cửa sổ, chỉ truy cập trong synchronized
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Giữ một chỗ nếu số request đang chạy chưa đạt limit
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Trả chỗ và ghi nhận một mẫu RTT; dropped = lỗi kết nối/timeout/service quá tải
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int concurrent = inFlight.getAndDecrement();
+        sample(rttNanos, concurrent, dropped);
+    }
+
+    /**
+     * Trả chỗ mà không ghi nhận mẫu (client huỷ request)
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int concurrent, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, concurrent);
+        windowDropped |= dropped;
+
+        long now = System.nanoTime();
+        if (now - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        update((double) windowRttSum / windowSamples, windowMaxInFlight, windowDropped);
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    private void update(double shortRtt, int maxInFlight, boolean dropped) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos = longRttNanos * (1 - LONG_RTT_ALPHA) + shortRtt * LONG_RTT_ALPHA;
+        }
+        // Tải vừa giảm mạnh: kéo longRtt về nhanh để không giữ limit cao dựa trên RTT cũ
+        if (longRttNanos > 2 * shortRtt) {
+            longRttNanos *= 0.95;
+        }
+
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * BACKOFF_RATIO;
+        } else if (maxInFlight < estimatedLimit / 2) {
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRtt));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,144 @@
+package com.se347.apigateway.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpResources;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quyết định bỏ bớt request theo mức ưu tiên khi Gateway quá tải
+ *
+ * Áp lực (pressure) = max(số request đang chạy / max-concurrency, độ trễ event loop / max-event-loop-lag).
+ * Mỗi tier bị từ chối khi pressure vượt ngưỡng của nó: LOW trước, rồi NORMAL, HIGH;
+ * CRITICAL (thanh toán, đăng nhập) không bao giờ bị bỏ.
+ *
+ * Độ trễ event loop được đo bằng cách định kỳ đặt một task rỗng lên từng event loop của
+ * reactor-netty và đo thời gian chờ đến khi nó chạy (làm mượt EMA); task chưa chạy đến lần đo
+ * sau được tính là độ trễ đang tăng.
+ * Metrics: gateway.load-shed.in-flight, gateway.load-shed.event-loop-lag, gateway.load-shed.pressure
+ */
+@Component
+public class LoadShedder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadShedder.class);
+    private static final double LAG_SMOOTHING = 0.3;
+
+    /**
+     * Mức ưu tiên của route; shedAt là ngưỡng pressure bắt đầu từ chối tier đó
+     */
+    public enum Priority {
+        CRITICAL(Double.POSITIVE_INFINITY),
+        HIGH(1.0),
+        NORMAL(0.85),
+        LOW(0.7);
+
+        private final double shedAt;
+
+        Priority(double shedAt) {
+            this.shedAt = shedAt;
+        }
+    }
+
+    private final int maxConcurrency;
+    private final long maxEventLoopLagNanos;
+    private final Duration probeInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<EventExecutor, AtomicLong> pendingProbes = new ConcurrentHashMap<>();
+
+    private volatile double eventLoopLagNanos;
+    private Disposable probe;
+
+    public LoadShedder(MeterRegistry meterRegistry,
+                       @Value("${gateway.load-shedding.max-concurrency:2000}") int maxConcurrency,
+                       @Value("${gateway.load-shedding.max-event-loop-lag:PT0.2S}") Duration maxEventLoopLag,
+                       @Value("${gateway.load-shedding.probe-interval:PT0.1S}") Duration probeInterval) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxEventLoopLagNanos = maxEventLoopLag.toNanos();
+        this.probeInterval = probeInterval;
+
+        Gauge.builder("gateway.load-shed.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted by the load shedder")
+                .register(meterRegistry);
+        Gauge.builder("gateway.load-shed.event-loop-lag", this, shedder -> shedder.eventLoopLagNanos / 1_000_000.0)
+                .description("Smoothed scheduling delay of the gateway event loops")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("gateway.load-shed.pressure", this, LoadShedder::pressure)
+                .description("Load shedding pressure (1.0 = at configured capacity)")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        probe = Flux.interval(probeInterval, probeInterval)
+                .subscribe(tick -> probeEventLoops(), e -> logger.warn("Event loop probe stopped: {}", e.getMessage()));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (probe != null) {
+            probe.dispose();
+        }
+    }
+
+    /**
+     * Nhận request nếu tier của nó chưa bị bỏ; true thì phải gọi release() khi request kết thúc
+     */
+    public boolean tryAcquire(Priority priority) {
+        if (priority != Priority.CRITICAL && pressure() >= priority.shedAt) {
+            return false;
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public double pressure() {
+        double concurrency = (double) inFlight.get() / maxConcurrency;
+        double lag = eventLoopLagNanos / maxEventLoopLagNanos;
+        return Math.max(concurrency, lag);
+    }
+
+    private void probeEventLoops() {
+        EventLoopGroup group = HttpResources.get().onServer(true);
+        for (EventExecutor loop : group) {
+            AtomicLong pending = pendingProbes.computeIfAbsent(loop, l -> new AtomicLong());
+            long now = System.nanoTime();
+            long since = pending.get();
+            if (since != 0) {
+                // Task lần trước vẫn chưa chạy: event loop đang bị nghẽn ít nhất chừng này
+                recordLag(now - since);
+                continue;
+            }
+            pending.set(now);
+            loop.execute(() -> {
+                long scheduled = pending.getAndSet(0);
+                if (scheduled != 0) {
+                    recordLag(System.nanoTime() - scheduled);
+                }
+            });
+        }
+    }
+
+    private synchronized void recordLag(long lagNanos) {
+        eventLoopLagNanos = eventLoopLagNanos * (1 - LAG_SMOOTHING) + lagNanos * LAG_SMOOTHING;
+    }
+}
@@ -0,0 +1,61 @@
+package com.se347.apigateway.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ngân sách byte body request được Gateway giữ trong bộ nhớ cùng lúc (toàn Gateway)
+ *
+ * Route ở chế độ BUFFER giữ chỗ theo Content-Length trước khi đọc body và trả lại khi request kết thúc.
+ * Metrics: gateway.body.budget.used, gateway.body.budget.capacity (bytes)
+ */
+@Component
+public class RequestBodyBudget {
+
+    private final long capacity;
+    private final AtomicLong used = new AtomicLong();
+
+    public RequestBodyBudget(MeterRegistry meterRegistry,
+                             @Value("${gateway.body-budget.max-in-flight:256MB}") DataSize maxInFlight) {
+        this.capacity = maxInFlight.toBytes();
+        Gauge.builder("gateway.body.budget.used", used, AtomicLong::get)
+                .description("Request body bytes currently reserved for buffering in the gateway")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gateway.body.budget.capacity", this, RequestBodyBudget::getCapacity)
+                .description("Maximum request body bytes the gateway buffers at the same time")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Giữ chỗ cho bytes nếu còn đủ ngân sách
+     */
+    public boolean tryReserve(long bytes) {
+        long current;
+        do {
+            current = used.get();
+            if (current + bytes > capacity) {
+                return false;
+            }
+        } while (!used.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    public void release(long bytes) {
+        used.addAndGet(-bytes);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+}
@@ -0,0 +1,134 @@
+package com.se347.apigateway.securities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.se347.apigateway.configs.JwtConfig;
+import com.se347.apigateway.utils.HashUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache claims của JWT đã được xác thực chữ ký
+ *
+ * Mỗi token chỉ được verify một lần; các lần sau đọc lại claims từ cache.
+ * - Key là SHA-256 của token (không giữ token gốc trong bộ nhớ)
+ * - Entry hết hạn cùng lúc với claim "exp" của token (tối đa max-ttl)
+ * - Số entry bị giới hạn, metrics hit/miss được đăng ký với tên "jwt.claims"
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtClaimsCache.class);
+
+    private final JwtConfig jwtConfig;
+    private final Cache<String, VerifiedToken> cache;
+
+    public JwtClaimsCache(JwtConfig jwtConfig,
+                          MeterRegistry meterRegistry,
+                          @Value("${gateway.jwt.cache.max-size:10000}") long maxSize,
+                          @Value("${gateway.jwt.cache.max-ttl:PT15M}") Duration maxTtl) {
+        this.jwtConfig = jwtConfig;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.claims");
+    }
+
+    /**
+     * Lấy thông tin đã xác thực của token, verify chữ ký nếu chưa có trong cache
+     *
+     * @return Optional.empty() nếu token sai chữ ký, sai định dạng hoặc đã hết hạn
+     */
+    public Optional<VerifiedToken> resolve(String token) {
+        String key = HashUtil.base64Sha256(token.getBytes(StandardCharsets.UTF_8));
+
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return Optional.of(cached);
+            }
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = verify(token);
+        if (verified != null) {
+            cache.put(key, verified);
+        }
+        return Optional.ofNullable(verified);
+    }
+
+    /**
+     * Verify chữ ký và hạn của token, trả về null nếu không hợp lệ
+     */
+    private VerifiedToken verify(String token) {
+        try {
+            Claims claims = jwtConfig.parseToken(token);
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.before(new Date())) {
+                return null;
+            }
+            return new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("userId", String.class),
+                    jwtConfig.getRolesFromClaims(claims),
+                    expiration.getTime());
+        } catch (Exception e) {
+            logger.debug("JWT verification failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Thông tin user lấy từ một JWT đã xác thực
+     */
+    public record VerifiedToken(String username, String userId, List<String> roles, long expiresAtMillis) {
+
+        public boolean isExpired() {
+            return expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Entry sống đến khi token hết hạn, nhưng không quá maxTtl
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
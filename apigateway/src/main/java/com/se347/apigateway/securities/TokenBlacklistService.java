@@ -0,0 +1,187 @@
+package com.se347.apigateway.securities;
+
+import com.se347.apigateway.utils.BloomFilter;
+import com.se347.apigateway.utils.HashUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kiểm tra token blacklist hoàn toàn non-blocking
+ *
+ * Phía trước Redis là một Bloom filter cục bộ chứa SHA-256 của các token đã bị blacklist:
+ * - Filter trả về "chắc chắn không có" → cho qua ngay, không gọi Redis
+ * - Filter trả về "có thể có" → xác nhận lại bằng ReactiveStringRedisTemplate.hasKey
+ *
+ * Filter được đồng bộ qua Redis pub/sub (authservice publish digest mỗi khi blacklist token)
+ * và được dựng lại định kỳ từ SCAN "blacklist:*" để bỏ các token đã hết hạn.
+ * Khi chưa đồng bộ xong hoặc mất kết nối pub/sub (lỗi hoặc kết thúc bình thường), mọi request
+ * đều hỏi thẳng Redis cho đến khi subscribe lại và dựng xong filter.
+ */
+@Component
+public class TokenBlacklistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklistService.class);
+    private static final String BLACKLIST_PREFIX = "blacklist:";
+    private static final Mono<Boolean> NOT_BLACKLISTED = Mono.just(false);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String channel;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration resyncInterval;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final Sinks.Many<Boolean> rebuildRequests = Sinks.many().unicast().onBackpressureBuffer();
+
+    // Filter đang dùng và filter đang dựng lại được thay cùng lúc, để digest đến giữa lúc swap không bị mất
+    private final AtomicReference<Filters> filters = new AtomicReference<>(new Filters(null, null));
+    private volatile boolean subscribed;
+    // Lần kết nối pub/sub hiện tại (tăng mỗi lần subscribe lại); -1 khi mất kết nối
+    private volatile long connection = -1;
+    private long connections;
+
+    public TokenBlacklistService(ReactiveStringRedisTemplate redisTemplate,
+                                 @Value("${gateway.jwt.blacklist.channel:token-blacklist}") String channel,
+                                 @Value("${gateway.jwt.blacklist.expected-insertions:100000}") long expectedInsertions,
+                                 @Value("${gateway.jwt.blacklist.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${gateway.jwt.blacklist.resync-interval:PT10M}") Duration resyncInterval) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.resyncInterval = resyncInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        // Subscribe trước, rồi mới SCAN: token nào được SET trước khi subscribe sẽ nằm trong SCAN,
+        // token nào SET sau đó sẽ đến qua pub/sub
+        subscriptions.add(redisTemplate.listenToChannelLater(channel)
+                .doOnNext(messages -> {
+                    // Filter cũ có thể thiếu token bị blacklist lúc mất kết nối: chỉ tin filter
+                    // sau khi một lần SCAN bắt đầu từ kết nối này dựng xong (xem rebuild())
+                    connection = ++connections;
+                    requestRebuild();
+                })
+                .flatMapMany(messages -> messages.map(ReactiveSubscription.Message::getMessage))
+                .doOnNext(this::onBlacklisted)
+                .doOnError(e -> disconnected(e.getMessage()))
+                // Kết nối đóng có thể chỉ hiện ra là onComplete: cũng phải subscribe lại
+                .doOnComplete(() -> disconnected("subscription completed"))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .repeatWhen(completions -> completions.delayElements(Duration.ofSeconds(1)))
+                .subscribe());
+
+        // Các lần rebuild chạy tuần tự để chỉ có một filter "rebuilding" tại một thời điểm
+        subscriptions.add(rebuildRequests.asFlux()
+                .concatMap(request -> rebuild())
+                .subscribe());
+        subscriptions.add(Flux.interval(resyncInterval, resyncInterval)
+                .subscribe(tick -> requestRebuild()));
+    }
+
+    @PreDestroy
+    void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Kiểm tra token có trong blacklist không mà không block event loop
+     */
+    public Mono<Boolean> isBlacklisted(String token) {
+        BloomFilter filter = filters.get().current();
+        if (subscribed && filter != null
+                && !filter.mightContain(HashUtil.sha256(token.getBytes(StandardCharsets.UTF_8)))) {
+            return NOT_BLACKLISTED;
+        }
+        return redisTemplate.hasKey(BLACKLIST_PREFIX + token);
+    }
+
+    /**
+     * Nhận digest (Base64 SHA-256) của token vừa bị blacklist từ pub/sub
+     */
+    private void onBlacklisted(String encodedDigest) {
+        byte[] digest;
+        try {
+            digest = Base64.getDecoder().decode(encodedDigest);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed token blacklist message");
+            return;
+        }
+        if (digest.length < 16) {
+            return;
+        }
+
+        // Một snapshot cho cả hai filter: nếu rebuild() swap ngay sau đó, filter mới vẫn đã nhận digest
+        Filters snapshot = filters.get();
+        if (snapshot.current() != null) {
+            snapshot.current().put(digest);
+        }
+        if (snapshot.rebuilding() != null) {
+            snapshot.rebuilding().put(digest);
+        }
+    }
+
+    private void disconnected(String reason) {
+        connection = -1;
+        subscribed = false;
+        logger.warn("Token blacklist subscription lost, falling back to Redis lookups: {}", reason);
+    }
+
+    private void requestRebuild() {
+        rebuildRequests.emitNext(Boolean.TRUE, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+    }
+
+    /**
+     * Dựng lại filter từ các key "blacklist:*" còn sống trong Redis rồi thay thế filter hiện tại
+     *
+     * subscribed chỉ bật khi SCAN bắt đầu trong lúc đang subscribe và kết nối đó vẫn còn khi dựng xong:
+     * khi đó mọi token hoặc nằm trong SCAN, hoặc đến qua pub/sub
+     */
+    private Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            BloomFilter fresh = new BloomFilter(expectedInsertions, falsePositiveRate);
+            ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_PREFIX + "*").count(1000).build();
+            filters.updateAndGet(f -> new Filters(f.current(), fresh));
+            long startedOn = connection;
+
+            return redisTemplate.scan(options)
+                    .doOnNext(key -> fresh.put(HashUtil.sha256(
+                            key.substring(BLACKLIST_PREFIX.length()).getBytes(StandardCharsets.UTF_8))))
+                    .then(Mono.fromRunnable(() -> {
+                        filters.set(new Filters(fresh, null));
+                        if (startedOn >= 0 && connection == startedOn) {
+                            subscribed = true;
+                        }
+                        logger.debug("Token blacklist filter rebuilt");
+                    }));
+        })
+                .onErrorResume(e -> {
+                    filters.updateAndGet(f -> new Filters(f.current(), null));
+                    logger.warn("Token blacklist filter rebuild failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private record Filters(BloomFilter current, BloomFilter rebuilding) {
+    }
+}
@@ -1,18 +1,16 @@
 package com.se347.apigateway.utils;
 
-import java.security.MessageDigest;
-import java.util.Base64;
+import com.eduweb.security.HmacSigner;
 
 public final class HashUtil {
 
     private HashUtil() {}
 
     public static String base64Sha256(byte[] data) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            return Base64.getEncoder().encodeToString(md.digest(data));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return HmacSigner.base64Sha256(data);
+    }
+
+    public static byte[] sha256(byte[] data) {
+        return HmacSigner.sha256(data);
     }
 }
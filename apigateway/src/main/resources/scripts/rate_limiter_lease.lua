@@ -0,0 +1,40 @@
+-- Token bucket giống request_rate_limiter.lua của Spring Cloud Gateway,
+-- nhưng cấp một lô (lease) token cho gateway node thay vì từng request:
+-- trả về số token được cấp (có thể nhỏ hơn số yêu cầu, hoặc 0) và số token còn lại.
+redis.replicate_commands()
+
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local fill_time = capacity / rate
+local ttl = math.floor(fill_time * 2)
+if ttl < 1 then
+  ttl = 1
+end
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+
+local last_tokens = tonumber(redis.call("get", tokens_key))
+if last_tokens == nil then
+  last_tokens = capacity
+end
+
+local last_refreshed = tonumber(redis.call("get", timestamp_key))
+if last_refreshed == nil then
+  last_refreshed = 0
+end
+
+local delta = math.max(0, now - last_refreshed)
+local filled_tokens = math.min(capacity, last_tokens + (delta * rate))
+local granted = math.min(math.floor(filled_tokens), requested)
+local new_tokens = filled_tokens - granted
+
+redis.call("setex", tokens_key, ttl, new_tokens)
+redis.call("setex", timestamp_key, ttl, now)
+
+return { granted, math.floor(new_tokens) }
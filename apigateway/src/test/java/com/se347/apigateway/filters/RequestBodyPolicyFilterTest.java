@@ -0,0 +1,118 @@
+package com.se347.apigateway.filters;
+
+import com.eduweb.security.HmacSigner;
+import com.se347.apigateway.exceptions.GatewayException;
+import com.se347.apigateway.exceptions.GatewayWebExceptionHandler;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.resilience.RequestBodyBudget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Body chunked vượt maxSize phải ra 413 khi đi qua RequestBodyPolicyFilter rồi HmacSigningFilter
+ * (HmacSigningFilter không được bọc lỗi đọc body thành lỗi ký 500)
+ */
+class RequestBodyPolicyFilterTest {
+
+    private static final DefaultDataBufferFactory BUFFERS = new DefaultDataBufferFactory();
+
+    private RequestBodyBudget budget;
+    private GatewayFilter policy;
+    private GatewayFilter signing;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        budget = new RequestBodyBudget(registry, DataSize.ofMegabytes(1));
+
+        RequestBodyPolicyFilter.Config config = new RequestBodyPolicyFilter.Config();
+        config.setMaxSize(DataSize.ofBytes(64));
+        policy = new RequestBodyPolicyFilter(budget, registry, DataSize.ofMegabytes(10), Duration.ofMillis(100))
+                .apply(config);
+        signing = new HmacSigningFilter(new HmacSigner("test-secret"), new GatewayMetrics(registry))
+                .apply(new HmacSigningFilter.Config());
+    }
+
+    @Test
+    void chunkedBodyOverLimitIsRejectedWith413() {
+        MockServerWebExchange exchange = exchange(chunk(40), chunk(40));
+        AtomicBoolean forwarded = new AtomicBoolean();
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        GatewayWebExceptionHandler handler = new GatewayWebExceptionHandler();
+
+        StepVerifier.create(run(exchange, forwarded)
+                        .doOnError(error::set)
+                        .onErrorResume(e -> handler.handle(exchange, e)))
+                .verifyComplete();
+
+        assertThat(error.get()).isInstanceOf(GatewayException.PayloadTooLargeException.class);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(forwarded).isFalse();
+        assertThat(budget.getUsed()).isZero();
+    }
+
+    @Test
+    void chunkedBodyWithinLimitIsSignedAndForwarded() {
+        MockServerWebExchange exchange = exchange(chunk(20), chunk(20));
+        AtomicBoolean forwarded = new AtomicBoolean();
+
+        StepVerifier.create(run(exchange, forwarded))
+                .verifyComplete();
+
+        assertThat(forwarded).isTrue();
+        assertThat(budget.getUsed()).isZero();
+    }
+
+    /**
+     * Policy → signing → "service" đọc hết body, như thứ tự trên route thật
+     */
+    private Mono<Void> run(MockServerWebExchange exchange, AtomicBoolean forwarded) {
+        GatewayFilterChain service = forwardedExchange -> {
+            HttpHeaders headers = forwardedExchange.getRequest().getHeaders();
+            assertThat(headers.getFirst(HmacSigner.HEADER_SIGNATURE)).isNotNull();
+            // Service từ chối body ký không có Content-Length: Gateway đặt lại sau khi đọc hết body
+            // (chỉ body 2 × 20 byte đi tới service)
+            assertThat(headers.containsKey(HttpHeaders.TRANSFER_ENCODING)).isFalse();
+            assertThat(headers.getContentLength()).isEqualTo(40);
+            return DataBufferUtils.join(forwardedExchange.getRequest().getBody())
+                    .doOnNext(DataBufferUtils::release)
+                    .doOnNext(buffer -> forwarded.set(true))
+                    .then();
+        };
+        GatewayFilterChain afterPolicy = policyExchange -> signing.filter(policyExchange, service);
+        return policy.filter(exchange, afterPolicy);
+    }
+
+    private static MockServerWebExchange exchange(DataBuffer... chunks) {
+        MockServerHttpRequest request = MockServerHttpRequest.post("/api/courses")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .body(Flux.just(chunks));
+        return MockServerWebExchange.from(request);
+    }
+
+    private static DataBuffer chunk(int size) {
+        return BUFFERS.wrap("x".repeat(size).getBytes(StandardCharsets.UTF_8));
+    }
+}
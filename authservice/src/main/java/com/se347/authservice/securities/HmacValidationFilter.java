@@ -1,5 +1,9 @@
 package com.se347.authservice.securities;
 
+import com.eduweb.security.HmacSigner;
+import com.eduweb.security.NonceStore;
+import com.eduweb.security.VerifyingRequestWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -7,16 +11,13 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import lombok.NonNull;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Base64;
 
 /**
  * HMAC Validation Filter cho Auth Service
@@ -24,14 +25,22 @@ import java.util.Base64;
  * Filter này sẽ:
  * 1. Validate HMAC signature từ API Gateway
  * 2. Đảm bảo request đến từ trusted API Gateway
- * 3. Bỏ qua validation cho public endpoints
+ * 3. Chặn replay: mỗi nonce chỉ được dùng một lần trong cửa sổ timestamp (NonceStore của core)
+ * 4. Bỏ qua validation cho public endpoints
  */
 @Component
 @Order(1)
 public class HmacValidationFilter extends OncePerRequestFilter {
 
-    @Value("${gateway.hmac.secret}")
-    private String secret;
+    @Autowired
+    private HmacSigner hmacSigner;
+
+    @Autowired
+    private NonceStore nonceStore;
+
+    // Giới hạn spring.servlet.multipart.* cho multipart được parse lại trong VerifyingRequestWrapper
+    @Autowired
+    private MultipartConfigElement multipartConfig;
 
     @Value("${gateway.hmac.enabled:true}")
     private boolean hmacEnabled;
@@ -67,9 +76,10 @@ public class HmacValidationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long requestTime;
         try {
             // Validate timestamp (prevent replay attacks)
-            long requestTime = Long.parseLong(hmacTimestamp);
+            requestTime = Long.parseLong(hmacTimestamp);
             long currentTime = Instant.now().getEpochSecond();
             long timeDiff = Math.abs(currentTime - requestTime);
             
@@ -78,46 +88,83 @@ public class HmacValidationFilter extends OncePerRequestFilter {
                 handleUnauthorized(response, "Request timestamp expired");
                 return;
             }
+        } catch (NumberFormatException e) {
+            handleUnauthorized(response, "HMAC validation failed: " + e.getMessage());
+            return;
+        }
 
-            // Đọc body để tính hash
-            byte[] bodyBytes = request.getInputStream().readAllBytes();
-            String computedHash = base64Sha256(bodyBytes);
-
-            if (org.springframework.util.StringUtils.hasText(bodyHashHeader) && !computedHash.equals(bodyHashHeader)) {
+        // GET/DELETE (không có body): không bọc request, body hash là hash của body rỗng
+        if (!hasBody(request)) {
+            String emptyHash = HmacSigner.emptyBodySha256();
+            if (StringUtils.hasText(bodyHashHeader) && !HmacSigner.constantTimeEquals(emptyHash, bodyHashHeader)) {
                 handleUnauthorized(response, "Body hash mismatch");
                 return;
             }
-
-            // Validate HMAC signature (body-hash)
-            if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, computedHash)) {
+            if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, emptyHash)) {
                 handleUnauthorized(response, "Invalid HMAC signature");
                 return;
             }
+            if (!acceptNonce(response, hmacNonce, requestTime, path)) {
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            // Wrap lại request để downstream đọc lại body
-            jakarta.servlet.http.HttpServletRequest wrapped = new jakarta.servlet.http.HttpServletRequestWrapper(request) {
-                @Override
-                public jakarta.servlet.ServletInputStream getInputStream() {
-                    java.io.ByteArrayInputStream bais = new java.io.ByteArrayInputStream(bodyBytes);
-                    return new jakarta.servlet.ServletInputStream() {
-                        @Override public int read() { return bais.read(); }
-                        @Override public boolean isFinished() { return bais.available() == 0; }
-                        @Override public boolean isReady() { return true; }
-                        @Override public void setReadListener(jakarta.servlet.ReadListener readListener) { }
-                    };
-                }
-                @Override public int getContentLength() { return bodyBytes.length; }
-                @Override public long getContentLengthLong() { return bodyBytes.length; }
-            };
+        // Có body: chữ ký được kiểm tra với body hash trong header. Body phải có Content-Length
+        // (Gateway đặt sau khi đọc hết body để ký) và được so với hash trước khi controller chạy
+        if (request.getContentLengthLong() < 0) {
+            handleLengthRequired(response);
+            return;
+        }
+        if (!StringUtils.hasText(bodyHashHeader)) {
+            handleUnauthorized(response, "Missing body hash");
+            return;
+        }
+        if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, bodyHashHeader)) {
+            handleUnauthorized(response, "Invalid HMAC signature");
+            return;
+        }
+        if (!acceptNonce(response, hmacNonce, requestTime, path)) {
+            return;
+        }
 
-            // HMAC validation successful, continue with request
-            filterChain.doFilter(wrapped, response);
+        VerifyingRequestWrapper wrapped = new VerifyingRequestWrapper(request, bodyHashHeader, multipartConfig);
+        try {
+            // Body thường được đọc và kiểm tra hết ở đây: controller/transaction không chạy với body sai
+            if (!wrapped.verifyUpFront()) {
+                handleUnauthorized(response, "Body hash mismatch");
+                return;
+            }
+            try {
+                filterChain.doFilter(wrapped, response);
+                // Controller không đọc hết body multipart → đọc nốt để kiểm tra
+                wrapped.finish();
+            } catch (IOException | ServletException | RuntimeException e) {
+                if (!wrapped.isMismatch()) {
+                    throw e;
+                }
+            }
 
-        } catch (Exception e) {
-            handleUnauthorized(response, "HMAC validation failed: " + e.getMessage());
+            // Multipart không khớp: getParts() ném lỗi trước khi controller nhận part
+            if (wrapped.isMismatch()) {
+                if (!response.isCommitted()) {
+                    response.reset();
+                    handleUnauthorized(response, "Body hash mismatch");
+                }
+            }
+        } finally {
+            wrapped.release();
         }
     }
 
+    /**
+     * Request có body không (Content-Length > 0 hoặc chunked; chunked bị từ chối với 411)
+     */
+    private boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
     /**
      * Kiểm tra path có phải là public path không
      */
@@ -137,39 +184,32 @@ public class HmacValidationFilter extends OncePerRequestFilter {
             // Reconstruct the payload that was used to create the signature
             String method = request.getMethod();
             String url = request.getRequestURI();
-            String payload = method + "\n" + url + "\n" + bodyHash + "\n" + hmacNonce + "\n" + hmacTimestamp;
+            String payload = HmacSigner.payload(method, url, bodyHash, hmacNonce, hmacTimestamp);
 
-            // Compute expected HMAC
-            String expectedHmac = computeHmacSHA256(secret, payload);
-
-            // Compare signatures
-            return hmacAuth.equals(expectedHmac);
+            // Compare signatures (constant-time, Mac đã init sẵn trong HmacSigner)
+            return hmacSigner.verify(payload, hmacAuth);
 
         } catch (Exception e) {
             return false;
         }
     }
 
-    private String base64Sha256(byte[] data) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            return java.util.Base64.getEncoder().encodeToString(md.digest(data));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
-     * Compute HMAC-SHA256 signature
+     * Ghi nhận nonce (chặn replay); trả lời 401 khi replay, 503 khi replay cache không ghi nhận được
      */
-    private String computeHmacSHA256(String secretKey, String data) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] hmac = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hmac);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute HMAC", e);
+    private boolean acceptNonce(HttpServletResponse response, String nonce, long requestTime, String path) throws IOException {
+        switch (nonceStore.mark(nonce, requestTime)) {
+            case ACCEPTED:
+                return true;
+            case UNAVAILABLE:
+                handleUnavailable(response, "HMAC replay cache is full, retry later");
+                return false;
+            case OUT_OF_WINDOW:
+                handleUnauthorized(response, "HMAC timestamp outside replay window");
+                return false;
+            default:
+                handleUnauthorized(response, "Replayed HMAC nonce");
+                return false;
         }
     }
 
@@ -185,4 +225,25 @@ public class HmacValidationFilter extends OncePerRequestFilter {
         
         response.getWriter().write(body);
     }
+
+    private void handleLengthRequired(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_LENGTH_REQUIRED);
+        response.setContentType("application/json");
+
+        String body = String.format("{\"error\":\"Length Required\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
+                "Signed request body must have Content-Length", new java.util.Date().toString());
+
+        response.getWriter().write(body);
+    }
+
+    private void handleUnavailable(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType("application/json");
+
+        String body = String.format("{\"error\":\"Service Unavailable\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
+                message, new java.util.Date().toString());
+
+        response.getWriter().write(body);
+    }
 }
@@ -1,10 +1,13 @@
 package com.se347.authservice.services.impl;
 
+import com.eduweb.security.HmacSigner;
 import com.se347.authservice.services.RedisTokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -13,6 +16,9 @@ public class RedisTokenServiceImpl implements RedisTokenService {
 
     private final RedisTemplate<String, Object> redisTemplate;
 
+    @Value("${auth.token.blacklist.channel:token-blacklist}")
+    private String blacklistChannel;
+
     // Lưu token (Access/Refresh) với thời gian hết hạn
     public void saveToken(String key, String token, long durationMillis) {
         redisTemplate.opsForValue().set(key, token, durationMillis, TimeUnit.MILLISECONDS);
@@ -31,6 +37,8 @@ public class RedisTokenServiceImpl implements RedisTokenService {
     // Thêm token vào blacklist
     public void blacklistToken(String token, long expirationMillis) {
         redisTemplate.opsForValue().set("blacklist:" + token, "BLACKLISTED", expirationMillis, TimeUnit.MILLISECONDS);
+        // Báo cho gateway cập nhật Bloom filter cục bộ (chỉ gửi digest, không gửi token gốc)
+        redisTemplate.convertAndSend(blacklistChannel, HmacSigner.base64Sha256(token.getBytes(StandardCharsets.UTF_8)));
     }
 
     // Kiểm tra token có trong blacklist
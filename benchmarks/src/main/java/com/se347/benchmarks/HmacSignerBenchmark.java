@@ -0,0 +1,92 @@
+package com.se347.benchmarks;
+
+import com.eduweb.security.HmacSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí ký + kiểm tra HMAC cho một request
+ *
+ * - perRequestInstances: cách cũ, mỗi request gọi MessageDigest.getInstance, Mac.getInstance,
+ *   new SecretKeySpec, mac.init và so sánh chữ ký bằng String.equals
+ * - pooledSigner: HmacSigner của core (Mac/MessageDigest theo thread, key dựng sẵn)
+ *
+ * Chạy: java -jar target/benchmarks.jar HmacSignerBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HmacSignerBenchmark {
+
+    private static final String SECRET = "change-me-hmac";
+
+    @Param({"0", "1024", "65536"})
+    private int bodySize;
+
+    private byte[] body;
+    private String nonce;
+    private String timestamp;
+    private HmacSigner signer;
+
+    @Setup
+    public void setup() {
+        body = new byte[bodySize];
+        ThreadLocalRandom.current().nextBytes(body);
+        nonce = UUID.randomUUID().toString();
+        timestamp = String.valueOf(System.currentTimeMillis() / 1000);
+        signer = new HmacSigner(SECRET);
+    }
+
+    @Benchmark
+    public boolean perRequestInstances() throws Exception {
+        // Phía gateway ký
+        String bodyHash = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        String payload = "POST\n/api/courses\n" + bodyHash + "\n" + nonce + "\n" + timestamp;
+        Mac signMac = Mac.getInstance("HmacSHA256");
+        signMac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = Base64.getEncoder().encodeToString(signMac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+
+        // Phía service kiểm tra
+        String computedHash = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        String expectedPayload = "POST\n/api/courses\n" + computedHash + "\n" + nonce + "\n" + timestamp;
+        Mac verifyMac = Mac.getInstance("HmacSHA256");
+        verifyMac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = Base64.getEncoder().encodeToString(verifyMac.doFinal(expectedPayload.getBytes(StandardCharsets.UTF_8)));
+        return computedHash.equals(bodyHash) && signature.equals(expected);
+    }
+
+    @Benchmark
+    public boolean pooledSigner() {
+        // Phía gateway ký
+        String bodyHash = HmacSigner.base64Sha256(body);
+        String signature = signer.sign(HmacSigner.payload("POST", "/api/courses", bodyHash, nonce, timestamp));
+
+        // Phía service kiểm tra
+        String computedHash = HmacSigner.base64Sha256(body);
+        String expectedPayload = HmacSigner.payload("POST", "/api/courses", computedHash, nonce, timestamp);
+        return HmacSigner.constantTimeEquals(computedHash, bodyHash) && signer.verify(expectedPayload, signature);
+    }
+}
@@ -0,0 +1,87 @@
+package com.se347.benchmarks;
+
+import com.eduweb.security.NonceStore;
+import com.eduweb.security.TimeBucketedNonceCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thông lượng của replay guard cho HMAC nonce
+ *
+ * - bucketedFresh / bucketedReplay: TimeBucketedNonceCache của core với nonce mới / nonce đã thấy
+ * - perEntryExpiry: cách làm thông thường, ConcurrentHashMap nonce → hạn dùng, dọn entry hết hạn
+ *   định kỳ bằng removeIf (cần quét toàn bộ map)
+ *
+ * Nonce mới lấy từ bộ đếm (tránh đo chi phí UUID.randomUUID). Max entries đủ lớn để
+ * bucket không đầy trong thời gian đo (bảng mỗi bucket cấp sẵn 32 MB, chỉ vài bucket được tạo).
+ *
+ * Chạy: java -jar target/benchmarks.jar NonceCacheBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(8)
+public class NonceCacheBenchmark {
+
+    private static final Duration WINDOW = Duration.ofMinutes(5);
+    private static final int SWEEP_EVERY = 10_000;
+
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicLong sweepCounter = new AtomicLong();
+    private final String prefix = UUID.randomUUID().toString().substring(0, 24);
+
+    private TimeBucketedNonceCache cache;
+    private Map<String, Long> perEntry;
+    private String seenNonce;
+
+    @Setup
+    public void setup() {
+        cache = new TimeBucketedNonceCache(WINDOW, 30, 50_000_000);
+        perEntry = new ConcurrentHashMap<>();
+        seenNonce = UUID.randomUUID().toString();
+        cache.mark(seenNonce, Instant.now().getEpochSecond());
+    }
+
+    @Benchmark
+    public boolean bucketedFresh() {
+        return cache.mark(nextNonce(), Instant.now().getEpochSecond()) == NonceStore.Result.ACCEPTED;
+    }
+
+    @Benchmark
+    public boolean bucketedReplay() {
+        return cache.mark(seenNonce, Instant.now().getEpochSecond()) == NonceStore.Result.ACCEPTED;
+    }
+
+    @Benchmark
+    public boolean perEntryExpiry() {
+        long now = Instant.now().getEpochSecond();
+        if (sweepCounter.incrementAndGet() % SWEEP_EVERY == 0) {
+            perEntry.values().removeIf(expiresAt -> expiresAt < now);
+        }
+        return perEntry.putIfAbsent(nextNonce(), now + WINDOW.getSeconds()) == null;
+    }
+
+    private String nextNonce() {
+        return prefix + Long.toHexString(counter.incrementAndGet());
+    }
+}
@@ -0,0 +1,120 @@
+package com.se347.benchmarks.course;
+
+import com.se347.courseservice.search.CourseSearchIndex;
+import com.se347.courseservice.utils.SlugUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tìm course: CourseSearchIndex so với cách cũ (title LIKE '%term%')
+ *
+ * - likeScan: mô phỏng trong bộ nhớ "WHERE title LIKE '%q%' ORDER BY created_at DESC LIMIT 21"
+ *   trên collation không phân biệt dấu: duyệt title (đã bỏ dấu sẵn) theo thứ tự mới nhất, dừng khi đủ kết quả.
+ *   Đây là cận dưới của chi phí thật (DB còn đọc row và gửi qua mạng)
+ * - indexSearch: CourseSearchIndex.search, 20 kết quả xếp hạng BM25F trên title/category/description
+ * - indexPrefix: typeahead, term cuối khớp theo tiền tố
+ *
+ * Dữ liệu sinh ngẫu nhiên (seed cố định) từ bộ từ tiếng Việt; "kubernetes" là term hiếm.
+ *
+ * Chạy: java -jar target/benchmarks.jar CourseSearchBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Threads(4)
+public class CourseSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "lập", "trình", "cơ", "bản", "nâng", "cao", "thiết", "kế", "đồ", "họa", "phân", "tích", "dữ", "liệu",
+        "học", "máy", "tiếng", "anh", "giao", "tiếp", "quản", "lý", "dự", "án", "kinh", "doanh", "trực", "tuyến",
+        "marketing", "java", "python", "web", "ứng", "dụng", "di", "động", "cho", "người", "mới", "bắt", "đầu",
+        "thực", "hành", "khóa", "kỹ", "năng", "mềm", "toán", "rời", "rạc", "mạng", "máy", "tính", "bảo", "mật"
+    };
+    private static final String[] CATEGORIES = {
+        "Công nghệ thông tin", "Thiết kế", "Kinh doanh", "Ngoại ngữ", "Kỹ năng mềm", "Marketing"
+    };
+    private static final int LIKE_LIMIT = 21;
+
+    @Param({"10000"})
+    private int courses;
+
+    @Param({"lap trinh", "kubernetes"})
+    private String query;
+
+    private CourseSearchIndex index;
+    private String[] foldedTitlesNewestFirst;
+    private String foldedQuery;
+    private String prefixQuery;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new CourseSearchIndex();
+        foldedTitlesNewestFirst = new String[courses];
+        for (int i = 0; i < courses; i++) {
+            String title = words(random, 3 + random.nextInt(5));
+            if (i % 997 == 0) {
+                title += " kubernetes";
+            }
+            String description = words(random, 30 + random.nextInt(30));
+            index.put(UUID.randomUUID(), title, CATEGORIES[random.nextInt(CATEGORIES.length)], description);
+            foldedTitlesNewestFirst[i] = SlugUtil.fold(title);
+        }
+        foldedQuery = SlugUtil.fold(query);
+        prefixQuery = query.substring(0, query.length() - 2);
+    }
+
+    @Benchmark
+    public List<String> likeScan() {
+        List<String> matches = new ArrayList<>(LIKE_LIMIT);
+        for (String title : foldedTitlesNewestFirst) {
+            if (title.contains(foldedQuery)) {
+                matches.add(title);
+                if (matches.size() == LIKE_LIMIT) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public List<CourseSearchIndex.Hit> indexSearch() {
+        return index.search(query, false, 20);
+    }
+
+    @Benchmark
+    public List<CourseSearchIndex.Hit> indexPrefix() {
+        return index.search(prefixQuery, true, 10);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
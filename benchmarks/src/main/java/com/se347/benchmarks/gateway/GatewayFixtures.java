@@ -0,0 +1,107 @@
+package com.se347.benchmarks.gateway;
+
+import com.eduweb.security.HmacSigner;
+import com.se347.apigateway.configs.JwtConfig;
+import com.se347.apigateway.filters.HmacSigningFilter;
+import com.se347.apigateway.filters.JwtAuthenticationFilter;
+import com.se347.apigateway.filters.JwtEmailHeaderFilter;
+import com.se347.apigateway.metrics.GatewayMetrics;
+import com.se347.apigateway.securities.JwtClaimsCache;
+import com.se347.apigateway.securities.TokenBlacklistService;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dựng các filter của Gateway ngoài Spring context, cùng cấu hình mặc định của application.properties
+ *
+ * Redis được thay bằng InMemoryRedisTemplate; field @Value/@Autowired và @PostConstruct
+ * được gán/gọi bằng reflection như Spring làm khi khởi động.
+ */
+final class GatewayFixtures {
+
+    static final String JWT_SECRET = "2L7OaWJq8w3sM7vM8q5Gq0Wz6JfYzI6aQyd0NgqfFs8=";
+    static final String HMAC_SECRET = "change-me-hmac";
+
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final GatewayMetrics metrics = new GatewayMetrics(meterRegistry);
+    final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+    final JwtConfig jwtConfig = new JwtConfig();
+    final JwtClaimsCache jwtClaimsCache;
+    final TokenBlacklistService tokenBlacklistService;
+    final JwtAuthenticationFilter jwtAuthenticationFilter = new JwtAuthenticationFilter();
+    final JwtEmailHeaderFilter jwtEmailHeaderFilter;
+    final HmacSigningFilter hmacSigningFilter;
+
+    GatewayFixtures() {
+        setField(jwtConfig, "jwtSecret", JWT_SECRET);
+        setField(jwtConfig, "jwtExpiration", 86_400_000L);
+        invoke(jwtConfig, "init");
+
+        jwtClaimsCache = new JwtClaimsCache(jwtConfig, meterRegistry, 10_000, Duration.ofMinutes(15));
+        tokenBlacklistService = new TokenBlacklistService(redis, "token-blacklist", 100_000, 0.01, Duration.ofMinutes(10));
+
+        setField(jwtAuthenticationFilter, "jwtClaimsCache", jwtClaimsCache);
+        setField(jwtAuthenticationFilter, "tokenBlacklistService", tokenBlacklistService);
+        setField(jwtAuthenticationFilter, "metrics", metrics);
+
+        jwtEmailHeaderFilter = new JwtEmailHeaderFilter(jwtClaimsCache, metrics);
+        hmacSigningFilter = new HmacSigningFilter(new HmacSigner(HMAC_SECRET), metrics);
+    }
+
+    /**
+     * Blacklist token trong Redis giả; gọi trước start() để token nằm trong Bloom filter ban đầu
+     */
+    void blacklist(String token) {
+        redis.addKey("blacklist:" + token);
+    }
+
+    /**
+     * Subscribe pub/sub giả và dựng Bloom filter (SCAN đồng bộ trên Redis giả)
+     */
+    void start() {
+        invoke(tokenBlacklistService, "start");
+    }
+
+    void stop() {
+        invoke(tokenBlacklistService, "stop");
+    }
+
+    String issueToken(String email) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(email)
+                .claim("userId", UUID.randomUUID().toString())
+                .claim("roles", List.of("USER"))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + Duration.ofHours(1).toMillis()))
+                .signWith(jwtConfig.getSigningKey())
+                .compact();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name, e);
+        }
+    }
+
+    private static void invoke(Object target, String name) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(name);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot invoke " + name, e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.se347.benchmarks.gateway;
+
+import com.se347.apigateway.filters.HmacSigningFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí HmacSigningFilter theo kích thước body (0 B đến 50 MB, giới hạn upload qua Gateway)
+ *
+ * Body được chia thành các DataBuffer 64 KiB như Netty chuyển lên; chain giả đọc hết body
+ * đã ký và release buffer như NettyRoutingFilter.
+ *
+ * Chạy: java -jar target/benchmarks.jar HmacSigningFilterBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HmacSigningFilterBenchmark {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final DefaultDataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
+    private static final GatewayFilterChain CHAIN = exchange -> exchange.getRequest().getBody()
+            .doOnNext(DataBufferUtils::release)
+            .then();
+
+    @Param({"0", "1024", "65536", "1048576", "52428800"})
+    private int bodySize;
+
+    private GatewayFixtures fixtures;
+    private GatewayFilter hmacSigning;
+    private List<ByteBuffer> chunks;
+
+    @Setup
+    public void setup() {
+        fixtures = new GatewayFixtures();
+        hmacSigning = fixtures.hmacSigningFilter.apply(new HmacSigningFilter.Config());
+
+        byte[] body = new byte[bodySize];
+        ThreadLocalRandom.current().nextBytes(body);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < bodySize; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, bodySize - offset);
+            chunks.add(ByteBuffer.wrap(body, offset, length).slice().asReadOnlyBuffer());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.stop();
+    }
+
+    @Benchmark
+    public MockServerWebExchange hmacSigning() {
+        // Bọc lại các chunk dùng chung (không copy), mỗi request có read position riêng
+        Flux<DataBuffer> body = Flux.fromIterable(chunks)
+                .map(chunk -> BUFFER_FACTORY.wrap(chunk.duplicate()));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/courses")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
+        hmacSigning.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+}
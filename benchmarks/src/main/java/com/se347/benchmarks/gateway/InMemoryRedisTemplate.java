@@ -0,0 +1,50 @@
+package com.se347.benchmarks.gateway;
+
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.Topic;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis giả trong bộ nhớ cho benchmark: chỉ hỗ trợ các lệnh mà TokenBlacklistService dùng
+ * (hasKey, SCAN, subscribe), không mở kết nối thật
+ */
+public class InMemoryRedisTemplate extends ReactiveStringRedisTemplate {
+
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+    public InMemoryRedisTemplate() {
+        // Connection factory chưa start, không bao giờ được dùng
+        super(new LettuceConnectionFactory());
+    }
+
+    public void addKey(String key) {
+        keys.add(key);
+    }
+
+    @Override
+    public Mono<Boolean> hasKey(String key) {
+        return Mono.just(keys.contains(key));
+    }
+
+    @Override
+    public Flux<String> scan(ScanOptions options) {
+        String pattern = options.getPattern();
+        String prefix = pattern != null && pattern.endsWith("*")
+                ? pattern.substring(0, pattern.length() - 1)
+                : "";
+        return Flux.fromIterable(keys).filter(key -> key.startsWith(prefix));
+    }
+
+    @Override
+    public Mono<Flux<? extends ReactiveSubscription.Message<String, String>>> listenToLater(Topic... topics) {
+        // Đã subscribe, không có message mới trong lúc benchmark
+        return Mono.just(Flux.never());
+    }
+}
@@ -0,0 +1,99 @@
+package com.se347.benchmarks.gateway;
+
+import com.se347.apigateway.filters.JwtAuthenticationFilter;
+import com.se347.apigateway.filters.JwtEmailHeaderFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí JwtAuthenticationFilter và JwtEmailHeaderFilter cho một request
+ *
+ * - valid: token hợp lệ, Bloom filter trả "không có" nên không hỏi Redis, claims lấy từ cache
+ * - blacklisted: token nằm trong blacklist, hỏi Redis giả rồi bị từ chối (Mono.error)
+ * - exchangeOnly: chi phí dựng MockServerWebExchange, trừ đi khi đọc kết quả
+ *
+ * Chạy: java -jar target/benchmarks.jar JwtFilterBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtFilterBenchmark {
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"valid", "blacklisted"})
+    private String token;
+
+    private GatewayFixtures fixtures;
+    private GatewayFilter jwtAuthentication;
+    private GatewayFilter jwtEmailHeader;
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        fixtures = new GatewayFixtures();
+        String value = fixtures.issueToken("student@eduweb.local");
+        if ("blacklisted".equals(token)) {
+            fixtures.blacklist(value);
+        }
+        fixtures.start();
+
+        authorization = "Bearer " + value;
+        jwtAuthentication = fixtures.jwtAuthenticationFilter.apply(new JwtAuthenticationFilter.Config());
+        jwtEmailHeader = fixtures.jwtEmailHeaderFilter.apply(new JwtEmailHeaderFilter.Config());
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixtures.stop();
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly() {
+        return newExchange();
+    }
+
+    @Benchmark
+    public MockServerWebExchange jwtAuthentication() {
+        MockServerWebExchange exchange = newExchange();
+        jwtAuthentication.filter(exchange, CHAIN)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange jwtEmailHeader() {
+        MockServerWebExchange exchange = newExchange();
+        jwtEmailHeader.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange newExchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/courses")
+                .header(HttpHeaders.AUTHORIZATION, authorization));
+    }
+}
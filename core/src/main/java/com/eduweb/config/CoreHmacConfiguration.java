@@ -0,0 +1,88 @@
+package com.eduweb.config;
+
+import com.eduweb.security.HmacSigner;
+import com.eduweb.security.NonceStore;
+import com.eduweb.security.RedisNonceStore;
+import com.eduweb.security.TimeBucketedNonceCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "gateway.hmac.secret")
+public class CoreHmacConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HmacSigner hmacSigner(@Value("${gateway.hmac.secret}") String secret) {
+        return new HmacSigner(secret);
+    }
+
+    /**
+     * Replay guard dùng chung giữa các replica (gateway.hmac.replay.store=redis)
+     */
+    @Configuration
+    @ConditionalOnClass(StringRedisTemplate.class)
+    @ConditionalOnProperty(name = "gateway.hmac.replay.store", havingValue = "redis")
+    static class RedisNonceStoreConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public NonceStore redisNonceStore(StringRedisTemplate redisTemplate,
+                                          @Value("${gateway.hmac.replay.window:PT5M}") Duration window) {
+            return new RedisNonceStore(redisTemplate, window);
+        }
+    }
+
+    /**
+     * Mặc định giữ đủ nonce cho max-rate request/giây của một instance trong cả cửa sổ
+     * (500 req/s × 5 phút = 150k nonce, bảng fingerprint cấp sẵn khoảng 4 MB); vượt mức đó thì
+     * nonce mới nhận 503 thay vì làm phình bộ nhớ. max-entries > 0 thì dùng trực tiếp
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public NonceStore nonceStore(@Value("${gateway.hmac.replay.window:PT5M}") Duration window,
+                                 @Value("${gateway.hmac.replay.bucket-count:30}") int bucketCount,
+                                 @Value("${gateway.hmac.replay.max-rate:500}") long maxRate,
+                                 @Value("${gateway.hmac.replay.max-entries:0}") long maxEntries) {
+        long entries = maxEntries > 0 ? maxEntries : TimeBucketedNonceCache.entriesFor(maxRate, window);
+        return new TimeBucketedNonceCache(window, bucketCount, entries);
+    }
+
+    /**
+     * hmac.nonce.entries, hmac.nonce.rejected{reason=replayed|capacity} cho NonceStore trong process
+     */
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    static class NonceStoreMetricsConfiguration {
+
+        @Bean
+        public MeterBinder nonceStoreMetrics(NonceStore nonceStore) {
+            return registry -> {
+                if (!(nonceStore instanceof TimeBucketedNonceCache cache)) {
+                    return;
+                }
+                Gauge.builder("hmac.nonce.entries", cache, TimeBucketedNonceCache::size)
+                        .description("HMAC nonces held by the in-process replay cache")
+                        .register(registry);
+                FunctionCounter.builder("hmac.nonce.rejected", cache, TimeBucketedNonceCache::replayedCount)
+                        .description("Requests rejected by the HMAC replay cache")
+                        .tag("reason", "replayed")
+                        .register(registry);
+                FunctionCounter.builder("hmac.nonce.rejected", cache, TimeBucketedNonceCache::capacityRejectedCount)
+                        .description("Requests rejected by the HMAC replay cache")
+                        .tag("reason", "capacity")
+                        .register(registry);
+            };
+        }
+    }
+}
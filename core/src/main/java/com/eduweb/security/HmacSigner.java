@@ -0,0 +1,138 @@
+package com.eduweb.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signer dùng chung giữa gateway và các service
+ *
+ * - Key được dựng một lần; mỗi thread giữ một Mac đã init sẵn (clone từ prototype),
+ *   Mac tự reset sau doFinal nên được dùng lại cho các request tiếp theo
+ * - SHA-256 cũng được giữ theo thread thay vì gọi MessageDigest.getInstance mỗi request
+ * - So sánh chữ ký bằng MessageDigest.isEqual (constant-time)
+ */
+public final class HmacSigner {
+
+    public static final String ALGORITHM = "HmacSHA256";
+
+    public static final String HEADER_SIGNATURE = "HMAC-AUTH";
+    public static final String HEADER_NONCE = "HMAC-NONCE";
+    public static final String HEADER_TIMESTAMP = "HMAC-TIMESTAMP";
+    public static final String HEADER_BODY_SHA256 = "X-Body-SHA256";
+    public static final String HEADER_GATEWAY_SIGNED = "X-Gateway-Signed";
+
+    private static final MessageDigest SHA256_PROTOTYPE = newDigest();
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(HmacSigner::newSha256);
+    private static final String EMPTY_BODY_SHA256 = Base64.getEncoder().encodeToString(newDigest().digest(new byte[0]));
+
+    private final Mac prototype;
+    private final ThreadLocal<Mac> macs;
+
+    public HmacSigner(String secret) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialize HMAC key", e);
+        }
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Payload chuẩn được ký: method, path, body hash, nonce, timestamp cách nhau bởi '\n'
+     */
+    public static String payload(String method, String path, String bodyHash, String nonce, String timestamp) {
+        return method + "\n" + path + "\n" + bodyHash + "\n" + nonce + "\n" + timestamp;
+    }
+
+    /**
+     * Ký payload, trả về chữ ký Base64
+     */
+    public String sign(String payload) {
+        Mac mac = macs.get();
+        return Base64.getEncoder().encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Kiểm tra chữ ký Base64 của payload (constant-time)
+     */
+    public boolean verify(String payload, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        byte[] provided;
+        try {
+            provided = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        byte[] expected = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(expected, provided);
+    }
+
+    /**
+     * So sánh hai chuỗi (ví dụ body hash) theo constant-time
+     */
+    public static boolean constantTimeEquals(String a, String b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * SHA-256 Base64 của dữ liệu, dùng MessageDigest theo thread
+     */
+    public static String base64Sha256(byte[] data) {
+        if (data.length == 0) {
+            return EMPTY_BODY_SHA256;
+        }
+        return Base64.getEncoder().encodeToString(sha256(data));
+    }
+
+    /**
+     * SHA-256 thô của dữ liệu, dùng MessageDigest theo thread
+     */
+    public static byte[] sha256(byte[] data) {
+        return SHA256.get().digest(data);
+    }
+
+    /**
+     * SHA-256 của body rỗng (GET/DELETE), tính sẵn một lần
+     */
+    public static String emptyBodySha256() {
+        return EMPTY_BODY_SHA256;
+    }
+
+    /**
+     * MessageDigest mới (clone từ prototype) cho trường hợp cần hash nhiều phần,
+     * ví dụ body đến theo từng buffer trên nhiều thread
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return (MessageDigest) SHA256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            return newDigest();
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC implementation does not support cloning", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.eduweb.security;
+
+/**
+ * Nơi ghi nhận HMAC nonce đã dùng để chặn replay request trong cửa sổ timestamp
+ *
+ * - TimeBucketedNonceCache: trong process (mặc định)
+ * - RedisNonceStore: dùng chung giữa nhiều replica của một service
+ */
+public interface NonceStore {
+
+    /**
+     * Kết quả ghi nhận một nonce
+     */
+    enum Result {
+        /** Nonce chưa từng thấy trong cửa sổ, đã được ghi nhận */
+        ACCEPTED,
+        /** Nonce đã được dùng: replay */
+        REPLAYED,
+        /** Timestamp nằm ngoài cửa sổ replay */
+        OUT_OF_WINDOW,
+        /** Không thể ghi nhận lúc này (cache đầy, Redis lỗi): request hợp lệ nhưng bị từ chối (fail closed) */
+        UNAVAILABLE
+    }
+
+    /**
+     * Ghi nhận nonce của request có timestamp (epoch giây) đã được kiểm tra chữ ký
+     */
+    Result mark(String nonce, long timestampSeconds);
+}
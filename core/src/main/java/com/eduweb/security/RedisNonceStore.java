@@ -0,0 +1,44 @@
+package com.eduweb.security;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * NonceStore trên Redis cho service chạy nhiều replica
+ *
+ * Mỗi nonce là một key SET NX với TTL đến khi timestamp của request ra khỏi cửa sổ,
+ * Redis tự xoá key hết hạn. Lỗi kết nối Redis → từ chối request (fail closed).
+ */
+public class RedisNonceStore implements NonceStore {
+
+    private static final String KEY_PREFIX = "hmac:nonce:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final long window;
+
+    public RedisNonceStore(StringRedisTemplate redisTemplate, Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.window = window.getSeconds();
+    }
+
+    @Override
+    public Result mark(String nonce, long timestampSeconds) {
+        long now = Instant.now().getEpochSecond();
+        long ttl = timestampSeconds + window - now;
+        if (ttl <= 0 || timestampSeconds - now > window) {
+            return Result.OUT_OF_WINDOW;
+        }
+        try {
+            Boolean added = redisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + nonce, "1", Duration.ofSeconds(ttl + 1));
+            if (added == null) {
+                return Result.UNAVAILABLE;
+            }
+            return added ? Result.ACCEPTED : Result.REPLAYED;
+        } catch (RuntimeException e) {
+            return Result.UNAVAILABLE;
+        }
+    }
+}
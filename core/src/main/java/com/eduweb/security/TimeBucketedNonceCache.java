@@ -0,0 +1,214 @@
+package com.eduweb.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * NonceStore trong process: tập nonce chia theo bucket thời gian
+ *
+ * - Nonce được xếp vào bucket theo timestamp đã ký (không phải thời điểm nhận), nên replay
+ *   của cùng request luôn rơi vào cùng bucket
+ * - Các bucket nằm trên vòng tròn phủ [now - window, now + window]; khi một slot được dùng cho
+ *   bucket mới, cả bucket cũ bị bỏ đi một lần (không cần dọn từng entry hết hạn)
+ * - Mỗi nonce chỉ giữ fingerprint 64-bit trong bảng AtomicLongArray open addressing cố định
+ *   của bucket; tra cứu và thêm đều không khoá (linear probing + CAS, ô không bao giờ bị xoá
+ *   nên nonce đã có luôn được gặp trước ô trống đầu tiên)
+ * - Bộ nhớ bị chặn và biết trước: mỗi bucket giữ tối đa maxEntries chia cho số bucket của một
+ *   cửa sổ, bảng dài gấp 4/3 số đó (làm tròn lên lũy thừa 2) và được cấp sẵn khi tạo bucket.
+ *   Vòng bucket phủ 2 cửa sổ nên tổng khoảng 21-43 byte × maxEntries (maxTableBytes()).
+ *   Bucket đầy thì từ chối nonce mới với UNAVAILABLE (fail closed, không coi là replay)
+ */
+public class TimeBucketedNonceCache implements NonceStore {
+
+    private final long window;
+    private final long bucketWidth;
+    private final int perBucketCapacity;
+    private final int tableSize;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder capacityRejected = new LongAdder();
+
+    /**
+     * @param window      độ lệch timestamp tối đa được chấp nhận (giống kiểm tra trong HmacValidationFilter)
+     * @param bucketCount số bucket phủ một cửa sổ window
+     * @param maxEntries  số nonce tối đa của một cửa sổ window (tốc độ request tối đa × window)
+     */
+    public TimeBucketedNonceCache(Duration window, int bucketCount, long maxEntries) {
+        if (window.getSeconds() <= 0 || bucketCount <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("window, bucketCount and maxEntries must be positive");
+        }
+        this.window = window.getSeconds();
+        this.bucketWidth = Math.max(1, (this.window + bucketCount - 1) / bucketCount);
+        // Timestamp hợp lệ trải trên 2 * window, cộng thêm một slot cho bucket đang xoay
+        int slots = (int) ((2 * this.window) / bucketWidth) + 2;
+        this.perBucketCapacity = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(1, maxEntries / (this.window / bucketWidth + 1)));
+        this.tableSize = tableSizeFor(perBucketCapacity);
+        this.buckets = new AtomicReferenceArray<>(slots);
+    }
+
+    /**
+     * maxEntries cho tốc độ request tối đa (req/s) của một instance trong cửa sổ window
+     */
+    public static long entriesFor(long maxRequestsPerSecond, Duration window) {
+        return Math.max(1, maxRequestsPerSecond) * window.getSeconds();
+    }
+
+    @Override
+    public Result mark(String nonce, long timestampSeconds) {
+        return mark(nonce, timestampSeconds, Instant.now().getEpochSecond());
+    }
+
+    Result mark(String nonce, long timestampSeconds, long nowSeconds) {
+        if (Math.abs(nowSeconds - timestampSeconds) > window) {
+            return Result.OUT_OF_WINDOW;
+        }
+        Bucket bucket = bucketFor(Math.floorDiv(timestampSeconds, bucketWidth));
+        if (bucket == null) {
+            return Result.OUT_OF_WINDOW;
+        }
+        Result result = bucket.add(fingerprint(nonce), perBucketCapacity);
+        if (result == Result.REPLAYED) {
+            replayed.increment();
+        } else if (result == Result.UNAVAILABLE) {
+            capacityRejected.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Số nonce đang được giữ (ước lượng, chỉ dùng cho metrics/debug)
+     */
+    public int size() {
+        int total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null) {
+                total += bucket.count.get();
+            }
+        }
+        return total;
+    }
+
+    public int getPerBucketCapacity() {
+        return perBucketCapacity;
+    }
+
+    /**
+     * Số byte bảng fingerprint khi mọi slot đều có bucket (trần bộ nhớ của cache)
+     */
+    public long maxTableBytes() {
+        return (long) buckets.length() * tableSize * Long.BYTES;
+    }
+
+    /**
+     * Số nonce bị từ chối vì đã thấy (replay) từ khi khởi động
+     */
+    public long replayedCount() {
+        return replayed.sum();
+    }
+
+    /**
+     * Số nonce hợp lệ bị từ chối vì bucket đầy từ khi khởi động
+     */
+    public long capacityRejectedCount() {
+        return capacityRejected.sum();
+    }
+
+    private Bucket bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets.length());
+        while (true) {
+            Bucket current = buckets.get(slot);
+            if (current != null && current.epoch == epoch) {
+                return current;
+            }
+            if (current != null && current.epoch > epoch) {
+                // Slot đã thuộc về bucket mới hơn: timestamp quá cũ so với vòng bucket
+                return null;
+            }
+            Bucket fresh = new Bucket(epoch, tableSize);
+            if (buckets.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * FNV-1a 64-bit + fmix64; 0 dành cho ô trống
+     */
+    static long fingerprint(String nonce) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < nonce.length(); i++) {
+            h ^= nonce.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Lũy thừa 2 nhỏ nhất chứa được capacity với tải tối đa 3/4
+     */
+    private static int tableSizeFor(int capacity) {
+        long needed = Math.max(2, (capacity * 4L + 2) / 3 + 1);
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final AtomicLongArray table;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private Bucket(long epoch, int tableSize) {
+            this.epoch = epoch;
+            this.table = new AtomicLongArray(tableSize);
+        }
+
+        private Result add(long fingerprint, int capacity) {
+            int mask = table.length() - 1;
+            boolean reserved = false;
+            int i = (int) fingerprint & mask;
+            for (int probes = 0; probes <= mask; ) {
+                long value = table.get(i);
+                if (value == fingerprint) {
+                    release(reserved);
+                    return Result.REPLAYED;
+                }
+                if (value != 0) {
+                    i = (i + 1) & mask;
+                    probes++;
+                    continue;
+                }
+                // Giữ chỗ trong capacity trước khi ghi, để bảng không bao giờ đầy quá 3/4
+                if (!reserved) {
+                    if (count.incrementAndGet() > capacity) {
+                        count.decrementAndGet();
+                        return Result.UNAVAILABLE;
+                    }
+                    reserved = true;
+                }
+                if (table.compareAndSet(i, 0, fingerprint)) {
+                    return Result.ACCEPTED;
+                }
+                // Ô vừa bị luồng khác ghi: đọc lại chính ô đó (có thể là cùng nonce)
+            }
+            release(reserved);
+            return Result.UNAVAILABLE;
+        }
+
+        private void release(boolean reserved) {
+            if (reserved) {
+                count.decrementAndGet();
+            }
+        }
+    }
+}
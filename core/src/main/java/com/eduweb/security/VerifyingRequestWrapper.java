@@ -0,0 +1,425 @@
+package com.eduweb.security;
+
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.Part;
+import org.apache.catalina.core.ApplicationPart;
+import org.apache.tomcat.util.http.fileupload.FileItem;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.UploadContext;
+import org.apache.tomcat.util.http.fileupload.disk.DiskFileItemFactory;
+import org.apache.tomcat.util.http.fileupload.impl.SizeException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Request wrapper kiểm tra body hash (X-Body-SHA256) trước khi controller dùng body
+ *
+ * Chữ ký HMAC đã được kiểm tra với body hash trong header; wrapper này chỉ cần đảm bảo
+ * body thực sự khớp với hash đó. Dữ liệu được đưa thẳng vào MessageDigest khi đọc.
+ * - Body thường: verifyUpFront() đọc hết body vào bản tạm (tối đa 64 KB trên heap, phần còn lại
+ *   ra file tạm) và so hash trước khi filter gọi controller. Parser có thể dừng trước khi đọc hết
+ *   body (JSON theo sau là khoảng trắng), nên không thể chờ lần đọc cuối của controller
+ * - Đọc đến Content-Length (hoặc EOF nếu không có Content-Length) → so sánh hash
+ * - Không khớp → lần đọc cuối ném BodyHashMismatchException thay vì trả về dữ liệu
+ * - Controller không đọc hết body → filter gọi finish() để đọc nốt và kiểm tra
+ *
+ * multipart/form-data: Tomcat tự parse part từ stream gốc (bỏ qua wrapper), nên getParts()
+ * được parse lại trên stream đã kiểm tra; part lớn hơn 64 KB được ghi ra file tạm thay vì heap.
+ * Giới hạn max-file-size/max-request-size lấy từ MultipartConfigElement của service
+ * (spring.servlet.multipart.*); vượt giới hạn → IllegalStateException như Tomcat,
+ * Spring chuyển thành MaxUploadSizeExceededException.
+ */
+public class VerifyingRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final int PART_SIZE_THRESHOLD = 64 * 1024;
+    private static final File PART_REPOSITORY = new File(System.getProperty("java.io.tmpdir"));
+
+    private final String expectedBodyHash;
+    private final long contentLength;
+    private final MultipartConfigElement multipartConfig;
+    private VerifyingInputStream inputStream;
+    private Spool spool;
+    private ServletInputStream spooledStream;
+    private BufferedReader reader;
+    private List<Part> parts;
+
+    public VerifyingRequestWrapper(HttpServletRequest request, String expectedBodyHash,
+                                   MultipartConfigElement multipartConfig) {
+        super(request);
+        this.expectedBodyHash = expectedBodyHash;
+        this.contentLength = request.getContentLengthLong();
+        this.multipartConfig = multipartConfig;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (spool != null) {
+            if (spooledStream == null) {
+                spooledStream = new SpooledInputStream(spool.open());
+            }
+            return spooledStream;
+        }
+        if (inputStream == null) {
+            inputStream = new VerifyingInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+        return reader;
+    }
+
+    @Override
+    public Collection<Part> getParts() throws IOException, ServletException {
+        if (parts == null) {
+            parts = parseParts();
+        }
+        return parts;
+    }
+
+    @Override
+    public Part getPart(String name) throws IOException, ServletException {
+        for (Part part : getParts()) {
+            if (part.getName().equals(name)) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    private boolean isMultipart() {
+        String contentType = getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/form-data");
+    }
+
+    private List<Part> parseParts() throws IOException, ServletException {
+        if (!isMultipart()) {
+            throw new ServletException("Request is not a multipart/form-data request");
+        }
+        File repository = partRepository();
+        FileUpload upload = new FileUpload();
+        upload.setFileItemFactory(new DiskFileItemFactory(PART_SIZE_THRESHOLD, repository));
+        if (multipartConfig != null) {
+            upload.setSizeMax(multipartConfig.getMaxRequestSize());
+            upload.setFileSizeMax(multipartConfig.getMaxFileSize());
+        }
+        try {
+            List<Part> result = new ArrayList<>();
+            for (FileItem item : upload.parseRequest(new VerifyingUploadContext())) {
+                result.add(new ApplicationPart(item, repository));
+            }
+            return result;
+        } catch (SizeException e) {
+            throw new IllegalStateException(e);
+        } catch (FileUploadException e) {
+            if (isMismatch()) {
+                throw new BodyHashMismatchException();
+            }
+            throw new IOException(e);
+        }
+    }
+
+    private File partRepository() {
+        String location = multipartConfig != null ? multipartConfig.getLocation() : null;
+        return location == null || location.isEmpty() ? PART_REPOSITORY : new File(location);
+    }
+
+    /**
+     * Đọc hết body và so hash trước khi request đến controller (body không phải multipart)
+     *
+     * multipart/form-data được bỏ qua: getParts() đọc hết stream và kiểm tra trước khi trả part.
+     * Controller đọc lại body từ bản tạm đã kiểm tra; gọi release() khi xử lý xong request.
+     *
+     * @return false nếu body không khớp với hash đã ký
+     */
+    public boolean verifyUpFront() throws IOException {
+        if (isMultipart() || inputStream != null || spool != null) {
+            return true;
+        }
+        VerifyingInputStream source = new VerifyingInputStream(super.getInputStream());
+        inputStream = source;
+        Spool copy = new Spool(partRepository());
+        byte[] buffer = new byte[8192];
+        try {
+            int n;
+            while ((n = source.read(buffer, 0, buffer.length)) >= 0) {
+                copy.write(buffer, n);
+            }
+        } catch (BodyHashMismatchException e) {
+            copy.delete();
+            return false;
+        } catch (IOException | RuntimeException e) {
+            copy.delete();
+            throw e;
+        }
+        spool = copy;
+        return true;
+    }
+
+    /**
+     * Xoá file tạm của verifyUpFront() (nếu có)
+     */
+    public void release() {
+        if (spool == null) {
+            return;
+        }
+        try {
+            if (spooledStream != null) {
+                spooledStream.close();
+            }
+        } catch (IOException ignored) {
+            // File vẫn bị xoá bên dưới
+        }
+        spool.delete();
+    }
+
+    /**
+     * Đọc nốt phần body chưa được đọc (bỏ đi) và kiểm tra hash
+     *
+     * @throws BodyHashMismatchException nếu body không khớp với hash đã ký
+     */
+    public void finish() throws IOException {
+        if (spool != null) {
+            return;
+        }
+        VerifyingInputStream stream = (VerifyingInputStream) getInputStream();
+        byte[] skip = new byte[8192];
+        while (!stream.verified) {
+            if (stream.read(skip, 0, skip.length) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Body đã bị phát hiện không khớp với hash (kể cả khi exception bị tầng trên nuốt mất)
+     */
+    public boolean isMismatch() {
+        return inputStream != null && inputStream.mismatch;
+    }
+
+    /**
+     * Body không khớp hash đã ký
+     */
+    public static class BodyHashMismatchException extends IOException {
+        public BodyHashMismatchException() {
+            super("Request body does not match the signed body hash");
+        }
+    }
+
+    private final class VerifyingUploadContext implements UploadContext {
+
+        @Override
+        public String getCharacterEncoding() {
+            return VerifyingRequestWrapper.this.getCharacterEncoding();
+        }
+
+        @Override
+        public String getContentType() {
+            return VerifyingRequestWrapper.this.getContentType();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return VerifyingRequestWrapper.this.getInputStream();
+        }
+
+        @Override
+        public long contentLength() {
+            return contentLength;
+        }
+    }
+
+    private final class VerifyingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final MessageDigest digest = HmacSigner.newSha256();
+        private long total;
+        private boolean verified;
+        private boolean mismatch;
+
+        private VerifyingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkMismatch();
+            int b = delegate.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                total++;
+            }
+            afterRead(b < 0);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkMismatch();
+            int n = delegate.read(buffer, offset, length);
+            if (n > 0) {
+                digest.update(buffer, offset, n);
+                total += n;
+            }
+            afterRead(n < 0);
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return verified || delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        private void afterRead(boolean endOfStream) throws IOException {
+            if (verified || !(endOfStream || (contentLength >= 0 && total >= contentLength))) {
+                return;
+            }
+            verified = true;
+            String actual = Base64.getEncoder().encodeToString(digest.digest());
+            if (!HmacSigner.constantTimeEquals(actual, expectedBodyHash)) {
+                mismatch = true;
+                throw new BodyHashMismatchException();
+            }
+        }
+
+        private void checkMismatch() throws IOException {
+            if (mismatch) {
+                throw new BodyHashMismatchException();
+            }
+        }
+    }
+
+    /**
+     * Bản tạm của body đã kiểm tra: PART_SIZE_THRESHOLD byte đầu trên heap, phần còn lại ra file tạm
+     */
+    private static final class Spool {
+
+        private final File repository;
+        private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream tail;
+
+        private Spool(File repository) {
+            this.repository = repository;
+        }
+
+        private void write(byte[] buffer, int length) throws IOException {
+            int inMemory = Math.min(length, PART_SIZE_THRESHOLD - head.size());
+            if (inMemory > 0) {
+                head.write(buffer, 0, inMemory);
+            }
+            if (inMemory < length) {
+                if (tail == null) {
+                    file = File.createTempFile("verified-body-", ".tmp", repository);
+                    tail = Files.newOutputStream(file.toPath());
+                }
+                tail.write(buffer, inMemory, length - inMemory);
+            }
+        }
+
+        private InputStream open() throws IOException {
+            InputStream inMemory = new ByteArrayInputStream(head.toByteArray());
+            if (tail == null) {
+                return inMemory;
+            }
+            tail.close();
+            return new SequenceInputStream(inMemory, Files.newInputStream(file.toPath()));
+        }
+
+        private void delete() {
+            try {
+                if (tail != null) {
+                    tail.close();
+                }
+            } catch (IOException ignored) {
+                // File vẫn bị xoá bên dưới
+            }
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private static final class SpooledInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private boolean finished;
+
+        private SpooledInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Verified body is read synchronously");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.eduweb.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replay, hết cửa sổ, bucket đầy và thêm đồng thời không khoá
+ */
+class TimeBucketedNonceCacheTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    void secondUseOfNonceIsReplayed() {
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(Duration.ofMinutes(5), 30, 1000);
+
+        assertThat(cache.mark("nonce-1", NOW, NOW)).isEqualTo(NonceStore.Result.ACCEPTED);
+        assertThat(cache.mark("nonce-1", NOW, NOW + 1)).isEqualTo(NonceStore.Result.REPLAYED);
+        assertThat(cache.mark("nonce-2", NOW, NOW + 1)).isEqualTo(NonceStore.Result.ACCEPTED);
+        assertThat(cache.replayedCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void timestampOutsideWindowIsRejectedAndOldBucketsAreDropped() {
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(Duration.ofSeconds(60), 6, 1000);
+
+        assertThat(cache.mark("old", NOW - 61, NOW)).isEqualTo(NonceStore.Result.OUT_OF_WINDOW);
+        assertThat(cache.mark("future", NOW + 61, NOW)).isEqualTo(NonceStore.Result.OUT_OF_WINDOW);
+
+        assertThat(cache.mark("nonce", NOW, NOW)).isEqualTo(NonceStore.Result.ACCEPTED);
+        // Sau cửa sổ, replay với timestamp cũ bị chặn bởi kiểm tra thời gian, không cần entry nữa
+        assertThat(cache.mark("nonce", NOW, NOW + 61)).isEqualTo(NonceStore.Result.OUT_OF_WINDOW);
+
+        // Một vòng bucket sau, slot cũ được dùng lại cho bucket mới: entry cũ bị bỏ
+        long later = NOW + 140;
+        assertThat(cache.mark("fresh", later, later)).isEqualTo(NonceStore.Result.ACCEPTED);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void fullBucketRejectsNewNoncesButStillDetectsReplays() {
+        // 1 bucket / cửa sổ: mỗi bucket giữ maxEntries / 2 nonce
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(Duration.ofSeconds(10), 1, 8);
+        int capacity = cache.getPerBucketCapacity();
+        assertThat(capacity).isEqualTo(4);
+
+        for (int i = 0; i < capacity; i++) {
+            assertThat(cache.mark("nonce-" + i, NOW, NOW)).isEqualTo(NonceStore.Result.ACCEPTED);
+        }
+        assertThat(cache.mark("one-too-many", NOW, NOW)).isEqualTo(NonceStore.Result.UNAVAILABLE);
+        assertThat(cache.mark("nonce-0", NOW, NOW)).isEqualTo(NonceStore.Result.REPLAYED);
+        assertThat(cache.capacityRejectedCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(capacity);
+    }
+
+    @Test
+    void defaultSizingHasBoundedTables() {
+        long entries = TimeBucketedNonceCache.entriesFor(500, Duration.ofMinutes(5));
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(Duration.ofMinutes(5), 30, entries);
+
+        assertThat(cache.maxTableBytes()).isLessThanOrEqualTo(4L * 1024 * 1024);
+    }
+
+    @Test
+    void concurrentMarksAcceptEachNonceExactlyOnce() throws Exception {
+        int threads = 8;
+        int nonces = 20_000;
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(Duration.ofMinutes(5), 30, 1_000_000);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    int accepted = 0;
+                    for (int i = 0; i < nonces; i++) {
+                        if (cache.mark("nonce-" + i, NOW, NOW) == NonceStore.Result.ACCEPTED) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(accepted).isEqualTo(nonces);
+            assertThat(cache.size()).isEqualTo(nonces);
+            assertThat(cache.replayedCount()).isEqualTo((long) nonces * (threads - 1));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
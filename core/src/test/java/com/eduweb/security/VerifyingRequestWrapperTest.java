@@ -0,0 +1,69 @@
+package com.eduweb.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Body phải được so với hash đã ký trước khi controller đọc, kể cả khi parser dừng trước cuối body
+ */
+class VerifyingRequestWrapperTest {
+
+    @Test
+    void tamperedBodyIsRejectedBeforeTheControllerReadsIt() throws IOException {
+        byte[] signed = "{\"price\":10}".getBytes(StandardCharsets.UTF_8);
+        // JSON bị sửa rồi đệm khoảng trắng: parser đọc xong object mà không cần đến cuối body
+        byte[] tampered = ("{\"price\":0} " + " ".repeat(100_000)).getBytes(StandardCharsets.UTF_8);
+
+        VerifyingRequestWrapper wrapped = new VerifyingRequestWrapper(request(tampered), hash(signed), null);
+        try {
+            assertThat(wrapped.verifyUpFront()).isFalse();
+            assertThat(wrapped.isMismatch()).isTrue();
+        } finally {
+            wrapped.release();
+        }
+    }
+
+    @Test
+    void verifiedBodyIsReplayedToTheController() throws IOException {
+        byte[] small = "{\"title\":\"Java\"}".getBytes(StandardCharsets.UTF_8);
+        assertReplayed(small);
+
+        // Lớn hơn phần giữ trên heap: phần còn lại được đọc lại từ file tạm
+        byte[] large = new byte[200_000];
+        Arrays.fill(large, (byte) 'x');
+        large[large.length - 1] = 'y';
+        assertReplayed(large);
+    }
+
+    private static void assertReplayed(byte[] body) throws IOException {
+        VerifyingRequestWrapper wrapped = new VerifyingRequestWrapper(request(body), hash(body), null);
+        try {
+            assertThat(wrapped.verifyUpFront()).isTrue();
+            assertThat(wrapped.getInputStream().readAllBytes()).isEqualTo(body);
+            wrapped.finish();
+            assertThat(wrapped.isMismatch()).isFalse();
+        } finally {
+            wrapped.release();
+        }
+    }
+
+    private static MockHttpServletRequest request(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/courses");
+        request.setContentType("application/json");
+        request.setContent(body);
+        return request;
+    }
+
+    private static String hash(byte[] body) {
+        MessageDigest digest = HmacSigner.newSha256();
+        return Base64.getEncoder().encodeToString(digest.digest(body));
+    }
+}
@@ -0,0 +1,276 @@
+package com.se347.courseservice.caches;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.se347.courseservice.dtos.CourseResponseDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cache đọc course hai tầng cho getCourseById / getCourseByCourseSlug
+ *
+ * - L1: Caffeine trong process, giới hạn theo dung lượng ước tính (l1-max-weight) và số entry
+ *   (l1-max-entries: mỗi entry nặng ít nhất l1-max-weight / l1-max-entries), hết hạn sau l1-ttl
+ * - L2: Redis dùng chung giữa các replica, hết hạn sau l2-ttl
+ * Entry lưu theo courseId; slug chỉ trỏ đến courseId (slug không bao giờ đổi), nên xoá theo
+ * courseId là đủ cho cả hai khoá.
+ *
+ * Xoá cache: CourseEventListener gọi invalidate(courseId) sau commit → xoá L1, L2 và publish lên
+ * channel Redis để các replica khác xoá L1 của chúng.
+ * Chống đọc cũ: mỗi entry ghi thời điểm bắt đầu đọc DB (loadedAt); entry có loadedAt không sau lần
+ * xoá gần nhất của course đó (ví dụ lần đọc DB chạy song song với transaction cập nhật) bị bỏ và đếm
+ * vào course.cache.stale.
+ * Metrics: course.cache.requests (tag tier=l1|l2, result=hit|miss), course.cache.hit.ratio,
+ * course.cache.stale, course.cache.errors, course.cache.l1.size
+ */
+@Slf4j
+@Component
+public class CourseReadCache {
+
+    public static final String INVALIDATION_CHANNEL = "course-cache:invalidate";
+
+    private static final String ID_KEY = "course:v1:id:";
+    private static final String SLUG_KEY = "course:v1:slug:";
+    private static final int BASE_ENTRY_WEIGHT = 256;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration l2Ttl;
+
+    private final Cache<UUID, CachedCourse> byId;
+    private final Cache<String, UUID> slugToId;
+    private final Cache<UUID, Long> invalidatedAt;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter staleReads;
+    private final Counter l2Errors;
+
+    public CourseReadCache(StringRedisTemplate redisTemplate,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${courseservice.cache.course.enabled:true}") boolean enabled,
+                           @Value("${courseservice.cache.course.l1-max-entries:10000}") int l1MaxEntries,
+                           @Value("${courseservice.cache.course.l1-max-weight:32MB}") DataSize l1MaxWeight,
+                           @Value("${courseservice.cache.course.l1-ttl:PT5M}") Duration l1Ttl,
+                           @Value("${courseservice.cache.course.l2-ttl:PT30M}") Duration l2Ttl) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.l2Ttl = l2Ttl;
+
+        long maxWeight = l1MaxWeight.toBytes();
+        long minEntryWeight = Math.max(1, maxWeight / Math.max(1, l1MaxEntries));
+        this.byId = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID id, CachedCourse cached) -> (int) Math.min(Integer.MAX_VALUE,
+                        Math.max(minEntryWeight, estimateBytes(cached.course()))))
+                .expireAfterWrite(l1Ttl)
+                .build();
+        this.slugToId = Caffeine.newBuilder()
+                .maximumSize(l1MaxEntries)
+                .build();
+        // Chỉ cần nhớ lần xoá lâu bằng thời gian một entry cũ còn có thể nằm trong L2
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(Math.max(1000, l1MaxEntries))
+                .expireAfterWrite(l2Ttl)
+                .build();
+
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        this.staleReads = Counter.builder("course.cache.stale")
+                .description("Cached courses discarded because they were loaded before the latest invalidation")
+                .register(meterRegistry);
+        this.l2Errors = Counter.builder("course.cache.errors")
+                .description("Redis (L2) course cache operations that failed")
+                .register(meterRegistry);
+        Gauge.builder("course.cache.hit.ratio", this, cache -> ratio(cache.l1Hits, cache.l1Misses))
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        Gauge.builder("course.cache.hit.ratio", this, cache -> ratio(cache.l2Hits, cache.l2Misses))
+                .tag("tier", "l2")
+                .register(meterRegistry);
+        Gauge.builder("course.cache.l1.size", byId, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Course theo id; loader chỉ được gọi khi cả L1 và L2 đều không có (hoặc có nhưng đã cũ)
+     */
+    public CourseResponseDto getById(UUID courseId, Supplier<CourseResponseDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        CachedCourse cached = lookup(courseId);
+        return cached != null ? cached.course() : load(loader);
+    }
+
+    /**
+     * Course theo slug; slug đã biết courseId thì dùng chung entry với getById
+     */
+    public CourseResponseDto getBySlug(String courseSlug, Supplier<CourseResponseDto> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        UUID courseId = slugToId.getIfPresent(courseSlug);
+        if (courseId == null) {
+            courseId = readSlugPointer(courseSlug);
+        }
+        CachedCourse cached = courseId != null ? lookup(courseId) : null;
+        if (courseId == null) {
+            l1Misses.increment();
+            l2Misses.increment();
+        }
+        return cached != null ? cached.course() : load(loader);
+    }
+
+    /**
+     * Xoá course khỏi L1, L2 của mọi replica (gọi sau khi transaction thay đổi course đã commit)
+     */
+    public void invalidate(UUID courseId) {
+        evictLocal(courseId);
+        try {
+            redisTemplate.delete(ID_KEY + courseId);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, courseId.toString());
+        } catch (RuntimeException e) {
+            // L2 vẫn hết hạn sau l2-ttl; replica khác vẫn hết hạn L1 sau l1-ttl
+            l2Errors.increment();
+            log.warn("Failed to invalidate course {} in Redis: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * Xoá L1 của replica này (message từ channel invalidation)
+     */
+    public void evictLocal(UUID courseId) {
+        invalidatedAt.put(courseId, System.currentTimeMillis());
+        byId.invalidate(courseId);
+    }
+
+    private CachedCourse lookup(UUID courseId) {
+        CachedCourse cached = byId.getIfPresent(courseId);
+        if (cached != null && !isStale(courseId, cached)) {
+            l1Hits.increment();
+            return cached;
+        }
+        l1Misses.increment();
+
+        cached = readL2(courseId);
+        if (cached != null && !isStale(courseId, cached)) {
+            l2Hits.increment();
+            byId.put(courseId, cached);
+            return cached;
+        }
+        l2Misses.increment();
+        return null;
+    }
+
+    private CourseResponseDto load(Supplier<CourseResponseDto> loader) {
+        // Lấy thời điểm trước khi đọc DB: lần xoá nào xảy ra sau đó sẽ làm entry này bị coi là cũ
+        long loadedAt = System.currentTimeMillis();
+        CourseResponseDto course = loader.get();
+        CachedCourse cached = new CachedCourse(loadedAt, course);
+        UUID courseId = course.getCourseId();
+        if (courseId == null || isStale(courseId, cached)) {
+            return course;
+        }
+        byId.put(courseId, cached);
+        if (course.getCourseSlug() != null) {
+            slugToId.put(course.getCourseSlug(), courseId);
+        }
+        writeL2(cached);
+        return course;
+    }
+
+    private boolean isStale(UUID courseId, CachedCourse cached) {
+        Long invalidated = invalidatedAt.getIfPresent(courseId);
+        if (invalidated != null && cached.loadedAt() <= invalidated) {
+            staleReads.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private CachedCourse readL2(UUID courseId) {
+        try {
+            String json = redisTemplate.opsForValue().get(ID_KEY + courseId);
+            return json != null ? objectMapper.readValue(json, CachedCourse.class) : null;
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.debug("Failed to read course {} from Redis: {}", courseId, e.getMessage());
+            return null;
+        }
+    }
+
+    private UUID readSlugPointer(String courseSlug) {
+        try {
+            String id = redisTemplate.opsForValue().get(SLUG_KEY + courseSlug);
+            if (id == null) {
+                return null;
+            }
+            UUID courseId = UUID.fromString(id);
+            slugToId.put(courseSlug, courseId);
+            return courseId;
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.debug("Failed to read course slug {} from Redis: {}", courseSlug, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeL2(CachedCourse cached) {
+        CourseResponseDto course = cached.course();
+        try {
+            redisTemplate.opsForValue().set(ID_KEY + course.getCourseId(), objectMapper.writeValueAsString(cached), l2Ttl);
+            if (course.getCourseSlug() != null) {
+                redisTemplate.opsForValue().set(SLUG_KEY + course.getCourseSlug(), course.getCourseId().toString(), l2Ttl);
+            }
+        } catch (Exception e) {
+            l2Errors.increment();
+            log.debug("Failed to write course {} to Redis: {}", course.getCourseId(), e.getMessage());
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("course.cache.requests")
+                .description("Course read cache lookups")
+                .tags("tier", tier, "result", result)
+                .register(meterRegistry);
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static long estimateBytes(CourseResponseDto course) {
+        return BASE_ENTRY_WEIGHT + 2L * (length(course.getTitle()) + length(course.getDescription())
+                + length(course.getThumbnailUrl()) + length(course.getCourseSlug()) + length(course.getCategoryName()));
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * Entry của cache (L1 lưu trực tiếp, L2 lưu dạng JSON)
+     */
+    public record CachedCourse(long loadedAt, CourseResponseDto course) {
+    }
+}
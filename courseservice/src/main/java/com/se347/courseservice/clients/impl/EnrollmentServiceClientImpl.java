@@ -4,6 +4,7 @@ import com.se347.courseservice.dtos.events.EnrollmentResponseEventDto;
 
 import java.util.List;
 import com.se347.courseservice.clients.EnrollmentServiceClient;
+import com.eduweb.security.HmacSigner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,13 +13,9 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
 import java.util.UUID;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -26,9 +23,7 @@ import lombok.RequiredArgsConstructor;
 public class EnrollmentServiceClientImpl implements EnrollmentServiceClient {    
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentServiceClientImpl.class);
     private final WebClient enrollmentServiceClient;
-
-    @Value("${gateway.hmac.secret}")
-    private String hmacSecret;
+    private final HmacSigner hmacSigner;
 
     @Value("${gateway.hmac.enabled:true}")
     private boolean hmacEnabled;
@@ -56,11 +51,11 @@ public class EnrollmentServiceClientImpl implements EnrollmentServiceClient {
             return;
         }
 
-        String bodyHash = base64Sha256(bodyBytes);
+        String bodyHash = HmacSigner.base64Sha256(bodyBytes);
         String nonce = UUID.randomUUID().toString();
         String timestamp = String.valueOf(Instant.now().getEpochSecond());
-        String payload = method.name() + "\n" + path + "\n" + bodyHash + "\n" + nonce + "\n" + timestamp;
-        String hmacSignature = computeHmacSHA256(hmacSecret, payload);
+        String payload = HmacSigner.payload(method.name(), path, bodyHash, nonce, timestamp);
+        String hmacSignature = hmacSigner.sign(payload);
 
         headers.add("HMAC-AUTH", hmacSignature);
         headers.add("HMAC-NONCE", nonce);
@@ -68,25 +63,4 @@ public class EnrollmentServiceClientImpl implements EnrollmentServiceClient {
         headers.add("X-Body-SHA256", bodyHash);
         headers.add("X-Gateway-Signed", "true");
     }
-
-    private String base64Sha256(byte[] data) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(data);
-            return Base64.getEncoder().encodeToString(digest);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute SHA-256 hash", e);
-        }
-    }
-
-    private String computeHmacSHA256(String secretKey, String data) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] hmac = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hmac);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute HMAC signature", e);
-        }
-    }
 }
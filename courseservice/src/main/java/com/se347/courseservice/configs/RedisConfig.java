@@ -0,0 +1,54 @@
+package com.se347.courseservice.configs;
+
+import com.se347.courseservice.caches.CourseReadCache;
+import com.se347.courseservice.search.CourseSearchIndexer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Nhận courseId bị xoá từ replica khác (hoặc chính replica này) và xoá L1 của CourseReadCache
+     */
+    @Bean
+    @ConditionalOnProperty(name = "courseservice.cache.course.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer courseCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                         CourseReadCache courseReadCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String courseId = new String(message.getBody(), StandardCharsets.UTF_8);
+            try {
+                courseReadCache.evictLocal(UUID.fromString(courseId));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid course cache invalidation message: {}", courseId);
+            }
+        }, new ChannelTopic(CourseReadCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Nhận yêu cầu reindex/rebuild chỉ mục tìm kiếm từ replica khác
+     */
+    @Bean
+    @ConditionalOnProperty(name = "courseservice.search.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer courseSearchSyncContainer(RedisConnectionFactory connectionFactory,
+                                                                   CourseSearchIndexer courseSearchIndexer) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) ->
+                courseSearchIndexer.onSyncMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CourseSearchIndexer.SYNC_CHANNEL));
+        return container;
+    }
+}
@@ -8,13 +8,17 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.se347.courseservice.services.CourseQueryService;
 import com.se347.courseservice.services.CourseCommandService;
+import com.se347.courseservice.services.CurriculumQueryService;
 import com.se347.courseservice.dtos.CourseResponseDto;
 import com.se347.courseservice.dtos.CourseRequestDto;
+import com.se347.courseservice.dtos.CourseImportRequestDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+import com.se347.courseservice.dtos.CursorPageDto;
+import com.se347.courseservice.exceptions.CourseException;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,6 +29,7 @@ public class CourseController {
 
     private final CourseCommandService courseService;
     private final CourseQueryService courseQueryService;
+    private final CurriculumQueryService curriculumQueryService;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<CourseResponseDto> createCourse(
@@ -35,6 +40,14 @@ public class CourseController {
             .body(courseService.createCourse(request, thumbnail, userId));
     }
 
+    @PostMapping("/import")
+    public ResponseEntity<CurriculumResponseDto> importCourse(
+        @RequestBody CourseImportRequestDto request,
+        @RequestHeader("X-User-Id") UUID userId) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(courseService.importCourse(request, userId));
+    }
+
     @GetMapping("/id/{courseId}")
     public ResponseEntity<CourseResponseDto> getCourseById(@PathVariable String courseId) {
         return ResponseEntity.ok(courseQueryService.getCourseById(UUID.fromString(courseId)));
@@ -46,6 +59,16 @@ public class CourseController {
         return ResponseEntity.ok(courseQueryService.getCourseByCourseSlug(courseSlug));
     }
 
+    @GetMapping("/id/{courseId}/curriculum")
+    public ResponseEntity<CurriculumResponseDto> getCurriculumByCourseId(@PathVariable UUID courseId) {
+        return ResponseEntity.ok(curriculumQueryService.getCurriculumByCourseId(courseId));
+    }
+
+    @GetMapping("/slug/{courseSlug}/curriculum")
+    public ResponseEntity<CurriculumResponseDto> getCurriculumByCourseSlug(@PathVariable String courseSlug) {
+        return ResponseEntity.ok(curriculumQueryService.getCurriculumByCourseSlug(courseSlug));
+    }
+
     @PutMapping("/id/{courseId}")
     public ResponseEntity<CourseResponseDto> updateCourse(
             @PathVariable String courseId,
@@ -63,13 +86,40 @@ public class CourseController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<CourseResponseDto>> getAllCourses(Pageable pageable) {
-        return ResponseEntity.ok(courseQueryService.getAllCourses(pageable));
+    public ResponseEntity<CursorPageDto<CourseResponseDto>> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseQueryService.getAllCourses(cursor, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<CourseResponseDto>> searchCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseQueryService.searchCourses(q, size));
+    }
+
+    @GetMapping("/search/suggest")
+    public ResponseEntity<List<CourseResponseDto>> suggestCourses(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(courseQueryService.suggestCourses(q, size));
+    }
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Integer> rebuildSearchIndex(@RequestHeader("X-User-Roles") String userRoles) {
+        if (!Arrays.asList(userRoles.split(",")).contains("ADMIN")) {
+            throw new CourseException.UnauthorizedAccessException("Only ADMIN can rebuild the search index");
+        }
+        return ResponseEntity.ok(courseService.rebuildSearchIndex());
     }
 
     @GetMapping("/category/{categoryName}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByCategoryName(@PathVariable String categoryName) {
-        return ResponseEntity.ok(courseQueryService.getCoursesByCategoryName(categoryName));
+    public ResponseEntity<CursorPageDto<CourseResponseDto>> getCoursesByCategoryName(
+            @PathVariable String categoryName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseQueryService.getCoursesByCategoryName(categoryName, cursor, size));
     }
 
     @GetMapping("/{courseId}/total-lessons")
@@ -78,7 +128,10 @@ public class CourseController {
     }
 
     @GetMapping("/instructor/{instructorId}")
-    public ResponseEntity<List<CourseResponseDto>> getCoursesByInstructorId(@PathVariable UUID instructorId) {
-        return ResponseEntity.ok(courseQueryService.getCoursesByInstructorId(instructorId));
+    public ResponseEntity<CursorPageDto<CourseResponseDto>> getCoursesByInstructorId(
+            @PathVariable UUID instructorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseQueryService.getCoursesByInstructorId(instructorId, cursor, size));
     }
 }
@@ -0,0 +1,60 @@
+package com.se347.courseservice.domains;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Chạy một thao tác ghi trong transaction riêng, chạy lại khi thua kiểm tra version của Course
+ * (OptimisticLockingFailureException lúc commit): lần sau đọc lại trạng thái đã commit nên không mất cập nhật
+ *
+ * Đang ở trong một transaction thì chỉ chạy một lần: lỗi đã đánh dấu transaction đó rollback-only
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${courseservice.write.max-attempts:8}") int maxAttempts) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        return execute(work, OptimisticRetry::isVersionConflict);
+    }
+
+    /**
+     * Như execute(work) nhưng chỉ chạy lại khi lỗi thỏa retryable; lỗi khác ném ra ngay
+     */
+    public <T> T execute(Supplier<T> work, Predicate<RuntimeException> retryable) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !retryable.test(e)) {
+                    throw e;
+                }
+                log.debug("Write conflict on attempt {}, retrying: {}", attempt, e.getMessage());
+            }
+        }
+    }
+
+    public static boolean isVersionConflict(RuntimeException e) {
+        return e instanceof OptimisticLockingFailureException;
+    }
+}
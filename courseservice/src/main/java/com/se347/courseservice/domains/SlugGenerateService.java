@@ -1,99 +1,172 @@
 package com.se347.courseservice.domains;
 
 import com.se347.courseservice.utils.SlugUtil;
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.Lesson;
+import com.se347.courseservice.entities.Section;
 import com.se347.courseservice.repositories.CourseRepository;
 import com.se347.courseservice.repositories.SectionRepository;
 import com.se347.courseservice.repositories.LessonRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import lombok.RequiredArgsConstructor;
-
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Cấp slug cho course, section và lesson
+ *
+ * Slug là base slug của tiêu đề, hoặc base-N với N lớn hơn hậu tố số lớn nhất đang dùng một đơn vị
+ * (một truy vấn có index cho mỗi lần cấp). Hai lần tạo đồng thời vẫn có thể chọn cùng slug: unique key
+ * của cột slug chặn insert thứ hai và withSlugRetry chạy lại cả thao tác tạo trong transaction mới,
+ * lúc đó đã thấy slug vừa commit. Chỉ vi phạm các unique key slug mới được chạy lại (isSlugConflict);
+ * NOT NULL, khóa ngoại hay xung đột version ném ra ngay
+ */
 @Service
-@RequiredArgsConstructor
 public class SlugGenerateService {
 
+    private static final int MAX_BASE_LENGTH = 200;
+
+    /** Tên unique key của các cột slug (khai báo trong @Table của Course, Section, Lesson) */
+    private static final List<String> SLUG_KEYS = List.of(Course.SLUG_KEY, Section.SLUG_KEY, Lesson.SLUG_KEY);
+
+    /** MySQL ER_DUP_ENTRY (SQLState 23000 dùng chung cho cả NOT NULL, khóa ngoại) */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    /** SQLState unique violation chuẩn (H2, PostgreSQL) */
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final CourseRepository courseRepository;
     private final SectionRepository sectionRepository;
     private final LessonRepository lessonRepository;
+    private final OptimisticRetry optimisticRetry;
+
+    public SlugGenerateService(CourseRepository courseRepository,
+                               SectionRepository sectionRepository,
+                               LessonRepository lessonRepository,
+                               OptimisticRetry optimisticRetry) {
+        this.courseRepository = courseRepository;
+        this.sectionRepository = sectionRepository;
+        this.lessonRepository = lessonRepository;
+        this.optimisticRetry = optimisticRetry;
+    }
+
+    public String generateCourseSlug(String input) {
+        return allocate(baseSlug(input, "course"), courseRepository::findMaxSlugSuffix);
+    }
+
+    public String generateSectionSlug(String input) {
+        return allocate(baseSlug(input, "section"), sectionRepository::findMaxSlugSuffix);
+    }
 
-    private final Random random = new Random();
+    public String generateLessonSlug(String input) {
+        return allocate(baseSlug(input, "lesson"), lessonRepository::findMaxSlugSuffix);
+    }
 
     /**
-     * Generate random alphabetic string
-     * @param length length of random string
-     * @return random string containing only letters (a-z, A-Z)
+     * Slug cho cả lô section mới (bulk import), theo thứ tự đầu vào
      */
-    private String generateRandomString(int length) {
-        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
-        }
-        return sb.toString();
+    public List<String> generateSectionSlugs(List<String> inputs) {
+        return allocateAll(inputs, "section", sectionRepository::findMaxSlugSuffixes);
     }
 
-    public String generateCourseSlug(String input) {
-        String baseSlug = SlugUtil.toSlug(input);
-        if (baseSlug.isEmpty()) {
-            baseSlug = "course";
+    /**
+     * Slug cho cả lô lesson mới (bulk import), theo thứ tự đầu vào
+     */
+    public List<String> generateLessonSlugs(List<String> inputs) {
+        return allocateAll(inputs, "lesson", lessonRepository::findMaxSlugSuffixes);
+    }
+
+    /**
+     * Chạy một thao tác tạo có cấp slug trong transaction riêng, chạy lại khi insert thua cuộc đua slug
+     * (vi phạm unique key slug lúc commit). Đang ở trong transaction thì chỉ chạy một lần
+     */
+    public <T> T withSlugRetry(Supplier<T> work) {
+        return optimisticRetry.execute(work, SlugGenerateService::isSlugConflict);
+    }
+
+    /**
+     * Lỗi là vi phạm unique key của một cột slug: tên constraint Hibernate tách từ thông báo của DB
+     * (MySQL: "courses.uk_courses_course_slug", H2: "public.uk_courses_course_slug_index_1")
+     * kèm mã lỗi duplicate key, không chỉ SQLState 23000
+     */
+    public static boolean isSlugConflict(RuntimeException e) {
+        if (!(e instanceof DataIntegrityViolationException)) {
+            return false;
         }
-        
-        String candidateSlug = baseSlug;
-        int maxRetries = 100; // Prevent infinite loop
-        int retryCount = 0;
-        
-        while (courseRepository.findByCourseSlug(candidateSlug).isPresent()) {
-            if (retryCount >= maxRetries) {
-                throw new IllegalStateException("Unable to generate unique course slug after " + maxRetries + " attempts");
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return isUniqueViolation(violation) && isSlugKey(violation.getConstraintName());
             }
-            candidateSlug = baseSlug + "-" + generateRandomString(4);
-            retryCount++;
         }
-        
-        return candidateSlug;
+        return false;
     }
 
-    public String generateSectionSlug(String input) {
-        String baseSlug = SlugUtil.toSlug(input);
-        if (baseSlug.isEmpty()) {
-            baseSlug = "section";
+    private static boolean isUniqueViolation(ConstraintViolationException violation) {
+        return violation.getErrorCode() == MYSQL_DUPLICATE_ENTRY || UNIQUE_VIOLATION.equals(violation.getSQLState());
+    }
+
+    private static boolean isSlugKey(String constraintName) {
+        if (constraintName == null) {
+            return false;
         }
-        
-        String candidateSlug = baseSlug;
-        int maxRetries = 100; // Prevent infinite loop
-        int retryCount = 0;
-        
-        while (sectionRepository.findBySectionSlug(candidateSlug).isPresent()) {
-            if (retryCount >= maxRetries) {
-                throw new IllegalStateException("Unable to generate unique section slug after " + maxRetries + " attempts");
+        String name = constraintName.toLowerCase(Locale.ROOT);
+        return SLUG_KEYS.stream().anyMatch(name::contains);
+    }
+
+    private static String allocate(String baseSlug, Function<String, Long> maxSuffix) {
+        Long highest = maxSuffix.apply(baseSlug);
+        return highest == null ? baseSlug : baseSlug + "-" + (highest + 1);
+    }
+
+    /**
+     * Một truy vấn theo tập trả về hậu tố lớn nhất của mọi base đã dùng (findMaxSlugSuffixes);
+     * base còn trống dùng nguyên, base đã dùng hoặc lặp lại thì đếm tiếp trong bộ nhớ từ đó
+     */
+    private static List<String> allocateAll(List<String> inputs,
+                                            String fallback,
+                                            Function<Collection<String>, Map<String, Long>> maxSuffixes) {
+        List<String> bases = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            bases.add(baseSlug(input, fallback));
+        }
+        Map<String, Long> highest = bases.isEmpty() ? Map.of() : maxSuffixes.apply(bases);
+
+        Set<String> claimed = new HashSet<>();
+        Map<String, Long> nextSuffix = new HashMap<>();
+        List<String> slugs = new ArrayList<>(bases.size());
+        for (String base : bases) {
+            String slug = base;
+            if (highest.containsKey(base) || claimed.contains(base)) {
+                long next = nextSuffix.getOrDefault(base, highest.getOrDefault(base, 1L) + 1);
+                slug = base + "-" + next;
+                while (claimed.contains(slug)) {
+                    slug = base + "-" + (++next);
+                }
+                nextSuffix.put(base, next + 1);
             }
-            candidateSlug = baseSlug + "-" + generateRandomString(4);
-            retryCount++;
+            claimed.add(slug);
+            slugs.add(slug);
         }
-        
-        return candidateSlug;
+        return slugs;
     }
 
-    public String generateLessonSlug(String input) {
-        String baseSlug = SlugUtil.toSlug(input);
-        if (baseSlug.isEmpty()) {
-            baseSlug = "lesson";
-        }
-        
-        String candidateSlug = baseSlug;
-        int maxRetries = 100; // Prevent infinite loop
-        int retryCount = 0;
-        
-        while (lessonRepository.findByLessonSlug(candidateSlug).isPresent()) {
-            if (retryCount >= maxRetries) {
-                throw new IllegalStateException("Unable to generate unique lesson slug after " + maxRetries + " attempts");
+    private static String baseSlug(String input, String fallback) {
+        String slug = SlugUtil.toSlug(input);
+        if (slug.length() > MAX_BASE_LENGTH) {
+            slug = slug.substring(0, MAX_BASE_LENGTH);
+            while (slug.endsWith("-")) {
+                slug = slug.substring(0, slug.length() - 1);
             }
-            candidateSlug = baseSlug + "-" + generateRandomString(4);
-            retryCount++;
         }
-        
-        return candidateSlug;
+        return slug.isEmpty() ? fallback : slug;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.se347.courseservice.domains.events;
+
+import lombok.Value;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A custom category was created or renamed (category listings and course pages change)
+ */
+@Value
+public class CategoryChangedEvent implements DomainEvent {
+    UUID eventId;
+    String categoryName;
+    LocalDateTime occurredAt;
+
+    public static CategoryChangedEvent from(String categoryName) {
+        return new CategoryChangedEvent(
+            UUID.randomUUID(),
+            categoryName,
+            LocalDateTime.now()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package com.se347.courseservice.domains.events;
+
+import lombok.Value;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event fired once when a whole course (sections, lessons, contents) is imported in one transaction
+ *
+ * Replaces the per-child SectionAddedToCourse / LessonAddedToSection / CourseLessonChanged events
+ * of the step-by-step API; listeners fan it out as CourseCreated + set total lessons
+ */
+@Value
+public class CourseImportedEvent implements DomainEvent {
+    UUID eventId;
+    UUID courseId;
+    String courseTitle;
+    String courseSlug;
+    UUID instructorId;
+    BigDecimal price;
+    String categoryName;
+    int totalSections;
+    int totalLessons;
+    LocalDateTime occurredAt;
+
+    public static CourseImportedEvent from(
+        UUID courseId,
+        String courseTitle,
+        String courseSlug,
+        UUID instructorId,
+        BigDecimal price,
+        String categoryName,
+        int totalSections,
+        int totalLessons
+    ) {
+        return new CourseImportedEvent(
+            UUID.randomUUID(),
+            courseId,
+            courseTitle,
+            courseSlug,
+            instructorId,
+            price,
+            categoryName,
+            totalSections,
+            totalLessons,
+            LocalDateTime.now()
+        );
+    }
+
+    public CourseCreatedEvent toCourseCreatedEvent() {
+        return CourseCreatedEvent.from(courseId, courseTitle, courseSlug, instructorId, price, categoryName);
+    }
+
+    public CourseLessonChangedEvent toCourseLessonChangedEvent() {
+        return CourseLessonChangedEvent.from(courseId, totalLessons);
+    }
+}
@@ -7,18 +7,21 @@ import java.util.UUID;
 @Value
 public class LessonAddedToSectionEvent implements DomainEvent {
     UUID eventId;
+    UUID courseId;
     UUID sectionId;
     UUID lessonId;
     String lessonTitle;
     LocalDateTime occurredAt;
     
     public static LessonAddedToSectionEvent from(
+        UUID courseId,
         UUID sectionId,
         UUID lessonId,
         String lessonTitle
     ) {
         return new LessonAddedToSectionEvent(
             UUID.randomUUID(),
+            courseId,
             sectionId,
             lessonId,
             lessonTitle,
@@ -0,0 +1,18 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseImportLessonDto {
+    private String title;
+    private int orderIndex;
+    private List<ContentMetadataRequestDto> contents;
+}
@@ -0,0 +1,26 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import java.math.BigDecimal;
+import java.util.List;
+import com.se347.courseservice.enums.CourseLevel;
+
+/**
+ * Whole curriculum document for POST /api/courses/import (course, sections, lessons, contents)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseImportRequestDto {
+    private String title;
+    private String description;
+    private String thumbnailUrl;
+    private BigDecimal price;
+    private CourseLevel level;
+    private String categoryName;
+    private List<CourseImportSectionDto> sections;
+}
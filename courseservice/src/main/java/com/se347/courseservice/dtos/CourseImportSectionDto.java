@@ -0,0 +1,19 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CourseImportSectionDto {
+    private String title;
+    private String description;
+    private int orderIndex;
+    private List<CourseImportLessonDto> lessons;
+}
@@ -0,0 +1,21 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurriculumLessonDto {
+    private UUID lessonId;
+    private String lessonSlug;
+    private String title;
+    private int orderIndex;
+    private List<ContentMetadataResponseDto> contents;
+}
@@ -0,0 +1,17 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurriculumResponseDto {
+    private CourseResponseDto course;
+    private List<CurriculumSectionDto> sections;
+}
@@ -0,0 +1,22 @@
+package com.se347.courseservice.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurriculumSectionDto {
+    private UUID sectionId;
+    private String sectionSlug;
+    private String title;
+    private String description;
+    private int orderIndex;
+    private List<CurriculumLessonDto> lessons;
+}
@@ -5,11 +5,14 @@ import com.se347.courseservice.entities.valueobjects.Money;
 import com.se347.courseservice.domains.events.CourseCreatedEvent;
 import com.se347.courseservice.domains.events.CourseUpdatedEvent;
 import com.se347.courseservice.domains.events.SectionAddedToCourseEvent;
+import com.se347.courseservice.domains.events.LessonAddedToSectionEvent;
 import com.se347.courseservice.domains.events.CourseLessonChangedEvent;
+import com.se347.courseservice.domains.events.CourseImportedEvent;
 import com.se347.courseservice.exceptions.CourseException;
 import com.se347.courseservice.exceptions.SectionException;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import lombok.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -19,13 +22,25 @@ import java.util.Collections;
 
 @Getter
 @Entity
-@Table(name = "courses")
+@Table(name = "courses",
+    uniqueConstraints = @UniqueConstraint(name = Course.SLUG_KEY, columnNames = "course_slug"),
+    indexes = {
+    // Keyset pagination: (createdAt DESC, courseId DESC), optionally filtered by category/instructor
+    @Index(name = "idx_courses_created_id", columnList = "created_at DESC, course_id DESC"),
+    @Index(name = "idx_courses_category_created_id", columnList = "category_name, created_at DESC, course_id DESC"),
+    @Index(name = "idx_courses_instructor_created_id", columnList = "instructor_id, created_at DESC, course_id DESC"),
+    // Counter repair job: only courses updated since its previous run
+    @Index(name = "idx_courses_updated_at", columnList = "updated_at")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
-public class Course extends AbstractAggregateRoot<Course> {
+public class Course extends AbstractAggregateRoot<Course> implements Persistable<UUID> {
+
+    /** Unique key of the slug column, named so a lost slug race can be told apart (SlugGenerateService.isSlugConflict) */
+    public static final String SLUG_KEY = "uk_courses_course_slug";
     @Id
     private UUID courseId;
 
-    @Column(name = "course_slug", unique = true, nullable = false)
+    @Column(name = "course_slug", nullable = false)
     private String courseSlug;
 
     @Column(nullable = false)
@@ -56,12 +71,43 @@ public class Course extends AbstractAggregateRoot<Course> {
     @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Section> sections;
 
+    /**
+     * Denormalized counters, maintained only by this aggregate's mutators
+     * (readable without loading sections/lessons). Every counter change updates the course row,
+     * so the version check rejects a concurrent writer that started from the same counters;
+     * CourseCounterRepairScheduler backfills them at startup and fixes any remaining drift
+     */
+    @Column(name = "total_sections", nullable = false)
+    private int totalSections;
+
+    @Column(name = "total_lessons", nullable = false)
+    private int totalLessons;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false, updatable = true)
     private LocalDateTime updatedAt;
 
+    /**
+     * Set by the factories: save() then persists (cascading to sections/lessons/contents)
+     * instead of merging, so client-assigned ids cost no SELECT before the INSERT
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean newAggregate;
+
+    /**
+     * Bulk import in progress: child events are folded into one CourseImportedEvent (completeImport)
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean importing;
+
     /**
      * Factory method to create a new Course
      * 
@@ -81,6 +127,50 @@ public class Course extends AbstractAggregateRoot<Course> {
         CourseLevel level,
         String categoryName,
         UUID instructorId
+    ) {
+        Course course = instantiate(title, description, courseSlug, thumbnailUrl, price, level, categoryName, instructorId);
+        
+        // Register domain event
+        course.registerEvent(CourseCreatedEvent.from(
+            course.courseId,
+            course.title,
+            course.courseSlug,
+            course.instructorId,
+            course.price.getAmount(),
+            course.categoryName
+        ));
+        
+        return course;
+    }
+
+    /**
+     * Factory method for bulk import: same rules as createNew, but sections, lessons and contents
+     * added afterwards register no events of their own until completeImport()
+     */
+    public static Course importNew(
+        String title,
+        String description,
+        String courseSlug,
+        String thumbnailUrl,
+        Money price,
+        CourseLevel level,
+        String categoryName,
+        UUID instructorId
+    ) {
+        Course course = instantiate(title, description, courseSlug, thumbnailUrl, price, level, categoryName, instructorId);
+        course.importing = true;
+        return course;
+    }
+
+    private static Course instantiate(
+        String title,
+        String description,
+        String courseSlug,
+        String thumbnailUrl,
+        Money price,
+        CourseLevel level,
+        String categoryName,
+        UUID instructorId
     ) {
         // Validation (Guards)
         guardAgainstNullOrEmpty(title, "Title");
@@ -102,22 +192,37 @@ public class Course extends AbstractAggregateRoot<Course> {
         course.categoryName = categoryName;
         course.instructorId = instructorId;
         course.sections = new ArrayList<>();
+        course.totalSections = 0;
+        course.totalLessons = 0;
         course.createdAt = LocalDateTime.now();
         course.updatedAt = LocalDateTime.now();
-        
-        // Register domain event
-        course.registerEvent(CourseCreatedEvent.from(
-            course.courseId,
-            course.title,
-            course.courseSlug,
-            course.instructorId,
-            course.price.getAmount(),
-            course.categoryName
-        ));
+        course.newAggregate = true;
         
         return course;
     }
 
+    /**
+     * Finish a bulk import started with importNew
+     *
+     * Fires: CourseImportedEvent (one event for the whole curriculum)
+     */
+    public void completeImport() {
+        if (!this.importing) {
+            throw new CourseException.CourseInvariantViolationException("Course " + this.courseId + " is not being imported");
+        }
+        this.importing = false;
+        registerEvent(CourseImportedEvent.from(
+            this.courseId,
+            this.title,
+            this.courseSlug,
+            this.instructorId,
+            this.price.getAmount(),
+            this.categoryName,
+            this.totalSections,
+            this.totalLessons
+        ));
+    }
+
     /**
      * Update course details
      * 
@@ -174,10 +279,11 @@ public class Course extends AbstractAggregateRoot<Course> {
         // Create section through aggregate
         Section section = Section.createNew(title, description, sectionSlug, orderIndex, this);
         this.sections.add(section);
+        this.totalSections++;
         this.updatedAt = LocalDateTime.now();
         
         // Register event
-        registerEvent(SectionAddedToCourseEvent.from(
+        registerChildEvent(SectionAddedToCourseEvent.from(
             this.courseId,
             section.getSectionId(),
             section.getTitle()
@@ -196,8 +302,10 @@ public class Course extends AbstractAggregateRoot<Course> {
             .orElseThrow(() -> new SectionException.SectionNotFoundException(sectionId.toString()));
         
         this.sections.remove(section);
+        this.totalSections = Math.max(0, this.totalSections - 1);
+        this.totalLessons = Math.max(0, this.totalLessons - section.getLessons().size());
         this.updatedAt = LocalDateTime.now();
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
     }
 
     /**
@@ -206,14 +314,14 @@ public class Course extends AbstractAggregateRoot<Course> {
     public Section updateSectionById(UUID sectionId, String title, String description, int orderIndex) {
         Section section = findSectionById(sectionId);
         section.updateDetails(title, description, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return section;
     }
 
     public Section updateSectionBySectionSlug(String sectionSlug, String title, String description, int orderIndex) {
         Section section = findSectionBySectionSlug(sectionSlug);
         section.updateDetails(title, description, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return section;
     }
 
@@ -253,27 +361,32 @@ public class Course extends AbstractAggregateRoot<Course> {
     ) {
         Section section = findSectionById(sectionId);
         Lesson lesson = section.addLesson(title, lessonSlug, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        this.totalLessons++;
+        this.updatedAt = LocalDateTime.now();
+        registerChildEvent(LessonAddedToSectionEvent.from(this.courseId, sectionId, lesson.getLessonId(), lesson.getTitle()));
+        registerChildEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return lesson;
     }
     
     public void removeLessonFromSection(UUID sectionId, UUID lessonId) {
         Section section = findSectionById(sectionId);
         section.removeLesson(lessonId);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        this.totalLessons = Math.max(0, this.totalLessons - 1);
+        this.updatedAt = LocalDateTime.now();
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
     }
 
     public Lesson updateLessonInSection(UUID sectionId, UUID lessonId, String title, int orderIndex) {
         Section section = findSectionById(sectionId);
         Lesson lesson = section.updateLessonInSection(lessonId, title, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return lesson;
     }
 
     public Lesson updateLessonInSectionSlug(String sectionSlug, String lessonSlug, String title, int orderIndex) {
         Section section = findSectionBySectionSlug(sectionSlug);
         Lesson lesson = section.updateLessonInSectionSlug(lessonSlug, title, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return lesson;
     }
 
@@ -281,7 +394,7 @@ public class Course extends AbstractAggregateRoot<Course> {
         Section section = findSectionById(sectionId);
         Lesson lesson = section.findLessonById(lessonId);
         Content content = lesson.addContent(contentUrl, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerChildEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return content;
     }
 
@@ -289,7 +402,7 @@ public class Course extends AbstractAggregateRoot<Course> {
         Section section = findSectionById(sectionId);
         Lesson lesson = section.findLessonById(lessonId);
         Content content = lesson.updateContent(contentId, contentUrl, orderIndex);
-        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.getTotalLessonsCount()));
+        registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
         return content;
     }
 
@@ -321,17 +434,34 @@ public class Course extends AbstractAggregateRoot<Course> {
      * Check if course has minimum content to be published
      */
     public boolean hasMinimumContent() {
-        return !this.sections.isEmpty() 
-            && this.sections.stream().anyMatch(s -> !s.getLessons().isEmpty());
+        return this.totalSections > 0 && this.totalLessons > 0;
     }
 
     /**
-     * Calculate total number of lessons in course
+     * Total number of lessons in course (denormalized counter, does not load sections)
      */
     public int getTotalLessonsCount() {
-        return this.sections.stream()
-            .mapToInt(s -> s.getLessons().size())
-            .sum();
+        return this.totalLessons;
+    }
+
+    /**
+     * Reset counters to the actual number of sections/lessons (counted by the repair job)
+     *
+     * Fires: CourseLessonChangedEvent if the lesson count changed
+     *
+     * @return true if the counters had drifted
+     */
+    public boolean reconcileCounters(int actualSections, int actualLessons) {
+        if (this.totalSections == actualSections && this.totalLessons == actualLessons) {
+            return false;
+        }
+        boolean lessonsChanged = this.totalLessons != actualLessons;
+        this.totalSections = actualSections;
+        this.totalLessons = actualLessons;
+        if (lessonsChanged) {
+            registerEvent(CourseLessonChangedEvent.from(this.courseId, this.totalLessons));
+        }
+        return true;
     }
 
     /**
@@ -352,6 +482,33 @@ public class Course extends AbstractAggregateRoot<Course> {
         return this.price.isZero();
     }
 
+    // ========== PERSISTABLE ==========
+
+    @Override
+    public UUID getId() {
+        return this.courseId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return this.newAggregate;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.newAggregate = false;
+    }
+
+    /**
+     * Child events are suppressed while importing (CourseImportedEvent covers them)
+     */
+    private void registerChildEvent(Object event) {
+        if (!this.importing) {
+            registerEvent(event);
+        }
+    }
+
     // ========== PRIVATE GUARD METHODS ==========
 
     /**
@@ -13,15 +13,19 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons",
+    uniqueConstraints = @UniqueConstraint(name = Lesson.SLUG_KEY, columnNames = "lesson_slug"))
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Lesson {
+
+    /** Name of the slug unique key, see Course.SLUG_KEY */
+    public static final String SLUG_KEY = "uk_lessons_lesson_slug";
     
     @Id
     private UUID lessonId;
 
-    @Column(name = "lesson_slug", unique = true, nullable = false)
+    @Column(name = "lesson_slug", nullable = false)
     private String lessonSlug;
 
     @Column(nullable = false)
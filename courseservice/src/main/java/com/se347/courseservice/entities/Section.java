@@ -13,15 +13,19 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sections")
+@Table(name = "sections",
+    uniqueConstraints = @UniqueConstraint(name = Section.SLUG_KEY, columnNames = "section_slug"))
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Section {
+
+    /** Name of the slug unique key, see Course.SLUG_KEY */
+    public static final String SLUG_KEY = "uk_sections_section_slug";
     
     @Id
     private UUID sectionId;
     
-    @Column(name = "section_slug", unique = true, nullable = false)
+    @Column(name = "section_slug", nullable = false)
     private String sectionSlug;
     
     @Column(nullable = false)
@@ -1,11 +1,19 @@
 package com.se347.courseservice.listeners;
 
+import com.se347.courseservice.domains.events.CategoryChangedEvent;
 import com.se347.courseservice.domains.events.CourseCreatedEvent;
+import com.se347.courseservice.domains.events.CourseImportedEvent;
 import com.se347.courseservice.domains.events.CourseUpdatedEvent;
 import com.se347.courseservice.domains.events.CourseLessonChangedEvent;
+import com.se347.courseservice.domains.events.LessonAddedToSectionEvent;
+import com.se347.courseservice.domains.events.SectionAddedToCourseEvent;
 
 public interface CourseEventListener {
     void handleCourseCreatedEvent(CourseCreatedEvent courseCreatedEvent);
+    void handleCourseImportedEvent(CourseImportedEvent courseImportedEvent);
     void handleCourseUpdatedEvent(CourseUpdatedEvent courseUpdatedEvent);
     void handleCourseLessonChangedEvent(CourseLessonChangedEvent courseLessonChangedEvent);
+    void handleSectionAddedToCourseEvent(SectionAddedToCourseEvent sectionAddedToCourseEvent);
+    void handleLessonAddedToSectionEvent(LessonAddedToSectionEvent lessonAddedToSectionEvent);
+    void handleCategoryChangedEvent(CategoryChangedEvent categoryChangedEvent);
 }
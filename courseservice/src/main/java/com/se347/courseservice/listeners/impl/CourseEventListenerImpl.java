@@ -1,10 +1,16 @@
 package com.se347.courseservice.listeners.impl;
 
 import com.se347.courseservice.listeners.CourseEventListener;
+import com.se347.courseservice.domains.events.CategoryChangedEvent;
 import com.se347.courseservice.domains.events.CourseCreatedEvent;
+import com.se347.courseservice.domains.events.CourseImportedEvent;
 import com.se347.courseservice.domains.events.CourseUpdatedEvent;
 import com.se347.courseservice.domains.events.CourseLessonChangedEvent;
+import com.se347.courseservice.domains.events.LessonAddedToSectionEvent;
+import com.se347.courseservice.domains.events.SectionAddedToCourseEvent;
+import com.se347.courseservice.caches.CourseReadCache;
 import com.se347.courseservice.publishers.CoursePublisher;
+import com.se347.courseservice.search.CourseSearchIndexer;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,18 +24,53 @@ import org.springframework.transaction.event.TransactionalEventListener;
 public class CourseEventListenerImpl implements CourseEventListener {
     
     private final CoursePublisher coursePublisher;
+    private final CourseReadCache courseReadCache;
+    private final CourseSearchIndexer courseSearchIndexer;
 
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleCourseCreatedEvent(CourseCreatedEvent courseCreatedEvent) {
+        courseSearchIndexer.reindex(courseCreatedEvent.getCourseId());
         coursePublisher.publishCourseCreatedEvent(courseCreatedEvent);
     }
     
+    // Import cả course trong một transaction: một event thay cho created + từng section/lesson
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleCourseImportedEvent(CourseImportedEvent event) {
+        courseSearchIndexer.reindex(event.getCourseId());
+        coursePublisher.publishCourseCreatedEvent(event.toCourseCreatedEvent());
+        coursePublisher.publishSetTotalLessonsEvent(event.toCourseLessonChangedEvent());
+    }
+    
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleCourseUpdatedEvent(CourseUpdatedEvent courseUpdatedEvent) {
+        courseReadCache.invalidate(courseUpdatedEvent.getCourseId());
+        courseSearchIndexer.reindex(courseUpdatedEvent.getCourseId());
+        coursePublisher.publishCourseUpdatedEvent(courseUpdatedEvent);
     }
 
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handleCourseLessonChangedEvent(CourseLessonChangedEvent event) {
+        courseReadCache.invalidate(event.getCourseId());
         coursePublisher.publishSetTotalLessonsEvent(event);
+        coursePublisher.publishCourseUpdatedEvent(event);
+    }
+
+    // Thêm section đổi updatedAt/totalSections của course: xoá cache đọc và báo Gateway xoá response cache
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleSectionAddedToCourseEvent(SectionAddedToCourseEvent event) {
+        courseReadCache.invalidate(event.getCourseId());
+        coursePublisher.publishCourseUpdatedEvent(event);
+    }
+
+    // Thêm lesson luôn đi kèm CourseLessonChangedEvent (đã publish course-updated)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleLessonAddedToSectionEvent(LessonAddedToSectionEvent event) {
+        courseReadCache.invalidate(event.getCourseId());
+    }
+
+    // Category không được ghi trong transaction: fallbackExecution để vẫn chạy sau khi save
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleCategoryChangedEvent(CategoryChangedEvent event) {
+        coursePublisher.publishCourseUpdatedEvent(event);
     }
 }
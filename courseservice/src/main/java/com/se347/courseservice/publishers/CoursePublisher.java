@@ -2,8 +2,10 @@ package com.se347.courseservice.publishers;
 
 import com.se347.courseservice.domains.events.CourseLessonChangedEvent;
 import com.se347.courseservice.domains.events.CourseCreatedEvent;
+import com.se347.courseservice.domains.events.DomainEvent;
 
 public interface CoursePublisher {
     void publishSetTotalLessonsEvent(CourseLessonChangedEvent event);
     void publishCourseCreatedEvent(CourseCreatedEvent event);
+    void publishCourseUpdatedEvent(DomainEvent event);
 }
@@ -3,6 +3,7 @@ package com.se347.courseservice.publishers.impl;
 import com.se347.courseservice.publishers.CoursePublisher;
 import com.se347.courseservice.domains.events.CourseLessonChangedEvent;
 import com.se347.courseservice.domains.events.CourseCreatedEvent;
+import com.se347.courseservice.domains.events.DomainEvent;
 
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,6 +30,9 @@ public class CoursePublisherImpl implements CoursePublisher {
     @Value("${app.rabbitmq.routing-key.course-created}")
     private String courseCreatedRoutingKey;
 
+    @Value("${app.rabbitmq.routing-key.course-updated}")
+    private String courseUpdatedRoutingKey;
+
     @Value("${app.rabbitmq.routing-key.set-total-lessons}")
     private String setTotalLessonsRoutingKey;
 
@@ -47,4 +51,12 @@ public class CoursePublisherImpl implements CoursePublisher {
                                     courseCreatedRoutingKey, 
                                     event);
     }
+
+    @Override
+    public void publishCourseUpdatedEvent(DomainEvent event) {
+        logger.info("[Course -> Gateway] Publishing course updated event: {}", event);
+        rabbitTemplate.convertAndSend(courseExchangeName, 
+                                    courseUpdatedRoutingKey, 
+                                    event);
+    }
 }
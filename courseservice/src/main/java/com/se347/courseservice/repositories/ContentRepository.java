@@ -1,9 +1,12 @@
 package com.se347.courseservice.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.se347.courseservice.entities.Content;
+import com.se347.courseservice.repositories.projections.ContentRow;
 
 import java.util.List;
 import java.util.UUID;
@@ -12,4 +15,13 @@ import java.util.UUID;
 public interface ContentRepository extends JpaRepository<Content, UUID> {
     List<Content> findByContentId(UUID contentId);
     List<Content> findByLesson_LessonId(UUID lessonId);
+
+    /**
+     * Tất cả content của mọi lesson trong course, một câu SELECT (curriculum tree)
+     */
+    @Query("SELECT new com.se347.courseservice.repositories.projections.ContentRow(" +
+           "c.contentId, l.lessonId, c.contentUrl, c.orderIndex.value, c.createdAt, c.updatedAt) " +
+           "FROM Content c JOIN c.lesson l JOIN l.section s WHERE s.course.courseId = :courseId " +
+           "ORDER BY c.orderIndex.value, c.createdAt")
+    List<ContentRow> findCurriculumContents(@Param("courseId") UUID courseId);
 }
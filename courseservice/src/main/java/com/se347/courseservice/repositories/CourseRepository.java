@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.repositories.projections.CourseCounterRow;
+import java.time.LocalDateTime;
 import java.util.UUID;
 import java.util.List;
 import java.util.Optional;
@@ -17,9 +19,6 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
     // ========== BASIC QUERIES ==========
     
     Optional<Course> findById(UUID courseId);
-    List<Course> findByCategoryName(String categoryName);
-    List<Course> findByInstructorId(UUID instructorId);
-    List<Course> findByTitleContaining(String title);
     
     /**
      * Find course by exact title
@@ -36,6 +35,17 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
     boolean existsByTitle(String title);
     boolean existsById(UUID courseId);
     
+    /**
+     * Highest numeric suffix in use for a base slug (the base itself counts as 1), null if unused.
+     * One range scan on the unique slug index (MySQL REGEXP); suffixes over 9 digits are not counted, so N cannot overflow
+     */
+    @Query(value = "SELECT MAX(CASE WHEN course_slug = :base THEN 1 " +
+                   "ELSE CAST(SUBSTRING(course_slug, CHAR_LENGTH(:base) + 2) AS SIGNED) END) " +
+                   "FROM courses WHERE course_slug = :base " +
+                   "OR (course_slug LIKE CONCAT(:base, '-%') " +
+                   "AND SUBSTRING(course_slug, CHAR_LENGTH(:base) + 2) REGEXP '^[0-9]{1,9}$')", nativeQuery = true)
+    Long findMaxSlugSuffix(@Param("base") String base);
+
     // ========== DOMAIN-SPECIFIC QUERIES ==========
     
     /**
@@ -61,4 +71,78 @@ public interface CourseRepository extends JpaRepository<Course, UUID> {
     @Query("SELECT c FROM Course c WHERE c.instructorId = :instructorId " +
            "ORDER BY c.createdAt DESC")
     List<Course> findByInstructorIdOrderByCreatedAtDesc(@Param("instructorId") UUID instructorId);
+
+    // ========== KEYSET PAGINATION ==========
+    // Order (createdAt DESC, courseId DESC), matching the composite indexes on Course.
+    // *After variants continue strictly after the cursor row; pass PageRequest.of(0, size + 1) as limit.
+
+    String KEYSET_AFTER = "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.courseId < :courseId)) ";
+    String KEYSET_ORDER = "ORDER BY c.createdAt DESC, c.courseId DESC";
+
+    @Query("SELECT c FROM Course c " + KEYSET_ORDER)
+    List<Course> findPage(Pageable limit);
+
+    @Query("SELECT c FROM Course c WHERE " + KEYSET_AFTER + KEYSET_ORDER)
+    List<Course> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                               @Param("courseId") UUID courseId,
+                               Pageable limit);
+
+    @Query("SELECT c FROM Course c WHERE c.categoryName = :categoryName " + KEYSET_ORDER)
+    List<Course> findPageByCategoryName(@Param("categoryName") String categoryName, Pageable limit);
+
+    @Query("SELECT c FROM Course c WHERE c.categoryName = :categoryName AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<Course> findPageByCategoryNameAfter(@Param("categoryName") String categoryName,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("courseId") UUID courseId,
+                                             Pageable limit);
+
+    @Query("SELECT c FROM Course c WHERE c.instructorId = :instructorId " + KEYSET_ORDER)
+    List<Course> findPageByInstructorId(@Param("instructorId") UUID instructorId, Pageable limit);
+
+    @Query("SELECT c FROM Course c WHERE c.instructorId = :instructorId AND " + KEYSET_AFTER + KEYSET_ORDER)
+    List<Course> findPageByInstructorIdAfter(@Param("instructorId") UUID instructorId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("courseId") UUID courseId,
+                                             Pageable limit);
+
+    /**
+     * Title search fallback while the in-process search index (CourseSearchIndexer) is not ready.
+     * The leading wildcard scans the whole table: acceptable only for the startup window before the
+     * first index build finishes, every search after that goes through the index
+     */
+    @Query("SELECT c FROM Course c WHERE c.title LIKE CONCAT('%', :title, '%') " + KEYSET_ORDER)
+    List<Course> findPageByTitleContaining(@Param("title") String title, Pageable limit);
+
+    // ========== DENORMALIZED COUNTERS ==========
+
+    /**
+     * Read the lesson counter without loading sections/lessons
+     */
+    @Query("SELECT c.totalLessons FROM Course c WHERE c.courseId = :courseId")
+    Optional<Integer> findTotalLessonsByCourseId(@Param("courseId") UUID courseId);
+
+    String COUNTER_ROW = "SELECT new com.se347.courseservice.repositories.projections.CourseCounterRow(" +
+           "c.courseId, c.totalSections, c.totalLessons, " +
+           "(SELECT COUNT(s) FROM Section s WHERE s.course = c), " +
+           "(SELECT COUNT(l) FROM Lesson l WHERE l.section.course = c)) FROM Course c ";
+    String COUNTER_DRIFT = "(c.totalSections <> (SELECT COUNT(s) FROM Section s WHERE s.course = c) " +
+           "OR c.totalLessons <> (SELECT COUNT(l) FROM Lesson l WHERE l.section.course = c)) ";
+
+    /**
+     * Courses updated since the given time whose counters differ from the actual number of
+     * sections/lessons, one page in courseId order: the correlated counts only run over that window
+     */
+    @Query(COUNTER_ROW + "WHERE c.updatedAt >= :since AND " + COUNTER_DRIFT + "ORDER BY c.courseId")
+    List<CourseCounterRow> findCounterDriftPage(@Param("since") LocalDateTime since, Pageable limit);
+
+    @Query(COUNTER_ROW + "WHERE c.updatedAt >= :since AND c.courseId > :courseId AND " + COUNTER_DRIFT + "ORDER BY c.courseId")
+    List<CourseCounterRow> findCounterDriftPageAfter(@Param("since") LocalDateTime since,
+                                                     @Param("courseId") UUID courseId,
+                                                     Pageable limit);
+
+    /**
+     * Counters and actual number of sections/lessons of one course
+     */
+    @Query(COUNTER_ROW + "WHERE c.courseId = :courseId")
+    Optional<CourseCounterRow> findCounterRowByCourseId(@Param("courseId") UUID courseId);
 }
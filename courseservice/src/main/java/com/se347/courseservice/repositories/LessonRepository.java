@@ -4,13 +4,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.se347.courseservice.entities.Lesson;
+import com.se347.courseservice.repositories.projections.LessonRow;
 import java.util.UUID;
 import java.util.List;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface LessonRepository extends JpaRepository<Lesson, UUID> {
+public interface LessonRepository extends JpaRepository<Lesson, UUID>, LessonRepositoryCustom {
     boolean existsBySection_SectionIdAndTitle(UUID sectionId, String title);
     List<Lesson> findBySection_SectionId(UUID sectionId);
     Optional<Lesson> findByLessonSlug(String lessonSlug);
@@ -28,4 +29,24 @@ public interface LessonRepository extends JpaRepository<Lesson, UUID> {
            "LEFT JOIN FETCH l.contents " +
            "WHERE l.lessonId = :lessonId")
     Optional<Lesson> findByIdWithContents(@Param("lessonId") UUID lessonId);
+
+    /**
+     * Tất cả lesson của mọi section trong course, một câu SELECT (curriculum tree)
+     */
+    @Query("SELECT new com.se347.courseservice.repositories.projections.LessonRow(" +
+           "l.lessonId, s.sectionId, l.lessonSlug, l.title, l.orderIndex.value) " +
+           "FROM Lesson l JOIN l.section s WHERE s.course.courseId = :courseId " +
+           "ORDER BY l.orderIndex.value, l.createdAt")
+    List<LessonRow> findCurriculumLessons(@Param("courseId") UUID courseId);
+
+    /**
+     * Highest numeric suffix in use for a base slug (the base itself counts as 1), null if unused.
+     * One range scan on the unique slug index (MySQL REGEXP); suffixes over 9 digits are not counted, so N cannot overflow
+     */
+    @Query(value = "SELECT MAX(CASE WHEN lesson_slug = :base THEN 1 " +
+                   "ELSE CAST(SUBSTRING(lesson_slug, CHAR_LENGTH(:base) + 2) AS SIGNED) END) " +
+                   "FROM lessons WHERE lesson_slug = :base " +
+                   "OR (lesson_slug LIKE CONCAT(:base, '-%') " +
+                   "AND SUBSTRING(lesson_slug, CHAR_LENGTH(:base) + 2) REGEXP '^[0-9]{1,9}$')", nativeQuery = true)
+    Long findMaxSlugSuffix(@Param("base") String base);
 }
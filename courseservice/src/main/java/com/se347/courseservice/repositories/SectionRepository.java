@@ -1,14 +1,17 @@
 package com.se347.courseservice.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.se347.courseservice.entities.Section;
+import com.se347.courseservice.repositories.projections.SectionRow;
 import java.util.UUID;
 import java.util.List;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface SectionRepository extends JpaRepository<Section, UUID> {
+public interface SectionRepository extends JpaRepository<Section, UUID>, SectionRepositoryCustom {
     Optional<List<Section>> findByCourse_CourseId(UUID courseId);
     Optional<List<Section>> findByCourse_CourseSlug(String courseSlug);
     boolean existsByCourse_CourseIdAndTitle(UUID courseId, String title);
@@ -16,4 +19,24 @@ public interface SectionRepository extends JpaRepository<Section, UUID> {
     Integer countByCourse_CourseId(UUID courseId);
     boolean existsBySectionSlug(String sectionSlug);
     boolean existsByTitle(String title);
-}
\ No newline at end of file
+
+    /**
+     * Tất cả section của course trong một câu SELECT (curriculum tree)
+     */
+    @Query("SELECT new com.se347.courseservice.repositories.projections.SectionRow(" +
+           "s.sectionId, s.sectionSlug, s.title, s.description, s.orderIndex.value) " +
+           "FROM Section s WHERE s.course.courseId = :courseId " +
+           "ORDER BY s.orderIndex.value, s.createdAt")
+    List<SectionRow> findCurriculumSections(@Param("courseId") UUID courseId);
+
+    /**
+     * Highest numeric suffix in use for a base slug (the base itself counts as 1), null if unused.
+     * One range scan on the unique slug index (MySQL REGEXP); suffixes over 9 digits are not counted, so N cannot overflow
+     */
+    @Query(value = "SELECT MAX(CASE WHEN section_slug = :base THEN 1 " +
+                   "ELSE CAST(SUBSTRING(section_slug, CHAR_LENGTH(:base) + 2) AS SIGNED) END) " +
+                   "FROM sections WHERE section_slug = :base " +
+                   "OR (section_slug LIKE CONCAT(:base, '-%') " +
+                   "AND SUBSTRING(section_slug, CHAR_LENGTH(:base) + 2) REGEXP '^[0-9]{1,9}$')", nativeQuery = true)
+    Long findMaxSlugSuffix(@Param("base") String base);
+}
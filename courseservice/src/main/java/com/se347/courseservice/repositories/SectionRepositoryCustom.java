@@ -0,0 +1,13 @@
+package com.se347.courseservice.repositories;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface SectionRepositoryCustom {
+
+    /**
+     * findMaxSlugSuffix for a whole batch of base slugs in one statement per sections chunk (bulk import):
+     * base → highest suffix in use, bases not in use are absent
+     */
+    Map<String, Long> findMaxSlugSuffixes(Collection<String> bases);
+}
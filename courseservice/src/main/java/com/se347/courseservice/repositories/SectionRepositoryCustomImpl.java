@@ -0,0 +1,18 @@
+package com.se347.courseservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.Map;
+
+public class SectionRepositoryCustomImpl implements SectionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Map<String, Long> findMaxSlugSuffixes(Collection<String> bases) {
+        return SlugSuffixQuery.findMaxSlugSuffixes(entityManager, "sections", "section_slug", bases);
+    }
+}
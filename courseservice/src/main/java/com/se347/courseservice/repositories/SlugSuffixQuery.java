@@ -0,0 +1,67 @@
+package com.se347.courseservice.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Highest numeric slug suffix for many base slugs in one statement (bulk import)
+ *
+ * Each base is one UNION ALL branch with the same condition as findMaxSlugSuffix, so every branch
+ * is a range scan on the unique slug index; branches are tagged with their position instead of
+ * echoing the base back. Up to MAX_BASES_PER_STATEMENT bases per statement.
+ */
+final class SlugSuffixQuery {
+
+    static final int MAX_BASES_PER_STATEMENT = 100;
+
+    private SlugSuffixQuery() {
+    }
+
+    /**
+     * base → highest suffix in use (the base itself counts as 1); bases not in use are absent
+     */
+    static Map<String, Long> findMaxSlugSuffixes(EntityManager entityManager, String table, String column,
+                                                 Collection<String> bases) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(bases));
+        Map<String, Long> highest = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += MAX_BASES_PER_STATEMENT) {
+            List<String> chunk = distinct.subList(from, Math.min(distinct.size(), from + MAX_BASES_PER_STATEMENT));
+            Query query = entityManager.createNativeQuery(sql(table, column, chunk.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+                query.setParameter(i + 1, chunk.get(i));
+            }
+            for (Object result : query.getResultList()) {
+                Object[] row = (Object[]) result;
+                if (row[1] != null) {
+                    highest.put(chunk.get(((Number) row[0]).intValue()), ((Number) row[1]).longValue());
+                }
+            }
+        }
+        return highest;
+    }
+
+    private static String sql(String table, String column, int bases) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < bases; i++) {
+            String base = "?" + (i + 1);
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT ").append(i).append(", MAX(CASE WHEN ").append(column).append(" = ").append(base)
+               .append(" THEN 1 ELSE CAST(SUBSTRING(").append(column).append(", CHAR_LENGTH(").append(base)
+               .append(") + 2) AS SIGNED) END) FROM ").append(table)
+               .append(" WHERE ").append(column).append(" = ").append(base)
+               .append(" OR (").append(column).append(" LIKE CONCAT(").append(base).append(", '-%')")
+               .append(" AND SUBSTRING(").append(column).append(", CHAR_LENGTH(").append(base)
+               .append(") + 2) REGEXP '^[0-9]{1,9}$')");
+        }
+        return sql.toString();
+    }
+}
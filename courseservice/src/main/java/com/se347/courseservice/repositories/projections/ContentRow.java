@@ -0,0 +1,17 @@
+package com.se347.courseservice.repositories.projections;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection một dòng content cho curriculum tree
+ */
+public record ContentRow(
+    UUID contentId,
+    UUID lessonId,
+    String contentUrl,
+    int orderIndex,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
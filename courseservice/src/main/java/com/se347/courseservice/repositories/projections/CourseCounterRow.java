@@ -0,0 +1,15 @@
+package com.se347.courseservice.repositories.projections;
+
+import java.util.UUID;
+
+/**
+ * Projection bộ đếm của course so với số section/lesson thực tế (dùng cho job sửa lệch bộ đếm)
+ */
+public record CourseCounterRow(
+    UUID courseId,
+    int totalSections,
+    int totalLessons,
+    long actualSections,
+    long actualLessons
+) {
+}
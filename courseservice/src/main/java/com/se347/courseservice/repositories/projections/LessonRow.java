@@ -0,0 +1,15 @@
+package com.se347.courseservice.repositories.projections;
+
+import java.util.UUID;
+
+/**
+ * Projection một dòng lesson cho curriculum tree
+ */
+public record LessonRow(
+    UUID lessonId,
+    UUID sectionId,
+    String lessonSlug,
+    String title,
+    int orderIndex
+) {
+}
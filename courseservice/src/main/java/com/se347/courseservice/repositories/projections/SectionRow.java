@@ -0,0 +1,15 @@
+package com.se347.courseservice.repositories.projections;
+
+import java.util.UUID;
+
+/**
+ * Projection một dòng section cho curriculum tree (không load entity, không kéo theo lessons)
+ */
+public record SectionRow(
+    UUID sectionId,
+    String sectionSlug,
+    String title,
+    String description,
+    int orderIndex
+) {
+}
@@ -0,0 +1,64 @@
+package com.se347.courseservice.schedulers;
+
+import com.se347.courseservice.services.CourseCommandService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Sửa lệch bộ đếm totalSections/totalLessons của Course so với số section/lesson thực tế
+ * (dữ liệu cũ trước khi có bộ đếm, hoặc cập nhật đồng thời cùng một course)
+ *
+ * Chạy một lần lúc khởi động, trước khi web server nhận request và service đăng ký với Eureka,
+ * để các course cũ (cột mới = 0) không bị coi là rỗng; lần này quét toàn bộ bảng theo trang.
+ * Các lần chạy định kỳ sau đó (cron) chỉ xét course có updatedAt từ lần chạy thành công trước
+ * (lùi thêm repair-overlap để bù lệch đồng hồ giữa các instance)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CourseCounterRepairScheduler implements SmartInitializingSingleton {
+
+    private final CourseCommandService courseCommandService;
+
+    @Value("${courseservice.counters.repair-on-startup:true}")
+    private boolean repairOnStartup;
+
+    @Value("${courseservice.counters.repair-overlap:PT10M}")
+    private Duration repairOverlap;
+
+    /** Thời điểm bắt đầu lần chạy thành công gần nhất; null thì lần sau quét toàn bộ */
+    private volatile LocalDateTime lastRunStartedAt;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (repairOnStartup) {
+            repairCounters();
+        }
+    }
+
+    @Scheduled(cron = "${courseservice.counters.repair-cron:0 40 3 * * ?}")
+    public void repairCounters() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = lastRunStartedAt != null ? lastRunStartedAt.minus(repairOverlap) : null;
+        log.info("Starting course counter reconciliation ({})",
+                since != null ? "courses updated since " + since : "all courses");
+
+        try {
+            int repaired = courseCommandService.reconcileCounters(since);
+            lastRunStartedAt = startedAt;
+
+            log.info("Course counter reconciliation finished, repaired {} course(s)", repaired);
+
+        } catch (Exception e) {
+            log.error("Failed to reconcile course counters", e);
+        }
+    }
+}
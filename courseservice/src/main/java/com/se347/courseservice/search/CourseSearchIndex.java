@@ -0,0 +1,359 @@
+package com.se347.courseservice.search;
+
+import com.se347.courseservice.utils.SlugUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Chỉ mục đảo ngược (inverted index) trong process cho tìm kiếm course
+ *
+ * - Token: bỏ dấu tiếng Việt bằng SlugUtil.fold rồi tách theo ký tự không phải chữ/số,
+ *   nên "lap trinh" khớp "Lập trình"
+ * - Field: title (trọng số 3), categoryName (2), description (1)
+ * - Xếp hạng BM25F: tf của các field được chuẩn hoá theo độ dài field, nhân trọng số rồi cộng lại
+ *   trước khi bão hoà (k1), nhân với idf của term
+ * - Mọi term của query phải khớp (AND); prefix = true thì term cuối khớp theo tiền tố (typeahead),
+ *   tối đa MAX_PREFIX_EXPANSIONS term của từ điển
+ *
+ * Mỗi course có docId kiểu int (tái sử dụng sau khi xoá); posting của một term là mảng docId tăng dần,
+ * nên phép AND chỉ duyệt posting nhỏ nhất và dò các posting khác bằng binary search tiến dần.
+ * Thread-safe: nhiều luồng đọc song song, ghi (put/remove) giữ write lock.
+ */
+public class CourseSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /**
+     * Field được đánh chỉ mục và trọng số
+     */
+    public enum Field {
+        TITLE(3.0), CATEGORY(2.0), DESCRIPTION(1.0);
+
+        private final double boost;
+
+        Field(double boost) {
+            this.boost = boost;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+    private static final int FIELD_COUNT = FIELDS.length;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    // Theo docId; phần tử null là docId đang rảnh
+    private final List<Doc> docs = new ArrayList<>();
+    private final Deque<Integer> freeDocIds = new ArrayDeque<>();
+    private final long[] totalLength = new long[FIELD_COUNT];
+
+    /**
+     * Thêm hoặc thay thế course trong chỉ mục
+     */
+    public void put(UUID courseId, String title, String categoryName, String description) {
+        String[] values = {title, categoryName, description};
+        Map<String, int[]> termFrequencies = new HashMap<>();
+        int[] lengths = new int[FIELD_COUNT];
+        for (Field field : FIELDS) {
+            List<String> tokens = tokenize(values[field.ordinal()]);
+            lengths[field.ordinal()] = tokens.size();
+            for (String token : tokens) {
+                termFrequencies.computeIfAbsent(token, t -> new int[FIELD_COUNT])[field.ordinal()]++;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(courseId);
+            int docId = freeDocIds.isEmpty() ? docs.size() : freeDocIds.pop();
+            Doc doc = new Doc(courseId, lengths, termFrequencies.keySet().toArray(String[]::new));
+            if (docId == docs.size()) {
+                docs.add(doc);
+            } else {
+                docs.set(docId, doc);
+            }
+            docIds.put(courseId, docId);
+            for (Map.Entry<String, int[]> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), t -> new Posting()).add(docId, entry.getValue());
+            }
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                totalLength[f] += lengths[f];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID courseId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(courseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm tối đa limit course khớp mọi term của query, điểm cao trước
+     */
+    public List<Hit> search(String query, boolean prefix, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String prefixTerm = prefix ? tokens.get(tokens.size() - 1) : null;
+        Set<String> exactTerms = new LinkedHashSet<>(prefix ? tokens.subList(0, tokens.size() - 1) : tokens);
+
+        lock.readLock().lock();
+        try {
+            if (docIds.isEmpty()) {
+                return List.of();
+            }
+            List<Term> terms = new ArrayList<>();
+            for (String token : exactTerms) {
+                Posting posting = postings.get(token);
+                if (posting == null) {
+                    return List.of();
+                }
+                terms.add(term(List.of(posting)));
+            }
+            if (prefixTerm != null) {
+                List<Posting> expansions = new ArrayList<>();
+                for (Posting posting : postings.subMap(prefixTerm, true, prefixTerm + Character.MAX_VALUE, false).values()) {
+                    if (expansions.size() == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    expansions.add(posting);
+                }
+                if (expansions.isEmpty()) {
+                    return List.of();
+                }
+                terms.add(term(expansions));
+            }
+            // Chỉ duyệt posting nhỏ nhất, các term còn lại dò theo docId
+            terms.sort(Comparator.comparingInt(Term::documentCount));
+            return topHits(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tách text thành các term đã bỏ dấu, lowercase
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = SlugUtil.fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void removeLocked(UUID courseId) {
+        Integer docId = docIds.remove(courseId);
+        if (docId == null) {
+            return;
+        }
+        Doc doc = docs.get(docId);
+        for (String term : doc.terms()) {
+            Posting posting = postings.get(term);
+            if (posting != null && posting.remove(docId) && posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            totalLength[f] -= doc.lengths()[f];
+        }
+        docs.set(docId, null);
+        freeDocIds.push(docId);
+    }
+
+    private Term term(List<Posting> postings) {
+        double[] idf = new double[postings.size()];
+        for (int i = 0; i < idf.length; i++) {
+            int documentFrequency = postings.get(i).size;
+            idf[i] = Math.log(1 + (docIds.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+        return new Term(postings.toArray(Posting[]::new), idf, new int[postings.size()]);
+    }
+
+    private List<Hit> topHits(List<Term> terms, int limit) {
+        double[] avgLength = new double[FIELD_COUNT];
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            avgLength[f] = Math.max(1.0, (double) totalLength[f] / docIds.size());
+        }
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::score).thenComparing(Hit::courseId, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, order);
+
+        candidates:
+        for (int docId : terms.get(0).candidates()) {
+            int[] lengths = docs.get(docId).lengths();
+            double total = 0;
+            for (Term term : terms) {
+                double score = term.score(docId, lengths, avgLength);
+                if (score < 0) {
+                    continue candidates;
+                }
+                total += score;
+            }
+            if (top.size() == limit && total < top.peek().score()) {
+                continue;
+            }
+            top.offer(new Hit(docs.get(docId).courseId(), total));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(order.reversed());
+        return hits;
+    }
+
+    /**
+     * Kết quả tìm kiếm: courseId và điểm BM25F
+     */
+    public record Hit(UUID courseId, double score) {
+    }
+
+    private record Doc(UUID courseId, int[] lengths, String[] terms) {
+    }
+
+    /**
+     * Posting của một term: docId tăng dần, tf theo từng field xếp liền nhau (FIELD_COUNT int mỗi doc)
+     */
+    private static final class Posting {
+
+        private int[] docIds = new int[4];
+        private int[] frequencies = new int[4 * FIELD_COUNT];
+        private int size;
+
+        void add(int docId, int[] tf) {
+            int index = -(Arrays.binarySearch(docIds, 0, size, docId) + 1);
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2 * FIELD_COUNT);
+            }
+            System.arraycopy(docIds, index, docIds, index + 1, size - index);
+            System.arraycopy(frequencies, index * FIELD_COUNT, frequencies, (index + 1) * FIELD_COUNT, (size - index) * FIELD_COUNT);
+            docIds[index] = docId;
+            System.arraycopy(tf, 0, frequencies, index * FIELD_COUNT, FIELD_COUNT);
+            size++;
+        }
+
+        /**
+         * Vị trí của docId tính từ from (như Arrays.binarySearch: âm nếu không có).
+         * Dò mũ (galloping) trước khi binary search vì docId cần tìm thường nằm ngay sau from.
+         */
+        int seek(int from, int docId) {
+            if (from >= size || docIds[from] >= docId) {
+                return from < size && docIds[from] == docId ? from : -(from + 1);
+            }
+            int low = from;
+            int step = 1;
+            while (low + step < size && docIds[low + step] < docId) {
+                low += step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(docIds, low + 1, Math.min(size, low + step + 1), docId);
+        }
+
+        boolean remove(int docId) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+            System.arraycopy(frequencies, (index + 1) * FIELD_COUNT, frequencies, index * FIELD_COUNT, (size - index - 1) * FIELD_COUNT);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Một term của query: một posting (term thường) hoặc các posting mở rộng (term tiền tố).
+     * cursors: vị trí đã dò tới trong từng posting; docId ứng viên đi theo thứ tự tăng dần nên chỉ tiến lên.
+     */
+    private record Term(Posting[] postings, double[] idf, int[] cursors) {
+
+        int documentCount() {
+            int count = 0;
+            for (Posting posting : postings) {
+                count += posting.size;
+            }
+            return count;
+        }
+
+        int[] candidates() {
+            if (postings.length == 1) {
+                return Arrays.copyOf(postings[0].docIds, postings[0].size);
+            }
+            int[] union = new int[documentCount()];
+            int length = 0;
+            for (Posting posting : postings) {
+                System.arraycopy(posting.docIds, 0, union, length, posting.size);
+                length += posting.size;
+            }
+            return Arrays.stream(union, 0, length).sorted().distinct().toArray();
+        }
+
+        // Điểm BM25F của term cho doc; -1 nếu doc không chứa term.
+        // Term tiền tố lấy điểm cao nhất trong các term mở rộng mà doc chứa.
+        double score(int docId, int[] lengths, double[] avgLength) {
+            double best = -1;
+            for (int i = 0; i < postings.length; i++) {
+                Posting posting = postings[i];
+                int index = posting.seek(cursors[i], docId);
+                if (index < 0) {
+                    cursors[i] = -(index + 1);
+                    continue;
+                }
+                cursors[i] = index + 1;
+                double weightedTf = 0;
+                int offset = index * FIELD_COUNT;
+                for (Field field : FIELDS) {
+                    int f = field.ordinal();
+                    int tf = posting.frequencies[offset + f];
+                    if (tf > 0) {
+                        weightedTf += field.boost * tf / (1 - B + B * lengths[f] / avgLength[f]);
+                    }
+                }
+                best = Math.max(best, idf[i] * weightedTf / (K1 + weightedTf));
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.se347.courseservice.search;
+
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.repositories.CourseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Giữ CourseSearchIndex của replica này đồng bộ với DB
+ *
+ * - Khởi động: dựng chỉ mục từ DB trên thread nền "course-search-rebuild"; trong lúc đó isReady() = false
+ *   và CourseQueryService tìm bằng LIKE như trước
+ * - CourseCreated/CourseUpdated (sau commit): reindex(courseId) đọc lại course từ DB vào chỉ mục và
+ *   publish lên channel Redis SYNC_CHANNEL để các replica khác cũng đọc lại (reindexLocal)
+ * - rebuild(): dựng chỉ mục mới theo từng trang keyset rồi thay thế; course thay đổi trong lúc dựng
+ *   được đọc lại sau khi thay. rebuildAllReplicas() (POST /search/rebuild) dựng lại ở replica này và
+ *   yêu cầu các replica khác dựng lại trên thread nền
+ * Message mang id của replica gửi để replica đó bỏ qua message của chính nó. Pub/sub không đảm bảo
+ * giao: replica lỡ message lệch đến lần rebuild tiếp theo (khởi động lại hoặc POST /search/rebuild).
+ * Metrics: course.search.index.size
+ */
+@Slf4j
+@Component
+public class CourseSearchIndexer {
+
+    public static final String SYNC_CHANNEL = "course-search:sync";
+
+    private static final String REINDEX = "reindex";
+    private static final String REBUILD = "rebuild";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final CourseRepository courseRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final AtomicReference<CourseSearchIndex> current = new AtomicReference<>(new CourseSearchIndex());
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Set<UUID> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public CourseSearchIndexer(CourseRepository courseRepository,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${courseservice.search.enabled:true}") boolean enabled,
+                               @Value("${courseservice.search.rebuild-batch-size:500}") int batchSize) {
+        this.courseRepository = courseRepository;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+
+        Gauge.builder("course.search.index.size", current, index -> index.get().size())
+                .description("Courses in the in-process search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void buildOnStartup() {
+        rebuildInBackground();
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public List<CourseSearchIndex.Hit> search(String query, boolean prefix, int limit) {
+        return current.get().search(query, prefix, limit);
+    }
+
+    /**
+     * Dựng lại chỉ mục của replica này và yêu cầu mọi replica khác dựng lại;
+     * trả về số course của replica này, -1 nếu nó đang có lần dựng khác chạy
+     */
+    public int rebuildAllReplicas() {
+        if (!enabled) {
+            return -1;
+        }
+        publish(REBUILD);
+        return rebuild();
+    }
+
+    /**
+     * Dựng lại toàn bộ chỉ mục của replica này từ DB; -1 nếu đang có lần dựng khác chạy
+     */
+    public int rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            changedDuringRebuild.clear();
+            long start = System.currentTimeMillis();
+            CourseSearchIndex fresh = new CourseSearchIndex();
+            Pageable limit = PageRequest.of(0, batchSize);
+            List<Course> batch = courseRepository.findPage(limit);
+            while (!batch.isEmpty()) {
+                batch.forEach(course -> put(fresh, course));
+                Course last = batch.get(batch.size() - 1);
+                batch = batch.size() < batchSize
+                        ? List.of()
+                        : courseRepository.findPageAfter(last.getCreatedAt(), last.getCourseId(), limit);
+            }
+
+            current.set(fresh);
+            ready = true;
+            log.info("Course search index built: {} course(s) in {} ms", fresh.size(), System.currentTimeMillis() - start);
+            return fresh.size();
+        } finally {
+            rebuilding.set(false);
+            // Thay đổi xảy ra trong lúc dựng có thể đã được đọc trước khi commit: đọc lại vào chỉ mục mới
+            for (UUID courseId : changedDuringRebuild) {
+                reindexLocal(courseId);
+            }
+            changedDuringRebuild.clear();
+        }
+    }
+
+    /**
+     * Đọc lại một course vào chỉ mục của mọi replica (gọi sau khi transaction thay đổi course đã commit)
+     */
+    public void reindex(UUID courseId) {
+        if (!enabled) {
+            return;
+        }
+        reindexLocal(courseId);
+        publish(REINDEX + ":" + courseId);
+    }
+
+    /**
+     * Đọc lại một course từ DB vào chỉ mục của replica này
+     */
+    public void reindexLocal(UUID courseId) {
+        if (!enabled) {
+            return;
+        }
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(courseId);
+        }
+        try {
+            courseRepository.findById(courseId).ifPresentOrElse(
+                    course -> put(current.get(), course),
+                    () -> current.get().remove(courseId));
+        } catch (RuntimeException e) {
+            // Chỉ mục lệch đến lần rebuild tiếp theo, không làm hỏng luồng xử lý event
+            log.warn("Failed to reindex course {}: {}", courseId, e.getMessage());
+        }
+    }
+
+    /**
+     * Message từ SYNC_CHANNEL: "origin:reindex:courseId" hoặc "origin:rebuild"
+     */
+    public void onSyncMessage(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        if (REBUILD.equals(parts[1])) {
+            rebuildInBackground();
+        } else if (REINDEX.equals(parts[1]) && parts.length == 3) {
+            try {
+                reindexLocal(UUID.fromString(parts[2]));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid course search sync message: {}", message);
+            }
+        } else {
+            log.warn("Ignoring invalid course search sync message: {}", message);
+        }
+    }
+
+    private void publish(String body) {
+        try {
+            redisTemplate.convertAndSend(SYNC_CHANNEL, instanceId + ":" + body);
+        } catch (RuntimeException e) {
+            // Replica khác lệch đến lần rebuild tiếp theo của chúng
+            log.warn("Failed to publish course search sync message {}: {}", body, e.getMessage());
+        }
+    }
+
+    /**
+     * Dựng lại trên thread riêng (khởi động, yêu cầu từ replica khác): không chặn thread gọi
+     */
+    private void rebuildInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Failed to build course search index", e);
+            }
+        }, "course-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void put(CourseSearchIndex index, Course course) {
+        index.put(course.getCourseId(), course.getTitle(), course.getCategoryName(), course.getDescription());
+    }
+}
@@ -1,5 +1,9 @@
 package com.se347.courseservice.securities;
 
+import com.eduweb.security.HmacSigner;
+import com.eduweb.security.NonceStore;
+import com.eduweb.security.VerifyingRequestWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -8,16 +12,13 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.MultipartConfigElement;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Base64;
 import lombok.NonNull;
 
 /**
@@ -26,7 +27,8 @@ import lombok.NonNull;
  * Filter này sẽ:
  * 1. Validate HMAC signature từ API Gateway
  * 2. Đảm bảo request đến từ trusted API Gateway
- * 3. Bỏ qua validation cho public endpoints
+ * 3. Chặn replay: mỗi nonce chỉ được dùng một lần trong cửa sổ timestamp (NonceStore của core)
+ * 4. Bỏ qua validation cho public endpoints
  */
 @Component
 @Order(1)
@@ -34,8 +36,15 @@ public class HmacValidationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(HmacValidationFilter.class);
 
-    @Value("${gateway.hmac.secret}")
-    private String secret;
+    @Autowired
+    private HmacSigner hmacSigner;
+
+    @Autowired
+    private NonceStore nonceStore;
+
+    // Giới hạn spring.servlet.multipart.* cho multipart được parse lại trong VerifyingRequestWrapper
+    @Autowired
+    private MultipartConfigElement multipartConfig;
 
     @Value("${gateway.hmac.enabled:true}")
     private boolean hmacEnabled;
@@ -83,9 +92,10 @@ public class HmacValidationFilter extends OncePerRequestFilter {
             return;
         }
 
+        long requestTime;
         try {
             // Validate timestamp (prevent replay attacks)
-            long requestTime = Long.parseLong(hmacTimestamp);
+            requestTime = Long.parseLong(hmacTimestamp);
             long currentTime = Instant.now().getEpochSecond();
             long timeDiff = Math.abs(currentTime - requestTime);
             
@@ -94,54 +104,92 @@ public class HmacValidationFilter extends OncePerRequestFilter {
                 handleUnauthorized(response, "Request timestamp expired");
                 return;
             }
+        } catch (NumberFormatException e) {
+            handleUnauthorized(response, "HMAC validation failed: " + e.getMessage());
+            return;
+        }
 
-            // Đọc body bytes để tính hash
-            byte[] bodyBytes = request.getInputStream().readAllBytes();
-            String computedHash = base64Sha256(bodyBytes);
-
-            logger.debug("Body hash - Header: {}, Computed: {}, Body length: {}", 
-                        bodyHashHeader, computedHash, bodyBytes.length);
-
-            if (org.springframework.util.StringUtils.hasText(bodyHashHeader) && !computedHash.equals(bodyHashHeader)) {
-                logger.warn("Body hash mismatch for path: {} - Header: {}, Computed: {}", 
-                           path, bodyHashHeader, computedHash);
+        // GET/DELETE (không có body): không bọc request, body hash là hash của body rỗng
+        if (!hasBody(request)) {
+            String emptyHash = HmacSigner.emptyBodySha256();
+            if (StringUtils.hasText(bodyHashHeader) && !HmacSigner.constantTimeEquals(emptyHash, bodyHashHeader)) {
+                logger.warn("Body hash mismatch for empty body, path: {}", path);
                 handleUnauthorized(response, "Body hash mismatch");
                 return;
             }
-
-            // Validate HMAC signature (dùng body-hash)
-            if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, computedHash)) {
+            if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, emptyHash)) {
                 logger.warn("Invalid HMAC signature for path: {}", path);
                 handleUnauthorized(response, "Invalid HMAC signature");
                 return;
             }
-
+            if (!acceptNonce(response, hmacNonce, requestTime, path)) {
+                return;
+            }
             logger.debug("HMAC validation successful for path: {}", path);
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            // Wrap lại request để downstream đọc lại body
-            jakarta.servlet.http.HttpServletRequest wrapped = new jakarta.servlet.http.HttpServletRequestWrapper(request) {
-                @Override
-                public jakarta.servlet.ServletInputStream getInputStream() {
-                    java.io.ByteArrayInputStream bais = new java.io.ByteArrayInputStream(bodyBytes);
-                    return new jakarta.servlet.ServletInputStream() {
-                        @Override public int read() { return bais.read(); }
-                        @Override public boolean isFinished() { return bais.available() == 0; }
-                        @Override public boolean isReady() { return true; }
-                        @Override public void setReadListener(jakarta.servlet.ReadListener readListener) { }
-                    };
-                }
-                @Override public int getContentLength() { return bodyBytes.length; }
-                @Override public long getContentLengthLong() { return bodyBytes.length; }
-            };
+        // Có body: chữ ký được kiểm tra với body hash trong header. Body phải có Content-Length
+        // (Gateway đặt sau khi đọc hết body để ký) và được so với hash trước khi controller chạy
+        if (request.getContentLengthLong() < 0) {
+            logger.warn("Missing Content-Length on signed body for path: {}", path);
+            handleLengthRequired(response);
+            return;
+        }
+        if (!StringUtils.hasText(bodyHashHeader)) {
+            logger.warn("Missing body hash header for path: {}", path);
+            handleUnauthorized(response, "Missing body hash");
+            return;
+        }
+        if (!validateHmacSignature(request, hmacAuth, hmacNonce, hmacTimestamp, bodyHashHeader)) {
+            logger.warn("Invalid HMAC signature for path: {}", path);
+            handleUnauthorized(response, "Invalid HMAC signature");
+            return;
+        }
+        if (!acceptNonce(response, hmacNonce, requestTime, path)) {
+            return;
+        }
+        logger.debug("HMAC signature valid, verifying body for path: {}", path);
 
-            // HMAC validation successful, continue with request
-            filterChain.doFilter(wrapped, response);
+        VerifyingRequestWrapper wrapped = new VerifyingRequestWrapper(request, bodyHashHeader, multipartConfig);
+        try {
+            // Body thường được đọc và kiểm tra hết ở đây: controller/transaction không chạy với body sai
+            if (!wrapped.verifyUpFront()) {
+                logger.warn("Body hash mismatch for path: {}", path);
+                handleUnauthorized(response, "Body hash mismatch");
+                return;
+            }
+            try {
+                filterChain.doFilter(wrapped, response);
+                // Controller không đọc hết body multipart → đọc nốt để kiểm tra
+                wrapped.finish();
+            } catch (IOException | ServletException | RuntimeException e) {
+                if (!wrapped.isMismatch()) {
+                    throw e;
+                }
+            }
 
-        } catch (Exception e) {
-            handleUnauthorized(response, "HMAC validation failed: " + e.getMessage());
+            // Multipart không khớp: getParts() ném lỗi trước khi controller nhận part
+            if (wrapped.isMismatch()) {
+                logger.warn("Body hash mismatch for path: {}", path);
+                if (!response.isCommitted()) {
+                    response.reset();
+                    handleUnauthorized(response, "Body hash mismatch");
+                }
+            }
+        } finally {
+            wrapped.release();
         }
     }
 
+    /**
+     * Request có body không (Content-Length > 0 hoặc chunked; chunked bị từ chối với 411)
+     */
+    private boolean hasBody(HttpServletRequest request) {
+        return request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+    }
+
     /**
      * Kiểm tra path có phải là public path không
      */
@@ -162,17 +210,12 @@ public class HmacValidationFilter extends OncePerRequestFilter {
             // Reconstruct the payload that was used to create the signature
             String method = request.getMethod();
             String url = request.getRequestURI();
-            String payload = method + "\n" + url + "\n" + bodyHash + "\n" + hmacNonce + "\n" + hmacTimestamp;
+            String payload = HmacSigner.payload(method, url, bodyHash, hmacNonce, hmacTimestamp);
 
             logger.debug("HMAC validation payload: {}", payload);
 
-            // Compute expected HMAC
-            String expectedHmac = computeHmacSHA256(secret, payload);
-
-            logger.debug("HMAC validation - Expected: {}, Received: {}", expectedHmac, hmacAuth);
-
-            // Compare signatures
-            boolean isValid = hmacAuth.equals(expectedHmac);
+            // Compare signatures (constant-time, Mac đã init sẵn trong HmacSigner)
+            boolean isValid = hmacSigner.verify(payload, hmacAuth);
             logger.debug("HMAC signature valid: {}", isValid);
             
             return isValid;
@@ -183,26 +226,25 @@ public class HmacValidationFilter extends OncePerRequestFilter {
         }
     }
 
-    private String base64Sha256(byte[] data) {
-        try {
-            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-256");
-            return java.util.Base64.getEncoder().encodeToString(md.digest(data));
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
-     * Compute HMAC-SHA256 signature
+     * Ghi nhận nonce (chặn replay); trả lời 401 khi replay, 503 khi replay cache không ghi nhận được
      */
-    private String computeHmacSHA256(String secretKey, String data) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] hmac = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hmac);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute HMAC", e);
+    private boolean acceptNonce(HttpServletResponse response, String nonce, long requestTime, String path) throws IOException {
+        switch (nonceStore.mark(nonce, requestTime)) {
+            case ACCEPTED:
+                return true;
+            case UNAVAILABLE:
+                logger.warn("HMAC replay cache unavailable for path: {}", path);
+                handleUnavailable(response, "HMAC replay cache is full, retry later");
+                return false;
+            case OUT_OF_WINDOW:
+                logger.warn("HMAC timestamp outside replay window for path: {}", path);
+                handleUnauthorized(response, "HMAC timestamp outside replay window");
+                return false;
+            default:
+                logger.warn("Replayed HMAC nonce for path: {}", path);
+                handleUnauthorized(response, "Replayed HMAC nonce");
+                return false;
         }
     }
 
@@ -218,4 +260,25 @@ public class HmacValidationFilter extends OncePerRequestFilter {
         
         response.getWriter().write(body);
     }
-}
\ No newline at end of file
+
+    private void handleLengthRequired(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_LENGTH_REQUIRED);
+        response.setContentType("application/json");
+
+        String body = String.format("{\"error\":\"Length Required\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
+                "Signed request body must have Content-Length", new java.util.Date().toString());
+
+        response.getWriter().write(body);
+    }
+
+    private void handleUnavailable(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType("application/json");
+
+        String body = String.format("{\"error\":\"Service Unavailable\",\"message\":\"%s\",\"timestamp\":\"%s\"}",
+                message, new java.util.Date().toString());
+
+        response.getWriter().write(body);
+    }
+}
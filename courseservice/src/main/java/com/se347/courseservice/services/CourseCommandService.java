@@ -2,6 +2,8 @@ package com.se347.courseservice.services;
 
 import com.se347.courseservice.dtos.CourseRequestDto;
 import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CourseImportRequestDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
 import com.se347.courseservice.dtos.SectionRequestDto;
 import com.se347.courseservice.dtos.SectionResponseDto;
 import com.se347.courseservice.dtos.LessonRequestDto;
@@ -9,6 +11,7 @@ import com.se347.courseservice.dtos.LessonResponseDto;
 import com.se347.courseservice.dtos.ContentMetadataRequestDto;
 import com.se347.courseservice.dtos.ContentMetadataResponseDto;
 import org.springframework.web.multipart.MultipartFile;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public interface CourseCommandService {
@@ -39,4 +42,18 @@ public interface CourseCommandService {
      */
     ContentMetadataResponseDto createContent(UUID courseId, UUID sectionId, UUID lessonId, ContentMetadataRequestDto request, UUID userId);
     ContentMetadataResponseDto updateContentById(UUID courseId, UUID sectionId, UUID lessonId, UUID contentId, ContentMetadataRequestDto request, UUID userId);
+
+    /*
+    Bulk import (course + sections + lessons + contents in one transaction)
+     */
+    CurriculumResponseDto importCourse(CourseImportRequestDto request, UUID userId);
+
+    /*
+    Maintenance
+     */
+    /**
+     * Fix the counters of courses updated since the given time (null: all courses)
+     */
+    int reconcileCounters(LocalDateTime modifiedSince);
+    int rebuildSearchIndex();
 }
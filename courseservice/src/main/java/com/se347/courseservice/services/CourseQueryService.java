@@ -1,17 +1,17 @@
 package com.se347.courseservice.services;
 
 import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CursorPageDto;
 import java.util.List;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
 public interface CourseQueryService {
     CourseResponseDto getCourseById(UUID courseId);
     CourseResponseDto getCourseByCourseSlug(String courseSlug);
-    Page<CourseResponseDto> getAllCourses(Pageable pageable);
-    List<CourseResponseDto> getCoursesByCategoryName(String categoryName);
-    List<CourseResponseDto> getCoursesByInstructorId(UUID instructorId);
-    List<CourseResponseDto> getCoursesByTitleContaining(String title);
+    CursorPageDto<CourseResponseDto> getAllCourses(String cursor, int size);
+    CursorPageDto<CourseResponseDto> getCoursesByCategoryName(String categoryName, String cursor, int size);
+    CursorPageDto<CourseResponseDto> getCoursesByInstructorId(UUID instructorId, String cursor, int size);
+    List<CourseResponseDto> searchCourses(String query, int size);
+    List<CourseResponseDto> suggestCourses(String prefix, int size);
     Integer getToltalLessonsByCourseId(UUID courseId);
 }
@@ -0,0 +1,10 @@
+package com.se347.courseservice.services;
+
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+
+import java.util.UUID;
+
+public interface CurriculumQueryService {
+    CurriculumResponseDto getCurriculumByCourseId(UUID courseId);
+    CurriculumResponseDto getCurriculumByCourseSlug(String courseSlug);
+}
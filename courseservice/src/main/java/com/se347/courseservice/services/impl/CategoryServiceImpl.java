@@ -2,11 +2,13 @@ package com.se347.courseservice.services.impl;
 
 import com.se347.courseservice.dtos.CategoryRequestDto;
 import com.se347.courseservice.dtos.CategoryResponseDto;
+import com.se347.courseservice.domains.events.CategoryChangedEvent;
 import com.se347.courseservice.entities.Category;
 import com.se347.courseservice.enums.CourseCategory;
 import com.se347.courseservice.exceptions.CourseException;
 import com.se347.courseservice.repositories.CategoryRepository;
 import com.se347.courseservice.services.CategoryService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,9 +19,11 @@ import java.util.stream.Stream;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -45,6 +49,7 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.from(categoryName));
         return mapToResponse(category);
     }
 
@@ -103,6 +108,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.save(existingCategory);
+        eventPublisher.publishEvent(CategoryChangedEvent.from(existingCategory.getCategoryName()));
         return mapToResponse(existingCategory);
     }
 
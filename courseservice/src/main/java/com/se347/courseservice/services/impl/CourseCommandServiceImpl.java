@@ -1,12 +1,21 @@
 package com.se347.courseservice.services.impl;
 
 import com.se347.courseservice.domains.CourseDomainService;
+import com.se347.courseservice.domains.OptimisticRetry;
 import com.se347.courseservice.domains.SlugGenerateService;
 import com.se347.courseservice.dtos.CourseRequestDto;
 import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CourseImportRequestDto;
+import com.se347.courseservice.dtos.CourseImportSectionDto;
+import com.se347.courseservice.dtos.CourseImportLessonDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+import com.se347.courseservice.dtos.CurriculumSectionDto;
+import com.se347.courseservice.dtos.CurriculumLessonDto;
 import com.se347.courseservice.services.CourseCommandService;
 import com.se347.courseservice.services.FileStorageService;
 import com.se347.courseservice.repositories.CourseRepository;
+import com.se347.courseservice.search.CourseSearchIndexer;
+import com.se347.courseservice.repositories.projections.CourseCounterRow;
 import com.se347.courseservice.entities.Course;
 import com.se347.courseservice.entities.Section;
 import com.se347.courseservice.dtos.SectionRequestDto;
@@ -19,9 +28,17 @@ import com.se347.courseservice.dtos.ContentMetadataResponseDto;
 import com.se347.courseservice.entities.Content;
 import com.se347.courseservice.entities.valueobjects.Money;
 import com.se347.courseservice.exceptions.CourseException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,58 +49,91 @@ public class CourseCommandServiceImpl implements CourseCommandService {
     private final CourseRepository courseRepository;
     private final CourseDomainService courseDomainService;
     private final SlugGenerateService slugGenerateService;
+    private final OptimisticRetry optimisticRetry;
     private final FileStorageService fileStorageService;
+    private final CourseSearchIndexer courseSearchIndexer;
+
+    /** Lower bound of updatedAt for a full counter repair (startup backfill) */
+    private static final LocalDateTime ALL_COURSES = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Value("${courseservice.import.max-lessons:2000}")
+    private int maxImportLessons;
+
+    @Value("${courseservice.counters.repair-page-size:500}")
+    private int counterRepairPageSize;
     
-    @Transactional
     @Override
     public CourseResponseDto createCourse(CourseRequestDto request, MultipartFile thumbnail, UUID userId) {
-        // 1. Upload thumbnail if provided
-        String thumbnailUrl = null;
+        // 1. Upload thumbnail if provided (once, outside the slug retry)
+        String uploadedUrl = null;
         if (thumbnail != null && !thumbnail.isEmpty()) {
-            thumbnailUrl = fileStorageService.uploadThumbnail(thumbnail);
+            uploadedUrl = fileStorageService.uploadThumbnail(thumbnail);
         } else if (request.getThumbnailUrl() != null && !request.getThumbnailUrl().isEmpty()) {
             // Fallback to URL from request if no file provided
-            thumbnailUrl = request.getThumbnailUrl();
+            uploadedUrl = request.getThumbnailUrl();
         }
+        String thumbnailUrl = uploadedUrl;
         
-        // 2. Cross-aggregate validation: ensure category exists
-        courseDomainService.ensureCategoryExists(request.getCategoryName());
+        return slugGenerateService.withSlugRetry(() -> {
+            // 2. Cross-aggregate validation: ensure category exists
+            courseDomainService.ensureCategoryExists(request.getCategoryName());
         
-        // 3. Business rule: course title must be unique
-        if (!courseDomainService.isTitleUnique(request.getTitle())) {
-            throw new CourseException.CourseAlreadyExistsException(request.getTitle());
-        }
+            // 3. Business rule: course title must be unique
+            if (!courseDomainService.isTitleUnique(request.getTitle())) {
+                throw new CourseException.CourseAlreadyExistsException(request.getTitle());
+            }
         
-        // 4. Generate unique slug for course
-        String courseSlug = slugGenerateService.generateCourseSlug(request.getTitle());
+            // 4. Generate unique slug for course
+            String courseSlug = slugGenerateService.generateCourseSlug(request.getTitle());
 
-        // 5. Tell aggregate to create itself (factory method with all validations)
-        Money price = Money.of(request.getPrice());
-        Course course = Course.createNew(
-            request.getTitle(),
-            request.getDescription(),
-            courseSlug,
-            thumbnailUrl,
-            price,
-            request.getLevel(),
-            request.getCategoryName(),
-            userId
-        );
-        
-        // 6. Save aggregate root (will publish domain events automatically)
-        courseRepository.save(course);
+            // 5. Tell aggregate to create itself (factory method with all validations)
+            Money price = Money.of(request.getPrice());
+            Course course = Course.createNew(
+                request.getTitle(),
+                request.getDescription(),
+                courseSlug,
+                thumbnailUrl,
+                price,
+                request.getLevel(),
+                request.getCategoryName(),
+                userId
+            );
+        
+            // 6. Save aggregate root (will publish domain events automatically)
+            courseRepository.save(course);
 
-        // 7. Map to DTO for presentation layer
-        return mapToResponse(course);
+            // 7. Map to DTO for presentation layer
+            return mapToResponse(course);
+        });
     }
 
-    @Transactional
+    /**
+     * A section/lesson added meanwhile bumps the Course version: the update is re-applied
+     * to the fresh row (OptimisticRetry) instead of answering 409
+     */
     @Override
     public CourseResponseDto updateCourseById(UUID courseId, CourseRequestDto request, UUID userId) {
-        // 1. Load aggregate root
-        Course course = courseRepository.findById(courseId)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
-        
+        return optimisticRetry.execute(() -> {
+            // 1. Load aggregate root
+            Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
+
+            return updateDetails(course, request, userId);
+        });
+    }
+
+    @Override
+    public CourseResponseDto updateCourseByCourseSlug(String courseSlug, CourseRequestDto request, UUID userId) {
+        return optimisticRetry.execute(() -> {
+            // Find by slug (using Value Object field)
+            Course course = courseRepository.findByCourseSlug(courseSlug)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException("Course with slug '" + courseSlug + "' not found"));
+
+            return updateDetails(course, request, userId);
+        });
+    }
+
+    private CourseResponseDto updateDetails(Course course, CourseRequestDto request, UUID userId) {
         // 2. Authorization: ensure user owns this course
         course.ensureOwnedBy(userId);
         
@@ -92,7 +142,7 @@ public class CourseCommandServiceImpl implements CourseCommandService {
         
         // 4. Business rule: title must be unique (if changing)
         if (!course.getTitle().equals(request.getTitle())) {
-            if (!courseDomainService.isTitleUniqueExcluding(request.getTitle(), courseId)) {
+            if (!courseDomainService.isTitleUniqueExcluding(request.getTitle(), course.getCourseId())) {
                 throw new CourseException.CourseAlreadyExistsException(request.getTitle());
             }
         }
@@ -113,61 +163,32 @@ public class CourseCommandServiceImpl implements CourseCommandService {
         return mapToResponse(course);
     }
 
-    @Transactional
-    @Override
-    public CourseResponseDto updateCourseByCourseSlug(String courseSlug, CourseRequestDto request, UUID userId) {
-        // Find by slug (using Value Object field)
-        Course course = courseRepository.findByCourseSlug(courseSlug)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException("Course with slug '" + courseSlug + "' not found"));
-        
-        // Rest is same as updateById
-        course.ensureOwnedBy(userId);
-        courseDomainService.ensureCategoryExists(request.getCategoryName());
-        
-        if (!course.getTitle().equals(request.getTitle())) {
-            if (!courseDomainService.isTitleUniqueExcluding(request.getTitle(), course.getCourseId())) {
-                throw new CourseException.CourseAlreadyExistsException(request.getTitle());
-            }
-        }
-        
-        Money price = Money.of(request.getPrice());
-        course.updateDetails(
-            request.getTitle(),
-            request.getDescription(),
-            request.getThumbnailUrl(),
-            price,
-            request.getLevel()
-        );
-        
-        courseRepository.save(course);
-        return mapToResponse(course);
-    }
-
     @Override
-    @Transactional
     public SectionResponseDto createSection(UUID courseId, SectionRequestDto request, UUID userId) {
-        // 1. Load aggregate root (eager-load sections for consistency)
-        Course course = courseRepository.findById(courseId)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
+        return withChildSlugRetry(() -> {
+            // 1. Load aggregate root (eager-load sections for consistency)
+            Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
         
-        // 2. Authorization: ensure user owns this course
-        course.ensureOwnedBy(userId);
+            // 2. Authorization: ensure user owns this course
+            course.ensureOwnedBy(userId);
         
-        // 3. Generate unique slug for section
-        String sectionSlug = slugGenerateService.generateSectionSlug(request.getTitle());
+            // 3. Generate unique slug for section
+            String sectionSlug = slugGenerateService.generateSectionSlug(request.getTitle());
 
-        // 3. Tell aggregate to add section (validation inside Course.addSection())
-        Section section = course.addSection(
-            request.getTitle(),
-            request.getDescription(),
-            sectionSlug,
-            request.getOrderIndex()
-        );
-        
-        // 4. Save aggregate root (JPA cascade will save section)
-        courseRepository.save(course);
-        
-        return mapToResponse(section);
+            // 3. Tell aggregate to add section (validation inside Course.addSection())
+            Section section = course.addSection(
+                request.getTitle(),
+                request.getDescription(),
+                sectionSlug,
+                request.getOrderIndex()
+            );
+        
+            // 4. Save aggregate root (JPA cascade will save section)
+            courseRepository.save(course);
+        
+            return mapToResponse(section);
+        });
     }
 
     @Override
@@ -232,24 +253,25 @@ public class CourseCommandServiceImpl implements CourseCommandService {
     }
 
     @Override
-    @Transactional
     public LessonResponseDto createLesson(UUID courseId, UUID sectionId, LessonRequestDto request, UUID userId) {
-        // 1. Load Course aggregate (with sections eager-loaded)
-        Course course = courseRepository.findByIdWithSections(courseId)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
+        return withChildSlugRetry(() -> {
+            // 1. Load Course aggregate (with sections eager-loaded)
+            Course course = courseRepository.findByIdWithSections(courseId)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
         
-        // 2. Authorization check
-        course.ensureOwnedBy(userId);
+            // 2. Authorization check
+            course.ensureOwnedBy(userId);
 
-        // 3. Generate unique slug for lesson
-        String lessonSlug = slugGenerateService.generateLessonSlug(request.getTitle());
+            // 3. Generate unique slug for lesson
+            String lessonSlug = slugGenerateService.generateLessonSlug(request.getTitle());
 
-        Lesson lesson = course.addLessonToSection(sectionId, request.getTitle(), lessonSlug, request.getOrderIndex());
+            Lesson lesson = course.addLessonToSection(sectionId, request.getTitle(), lessonSlug, request.getOrderIndex());
         
-        // 4. Save Course aggregate (cascade saves lesson)
-        courseRepository.save(course);
+            // 4. Save Course aggregate (cascade saves lesson)
+            courseRepository.save(course);
         
-        return mapToResponse(lesson);
+            return mapToResponse(lesson);
+        });
     }
 
     @Transactional
@@ -345,6 +367,179 @@ public class CourseCommandServiceImpl implements CourseCommandService {
     }
 
 
+    /**
+     * Persist a whole curriculum in one transaction
+     *
+     * Slugs are allocated per batch (SlugGenerateService.generate*Slugs), the aggregate is built in
+     * memory with child events suppressed, and one save() persists the tree: client-assigned ids mean
+     * no SELECT per row, and hibernate.jdbc.batch_size + order_inserts send the INSERTs per table in batches.
+     * Fires a single CourseImportedEvent.
+     */
+    @Override
+    public CurriculumResponseDto importCourse(CourseImportRequestDto request, UUID userId) {
+        List<CourseImportSectionDto> sectionRequests = request.getSections() != null ? request.getSections() : List.of();
+        List<String> sectionTitles = new ArrayList<>(sectionRequests.size());
+        List<String> lessonTitles = new ArrayList<>();
+        for (CourseImportSectionDto sectionRequest : sectionRequests) {
+            sectionTitles.add(sectionRequest.getTitle());
+            for (CourseImportLessonDto lessonRequest : lessonsOf(sectionRequest)) {
+                lessonTitles.add(lessonRequest.getTitle());
+            }
+        }
+        if (lessonTitles.size() > maxImportLessons) {
+            throw new CourseException.InvalidRequestException(
+                "Import has " + lessonTitles.size() + " lessons, at most " + maxImportLessons + " allowed");
+        }
+
+        return slugGenerateService.withSlugRetry(() -> {
+            // 1. Same cross-aggregate rules as createCourse
+            courseDomainService.ensureCategoryExists(request.getCategoryName());
+            if (!courseDomainService.isTitleUnique(request.getTitle())) {
+                throw new CourseException.CourseAlreadyExistsException(request.getTitle());
+            }
+
+            // 2. Slugs: one query for the course, one set-based suffix query per child table (per 100 distinct bases)
+            String courseSlug = slugGenerateService.generateCourseSlug(request.getTitle());
+            List<String> sectionSlugs = slugGenerateService.generateSectionSlugs(sectionTitles);
+            Iterator<String> lessonSlugs = slugGenerateService.generateLessonSlugs(lessonTitles).iterator();
+
+            // 3. Build the aggregate in memory (all validations inside Course/Section/Lesson)
+            Course course = Course.importNew(
+                request.getTitle(),
+                request.getDescription(),
+                courseSlug,
+                request.getThumbnailUrl(),
+                Money.of(request.getPrice()),
+                request.getLevel(),
+                request.getCategoryName(),
+                userId
+            );
+            for (int i = 0; i < sectionRequests.size(); i++) {
+                CourseImportSectionDto sectionRequest = sectionRequests.get(i);
+                Section section = course.addSection(
+                    sectionRequest.getTitle(),
+                    sectionRequest.getDescription(),
+                    sectionSlugs.get(i),
+                    sectionRequest.getOrderIndex()
+                );
+                for (CourseImportLessonDto lessonRequest : lessonsOf(sectionRequest)) {
+                    Lesson lesson = course.addLessonToSection(
+                        section.getSectionId(),
+                        lessonRequest.getTitle(),
+                        lessonSlugs.next(),
+                        lessonRequest.getOrderIndex()
+                    );
+                    if (lessonRequest.getContents() != null) {
+                        for (ContentMetadataRequestDto contentRequest : lessonRequest.getContents()) {
+                            lesson.addContent(contentRequest.getContentUrl(), contentRequest.getOrderIndex());
+                        }
+                    }
+                }
+            }
+            course.completeImport();
+
+            // 4. One save: persist cascades to the whole tree, INSERTs flushed in JDBC batches at commit
+            courseRepository.save(course);
+
+            return mapToCurriculum(course);
+        });
+    }
+
+    /**
+     * Pages through the drifted courses in courseId order, then one short transaction per course:
+     * counts are re-read inside it, and a concurrent section/lesson change (Course version) makes
+     * OptimisticRetry run it again with fresh counts
+     */
+    @Override
+    public int reconcileCounters(LocalDateTime modifiedSince) {
+        LocalDateTime since = modifiedSince != null ? modifiedSince : ALL_COURSES;
+        Pageable page = PageRequest.ofSize(Math.max(1, counterRepairPageSize));
+        int repaired = 0;
+        List<CourseCounterRow> drifted = courseRepository.findCounterDriftPage(since, page);
+        while (!drifted.isEmpty()) {
+            for (CourseCounterRow row : drifted) {
+                if (reconcileCounters(row.courseId())) {
+                    repaired++;
+                }
+            }
+            if (drifted.size() < page.getPageSize()) {
+                break;
+            }
+            UUID lastId = drifted.get(drifted.size() - 1).courseId();
+            drifted = courseRepository.findCounterDriftPageAfter(since, lastId, page);
+        }
+        return repaired;
+    }
+
+    private boolean reconcileCounters(UUID courseId) {
+        return optimisticRetry.execute(() -> {
+            // Load (and so pin the version) before counting: a change committed in between fails the update
+            Course course = courseRepository.findById(courseId).orElse(null);
+            CourseCounterRow row = course != null
+                ? courseRepository.findCounterRowByCourseId(courseId).orElse(null)
+                : null;
+            if (row == null) {
+                return false;
+            }
+            // Aggregate re-registers CourseLessonChangedEvent → cache invalidation, total lessons sync
+            if (!course.reconcileCounters((int) row.actualSections(), (int) row.actualLessons())) {
+                return false;
+            }
+            courseRepository.save(course);
+            return true;
+        });
+    }
+
+    @Override
+    public int rebuildSearchIndex() {
+        int indexed = courseSearchIndexer.rebuildAllReplicas();
+        if (indexed < 0) {
+            throw new CourseException.InvalidRequestException("Search index is disabled or already being rebuilt");
+        }
+        return indexed;
+    }
+
+    /**
+     * Adding a section/lesson both allocates a slug and changes the Course counters:
+     * retry a lost slug race as well as a lost version check, nothing else
+     */
+    private <T> T withChildSlugRetry(Supplier<T> work) {
+        return optimisticRetry.execute(work,
+            e -> OptimisticRetry.isVersionConflict(e) || SlugGenerateService.isSlugConflict(e));
+    }
+
+    private static List<CourseImportLessonDto> lessonsOf(CourseImportSectionDto sectionRequest) {
+        return sectionRequest.getLessons() != null ? sectionRequest.getLessons() : List.of();
+    }
+
+    private CurriculumResponseDto mapToCurriculum(Course course) {
+        List<CurriculumSectionDto> sections = new ArrayList<>(course.getSections().size());
+        for (Section section : course.getSections()) {
+            List<CurriculumLessonDto> lessons = new ArrayList<>(section.getLessons().size());
+            for (Lesson lesson : section.getLessons()) {
+                lessons.add(CurriculumLessonDto.builder()
+                    .lessonId(lesson.getLessonId())
+                    .lessonSlug(lesson.getLessonSlug())
+                    .title(lesson.getTitle())
+                    .orderIndex(lesson.getOrderIndex().getValue())
+                    .contents(lesson.getContents().stream().map(this::mapToResponse).toList())
+                    .build());
+            }
+            sections.add(CurriculumSectionDto.builder()
+                .sectionId(section.getSectionId())
+                .sectionSlug(section.getSectionSlug())
+                .title(section.getTitle())
+                .description(section.getDescription())
+                .orderIndex(section.getOrderIndex().getValue())
+                .lessons(lessons)
+                .build());
+        }
+        return CurriculumResponseDto.builder()
+            .course(mapToResponse(course))
+            .sections(sections)
+            .build();
+    }
+
     private CourseResponseDto mapToResponse(Course course) {
         return CourseResponseDto.builder()
             .courseId(course.getCourseId())
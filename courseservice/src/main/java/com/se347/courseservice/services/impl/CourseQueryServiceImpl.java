@@ -1,106 +1,162 @@
 package com.se347.courseservice.services.impl;
 
 import com.se347.courseservice.repositories.CourseRepository;
+import com.se347.courseservice.caches.CourseReadCache;
 import com.se347.courseservice.services.CourseQueryService;
 import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CursorPageDto;
 import com.se347.courseservice.entities.Course;
 import com.se347.courseservice.exceptions.CourseException;
+import com.se347.courseservice.utils.CourseCursor;
+import com.se347.courseservice.search.CourseSearchIndex;
+import com.se347.courseservice.search.CourseSearchIndexer;
 
 import org.springframework.transaction.annotation.Transactional;
 import java.util.UUID;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import java.util.stream.Collectors;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 @RequiredArgsConstructor
 @Service
 public class CourseQueryServiceImpl implements CourseQueryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
     
     private final CourseRepository courseRepository;
+    private final CourseReadCache courseReadCache;
+    private final CourseSearchIndexer courseSearchIndexer;
 
     /**
      * Get course by ID
      * 
      * DDD: Simple query - use Repository directly (no Domain Service needed)
+     * Cache: CourseReadCache (L1 + Redis); không mở transaction khi cache hit
      */
     @Override
-    @Transactional(readOnly = true)
     public CourseResponseDto getCourseById(UUID courseId) {
-        Course course = courseRepository.findById(courseId)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
-        return mapToResponse(course);
+        return courseReadCache.getById(courseId, () -> {
+            Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
+            return mapToResponse(course);
+        });
     }
 
     /**
-     * Get all courses with pagination
+     * Get all courses, newest first, with keyset (cursor) pagination
      * 
      * DDD: Simple query - use Repository directly
+     * Keyset: seek on (createdAt, courseId) instead of OFFSET, so every page costs the same
      */
     @Override
     @Transactional(readOnly = true)
-    public Page<CourseResponseDto> getAllCourses(Pageable pageable) {
-        Page<Course> courses = courseRepository.findAll(pageable);
-        return courses.map(this::mapToResponse);
+    public CursorPageDto<CourseResponseDto> getAllCourses(String cursor, int size) {
+        CourseCursor after = CourseCursor.decode(cursor);
+        Pageable limit = limit(size);
+        List<Course> courses = after == null
+            ? courseRepository.findPage(limit)
+            : courseRepository.findPageAfter(after.createdAt(), after.courseId(), limit);
+        return toPage(courses, limit);
     }
 
     @Override
-    public List<CourseResponseDto> getCoursesByCategoryName(String categoryName) {
+    @Transactional(readOnly = true)
+    public CursorPageDto<CourseResponseDto> getCoursesByCategoryName(String categoryName, String cursor, int size) {
 
         if (categoryName == null || categoryName.isEmpty()) {
             throw new CourseException.InvalidRequestException("Category name cannot be null or empty");
         }
 
-        // Get courses by category name
-        List<Course> courses = courseRepository.findByCategoryName(categoryName);
-        
-        return courses.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        CourseCursor after = CourseCursor.decode(cursor);
+        Pageable limit = limit(size);
+        List<Course> courses = after == null
+            ? courseRepository.findPageByCategoryName(categoryName, limit)
+            : courseRepository.findPageByCategoryNameAfter(categoryName, after.createdAt(), after.courseId(), limit);
+        return toPage(courses, limit);
     }
 
     @Override
-    public List<CourseResponseDto> getCoursesByInstructorId(UUID instructorId) {
+    @Transactional(readOnly = true)
+    public CursorPageDto<CourseResponseDto> getCoursesByInstructorId(UUID instructorId, String cursor, int size) {
 
         if (instructorId == null) {
             throw new CourseException.InvalidRequestException("Instructor ID cannot be null");
         }
-        // Get courses by instructor id
-        List<Course> courses = courseRepository.findByInstructorId(instructorId);
-        
-        return courses.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+
+        CourseCursor after = CourseCursor.decode(cursor);
+        Pageable limit = limit(size);
+        List<Course> courses = after == null
+            ? courseRepository.findPageByInstructorId(instructorId, limit)
+            : courseRepository.findPageByInstructorIdAfter(instructorId, after.createdAt(), after.courseId(), limit);
+        return toPage(courses, limit);
+    }
+
+    /**
+     * Full-text search over title, category and description, best match first
+     * 
+     * Search: in-process CourseSearchIndex (diacritic-insensitive, BM25F ranking);
+     * falls back to title LIKE while the index is still being built
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseResponseDto> searchCourses(String query, int size) {
+        return search(query, false, size);
     }
 
+    /**
+     * Typeahead: like searchCourses, the last word of the query matches as a prefix
+     */
     @Override
-    public List<CourseResponseDto> getCoursesByTitleContaining(String title) {
-        
-        if (title == null || title.isEmpty()) {
-            throw new CourseException.InvalidRequestException("Title cannot be null or empty");
+    @Transactional(readOnly = true)
+    public List<CourseResponseDto> suggestCourses(String prefix, int size) {
+        return search(prefix, true, size);
+    }
+
+    private List<CourseResponseDto> search(String query, boolean prefix, int size) {
+
+        if (query == null || query.isBlank()) {
+            throw new CourseException.InvalidRequestException("Search query cannot be null or empty");
         }
 
-        // Get courses by title containing
-        List<Course> courses = courseRepository.findByTitleContaining(title);
-        
-        return courses.stream()
+        int limit = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        if (!courseSearchIndexer.isReady()) {
+            return courseRepository.findPageByTitleContaining(query.trim(), PageRequest.of(0, limit)).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
+        }
+
+        List<UUID> courseIds = courseSearchIndexer.search(query, prefix, limit).stream()
+            .map(CourseSearchIndex.Hit::courseId)
+            .collect(Collectors.toList());
+        Map<UUID, Course> courses = courseRepository.findAllById(courseIds).stream()
+            .collect(Collectors.toMap(Course::getCourseId, Function.identity()));
+        // Keep ranking order; a course deleted since it was indexed is skipped
+        return courseIds.stream()
+            .map(courses::get)
+            .filter(Objects::nonNull)
+            .map(this::mapToResponse)
+            .collect(Collectors.toList());
     }
 
     /**
      * Get course by slug
      * 
      * DDD: Simple query - use Repository directly
+     * Cache: CourseReadCache, dùng chung entry với getCourseById
      */
     @Override
-    @Transactional(readOnly = true)
     public CourseResponseDto getCourseByCourseSlug(String courseSlug) {
-        Course course = courseRepository.findByCourseSlug(courseSlug)
-            .orElseThrow(() -> new CourseException.CourseNotFoundException("Course with slug '" + courseSlug + "' not found"));
-        return mapToResponse(course);
+        return courseReadCache.getBySlug(courseSlug, () -> {
+            Course course = courseRepository.findByCourseSlug(courseSlug)
+                .orElseThrow(() -> new CourseException.CourseNotFoundException("Course with slug '" + courseSlug + "' not found"));
+            return mapToResponse(course);
+        });
     }
 
     /**
@@ -111,11 +167,33 @@ public class CourseQueryServiceImpl implements CourseQueryService {
     @Override
     @Transactional(readOnly = true)
     public Integer getToltalLessonsByCourseId(UUID courseId) {
-        Course course = courseRepository.findByIdWithSections(courseId)
+        // Denormalized counter maintained by the aggregate, no need to load sections
+        return courseRepository.findTotalLessonsByCourseId(courseId)
             .orElseThrow(() -> new CourseException.CourseNotFoundException(courseId.toString()));
-        
-        // Domain calculation method in aggregate root
-        return course.getTotalLessonsCount();
+    }
+
+    /**
+     * Fetch one row more than the page size to know whether another page exists
+     */
+    private static Pageable limit(int size) {
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private CursorPageDto<CourseResponseDto> toPage(List<Course> courses, Pageable limit) {
+        int pageSize = limit.getPageSize() - 1;
+        boolean hasMore = courses.size() > pageSize;
+        List<Course> page = hasMore ? courses.subList(0, pageSize) : courses;
+        String nextCursor = null;
+        if (hasMore) {
+            Course last = page.get(page.size() - 1);
+            nextCursor = new CourseCursor(last.getCreatedAt(), last.getCourseId()).encode();
+        }
+        return CursorPageDto.<CourseResponseDto>builder()
+            .items(page.stream().map(this::mapToResponse).collect(Collectors.toList()))
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .build();
     }
 
     private CourseResponseDto mapToResponse(Course course) {
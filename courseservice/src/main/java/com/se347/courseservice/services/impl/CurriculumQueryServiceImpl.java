@@ -0,0 +1,110 @@
+package com.se347.courseservice.services.impl;
+
+import com.se347.courseservice.services.CourseQueryService;
+import com.se347.courseservice.services.CurriculumQueryService;
+import com.se347.courseservice.dtos.ContentMetadataResponseDto;
+import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CurriculumLessonDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+import com.se347.courseservice.dtos.CurriculumSectionDto;
+import com.se347.courseservice.repositories.ContentRepository;
+import com.se347.courseservice.repositories.LessonRepository;
+import com.se347.courseservice.repositories.SectionRepository;
+import com.se347.courseservice.repositories.projections.ContentRow;
+import com.se347.courseservice.repositories.projections.LessonRow;
+import com.se347.courseservice.repositories.projections.SectionRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Read model: cây curriculum (course → sections → lessons → contents) cho trang khoá học
+ *
+ * Số câu SQL cố định, không phụ thuộc số section/lesson:
+ * - course: CourseQueryService (thường là cache hit, tối đa 1 câu)
+ * - sections, lessons, contents: mỗi loại một câu SELECT theo courseId, dùng record projection
+ *   (không load entity, không có lazy collection nào được chạm tới)
+ * Cây được ghép trong bộ nhớ theo sectionId/lessonId.
+ */
+@RequiredArgsConstructor
+@Service
+public class CurriculumQueryServiceImpl implements CurriculumQueryService {
+
+    private final CourseQueryService courseQueryService;
+    private final SectionRepository sectionRepository;
+    private final LessonRepository lessonRepository;
+    private final ContentRepository contentRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public CurriculumResponseDto getCurriculumByCourseId(UUID courseId) {
+        return buildTree(courseQueryService.getCourseById(courseId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CurriculumResponseDto getCurriculumByCourseSlug(String courseSlug) {
+        return buildTree(courseQueryService.getCourseByCourseSlug(courseSlug));
+    }
+
+    private CurriculumResponseDto buildTree(CourseResponseDto course) {
+        UUID courseId = course.getCourseId();
+        List<SectionRow> sectionRows = sectionRepository.findCurriculumSections(courseId);
+        if (sectionRows.isEmpty()) {
+            return CurriculumResponseDto.builder()
+                .course(course)
+                .sections(List.of())
+                .build();
+        }
+
+        // Contents theo lessonId (đã sắp xếp theo orderIndex trong query)
+        Map<UUID, List<ContentMetadataResponseDto>> contentsByLesson = new HashMap<>();
+        for (ContentRow row : contentRepository.findCurriculumContents(courseId)) {
+            contentsByLesson.computeIfAbsent(row.lessonId(), id -> new ArrayList<>())
+                .add(ContentMetadataResponseDto.builder()
+                    .contentId(row.contentId())
+                    .lessonId(row.lessonId())
+                    .contentUrl(row.contentUrl())
+                    .orderIndex(row.orderIndex())
+                    .createdAt(row.createdAt())
+                    .updatedAt(row.updatedAt())
+                    .build());
+        }
+
+        // Lessons theo sectionId
+        Map<UUID, List<CurriculumLessonDto>> lessonsBySection = new HashMap<>();
+        for (LessonRow row : lessonRepository.findCurriculumLessons(courseId)) {
+            lessonsBySection.computeIfAbsent(row.sectionId(), id -> new ArrayList<>())
+                .add(CurriculumLessonDto.builder()
+                    .lessonId(row.lessonId())
+                    .lessonSlug(row.lessonSlug())
+                    .title(row.title())
+                    .orderIndex(row.orderIndex())
+                    .contents(contentsByLesson.getOrDefault(row.lessonId(), List.of()))
+                    .build());
+        }
+
+        List<CurriculumSectionDto> sections = new ArrayList<>(sectionRows.size());
+        for (SectionRow row : sectionRows) {
+            sections.add(CurriculumSectionDto.builder()
+                .sectionId(row.sectionId())
+                .sectionSlug(row.sectionSlug())
+                .title(row.title())
+                .description(row.description())
+                .orderIndex(row.orderIndex())
+                .lessons(lessonsBySection.getOrDefault(row.sectionId(), List.of()))
+                .build());
+        }
+
+        return CurriculumResponseDto.builder()
+            .course(course)
+            .sections(sections)
+            .build();
+    }
+}
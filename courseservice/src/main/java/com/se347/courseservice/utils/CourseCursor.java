@@ -0,0 +1,44 @@
+package com.se347.courseservice.utils;
+
+import com.se347.courseservice.exceptions.CourseException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Vị trí keyset của danh sách course, sắp xếp theo (createdAt DESC, courseId DESC)
+ *
+ * Token gửi cho client là base64url của "createdAt|courseId" (client không cần và không nên đọc nội dung).
+ */
+public record CourseCursor(LocalDateTime createdAt, UUID courseId) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + courseId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã token; null/rỗng → null (trang đầu)
+     */
+    public static CourseCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new CourseException.InvalidRequestException("Malformed cursor");
+            }
+            return new CourseCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CourseException.InvalidRequestException("Malformed cursor");
+        }
+    }
+}
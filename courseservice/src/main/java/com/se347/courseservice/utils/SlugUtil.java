@@ -1,31 +1,41 @@
 package com.se347.courseservice.utils;
 
 import java.text.Normalizer;
+import java.util.regex.Pattern;
 
 public class SlugUtil {
 
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern EDGE_DASHES = Pattern.compile("^-|-$");
+
     public static String toSlug(String input) {
         if (input == null || input.isEmpty()) {
             return "";
         }
 
-        // 1. Chuẩn hóa, tách dấu tiếng Việt
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        String noAccent = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-
-        // 2. Chuyển về lowercase
-        String lower = noAccent.toLowerCase();
+        // 1-2. Bỏ dấu tiếng Việt, chuyển về lowercase
+        String lower = fold(input);
 
-        // 3. Thay ký tự không phải chữ/số thành dấu '-'
-        String slug = lower.replaceAll("[^a-z0-9]+", "-");
+        // 3. Thay ký tự không phải chữ/số thành dấu '-' (chuỗi liên tiếp thành một dấu nên không còn '-' dư)
+        String slug = NON_ALPHANUMERIC.matcher(lower).replaceAll("-");
 
-        // 4. Xóa dấu '-' dư
-        slug = slug.replaceAll("-{2,}", "-");
+        // 4. Xóa '-' ở đầu/cuối
+        return EDGE_DASHES.matcher(slug).replaceAll("");
+    }
 
-        // 5. Xóa '-' ở đầu/cuối
-        slug = slug.replaceAll("^-|-$", "");
+    /**
+     * Bỏ dấu tiếng Việt và chuyển về lowercase ("Lập trình Đồ họa" → "lap trinh do hoa"),
+     * dùng chung cho slug và chỉ mục tìm kiếm
+     */
+    public static String fold(String input) {
+        if (input == null || input.isEmpty()) {
+            return "";
+        }
 
-        return slug;
+        // Tách dấu (NFD) rồi bỏ; "đ" không có dạng tách nên đổi riêng
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        String noAccent = COMBINING_MARKS.matcher(normalized).replaceAll("");
+        return noAccent.replace('đ', 'd').replace('Đ', 'D').toLowerCase();
     }
 }
-
@@ -0,0 +1,144 @@
+package com.se347.courseservice.domains;
+
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.Section;
+import com.se347.courseservice.entities.valueobjects.Money;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.CourseRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Batch slug allocation (bulk import) against H2 in MySQL mode, which runs the set-based suffix query
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:courseslug;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SlugGenerateService.class, OptimisticRetry.class})
+class SlugGenerateServiceTest {
+
+    @Autowired
+    private SlugGenerateService slugGenerateService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        course = Course.importNew(
+            "Slug allocation",
+            "Course holding the taken section slugs",
+            "slug-allocation",
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            "testing",
+            UUID.randomUUID()
+        );
+    }
+
+    @Test
+    void batchCountsUpFromHighestSuffixOfEachTakenBase() {
+        takeSectionSlugs("intro", "intro-3", "intro-guide", "intro-12345678901", "setup");
+
+        List<String> slugs = slugGenerateService.generateSectionSlugs(
+            List.of("Intro", "Setup", "Wrap up", "Intro", "Wrap up", "Intro 4"));
+
+        assertThat(slugs).containsExactly("intro-4", "setup-2", "wrap-up", "intro-5", "wrap-up-2", "intro-4-2");
+    }
+
+    @Test
+    void batchUsesOneSuffixQueryPerHundredDistinctBases() {
+        List<String> taken = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            taken.add("chapter-" + i + "-a");
+            titles.add("Chapter " + i + " a");
+        }
+        takeSectionSlugs(taken.toArray(String[]::new));
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<String> slugs = slugGenerateService.generateSectionSlugs(titles);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(slugs).allSatisfy(slug -> assertThat(slug).endsWith("-a-2"));
+    }
+
+    @Test
+    void duplicateSlugIsASlugConflict() {
+        courseRepository.saveAndFlush(course);
+        Course sameSlug = Course.createNew(
+            "Slug allocation again",
+            "Course racing for the same slug",
+            course.getCourseSlug(),
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            "testing",
+            UUID.randomUUID()
+        );
+
+        assertThatThrownBy(() -> courseRepository.saveAndFlush(sameSlug))
+            .isInstanceOfSatisfying(DataIntegrityViolationException.class,
+                e -> assertThat(SlugGenerateService.isSlugConflict(e)).isTrue());
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotSlugConflicts() {
+        // MySQL reports NOT NULL and foreign key violations with the same SQLState 23000 as a duplicate key
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("not null",
+            new ConstraintViolationException("Column 'title' cannot be null",
+                new SQLException("Column 'title' cannot be null", "23000", 1048), null));
+        DataIntegrityViolationException foreignKey = new DataIntegrityViolationException("foreign key",
+            new ConstraintViolationException("Cannot add or update a child row",
+                new SQLException("Cannot add or update a child row", "23000", 1452), "fk_sections_course"));
+
+        assertThat(SlugGenerateService.isSlugConflict(notNull)).isFalse();
+        assertThat(SlugGenerateService.isSlugConflict(foreignKey)).isFalse();
+        assertThat(SlugGenerateService.isSlugConflict(new OptimisticLockingFailureException("stale"))).isFalse();
+    }
+
+    private void takeSectionSlugs(String... slugs) {
+        for (int i = 0; i < slugs.length; i++) {
+            Section section = course.addSection("Taken " + i, null, slugs[i], i);
+            assertThat(section.getSectionSlug()).isEqualTo(slugs[i]);
+        }
+        course.completeImport();
+        courseRepository.save(course);
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
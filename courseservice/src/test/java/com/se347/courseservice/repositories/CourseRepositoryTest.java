@@ -0,0 +1,106 @@
+package com.se347.courseservice.repositories;
+
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.valueobjects.Money;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.projections.CourseCounterRow;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paged queries of CourseRepository against H2 in MySQL mode
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:courserepository;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CourseRepositoryTest {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void counterDriftIsPagedByCourseIdWithinTheUpdatedWindow() {
+        List<UUID> recentDrifted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            recentDrifted.add(saveCourse("Recent drifted " + i, 2).getCourseId());
+        }
+        UUID consistent = saveCourse("Recent consistent", 1).getCourseId();
+        UUID oldDrifted = saveCourse("Old drifted", 1).getCourseId();
+        entityManager.flush();
+
+        for (UUID courseId : recentDrifted) {
+            setCounters(courseId, 0, LocalDateTime.now());
+        }
+        setCounters(oldDrifted, 0, LocalDateTime.now().minusDays(30));
+        entityManager.clear();
+
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        List<CourseCounterRow> first = courseRepository.findCounterDriftPage(since, PageRequest.ofSize(2));
+        List<CourseCounterRow> second = courseRepository.findCounterDriftPageAfter(
+            since, first.get(first.size() - 1).courseId(), PageRequest.ofSize(2));
+
+        // Hex order = byte order of the stored UUID (what the database compares)
+        recentDrifted.sort(Comparator.comparing(UUID::toString));
+        assertThat(first).extracting(CourseCounterRow::courseId).containsExactly(recentDrifted.get(0), recentDrifted.get(1));
+        assertThat(second).extracting(CourseCounterRow::courseId).containsExactly(recentDrifted.get(2));
+        assertThat(second.get(0).totalSections()).isZero();
+        assertThat(second.get(0).actualSections()).isEqualTo(2);
+
+        List<CourseCounterRow> all = courseRepository.findCounterDriftPage(
+            LocalDateTime.of(1970, 1, 1, 0, 0), PageRequest.ofSize(10));
+        assertThat(all).extracting(CourseCounterRow::courseId)
+            .contains(oldDrifted)
+            .doesNotContain(consistent)
+            .hasSize(4);
+    }
+
+    private Course saveCourse(String title, int sections) {
+        Course course = Course.importNew(
+            title,
+            "Course used by the repository tests",
+            title.toLowerCase().replace(' ', '-'),
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            "testing",
+            UUID.randomUUID()
+        );
+        for (int i = 0; i < sections; i++) {
+            course.addSection("Section " + i, null, course.getCourseSlug() + "-section-" + i, i);
+        }
+        course.completeImport();
+        return courseRepository.save(course);
+    }
+
+    private void setCounters(UUID courseId, int totalSections, LocalDateTime updatedAt) {
+        entityManager.createQuery(
+                "UPDATE Course c SET c.totalSections = :total, c.updatedAt = :updatedAt WHERE c.courseId = :courseId")
+            .setParameter("total", totalSections)
+            .setParameter("updatedAt", updatedAt)
+            .setParameter("courseId", courseId)
+            .executeUpdate();
+    }
+}
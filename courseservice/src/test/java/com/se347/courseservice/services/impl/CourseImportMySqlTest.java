@@ -0,0 +1,175 @@
+package com.se347.courseservice.services.impl;
+
+import com.se347.courseservice.domains.CourseDomainService;
+import com.se347.courseservice.domains.SlugGenerateService;
+import com.se347.courseservice.dtos.ContentMetadataRequestDto;
+import com.se347.courseservice.dtos.CourseImportLessonDto;
+import com.se347.courseservice.dtos.CourseImportRequestDto;
+import com.se347.courseservice.dtos.CourseImportSectionDto;
+import com.se347.courseservice.dtos.CurriculumLessonDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+import com.se347.courseservice.dtos.CurriculumSectionDto;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.LessonRepository;
+import com.se347.courseservice.search.CourseSearchIndexer;
+import com.se347.courseservice.services.FileStorageService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk import measured against MySQL (native suffix queries, JDBC batching with rewriteBatchedStatements):
+ * the number of statements must not grow with the number of taken slugs
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQLDialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CourseCommandServiceImpl.class, SlugGenerateService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CourseImportMySqlTest {
+
+    private static final int SECTIONS = 20;
+    private static final int LESSONS_PER_SECTION = 25;
+    private static final int CONTENTS_PER_LESSON = 2;
+    private static final int LESSONS = SECTIONS * LESSONS_PER_SECTION;
+
+    // Same as application.properties
+    private static final int BATCH_SIZE = 50;
+
+    // Course slug + one set-based suffix query per 100 distinct section / lesson bases
+    private static final long MAX_QUERIES = 1 + ceil(SECTIONS, 100) + ceil(LESSONS, 100);
+
+    // Suffix queries + one statement per INSERT batch of each table
+    private static final long MAX_STATEMENTS = MAX_QUERIES
+        + 1 + ceil(SECTIONS, BATCH_SIZE) + ceil(LESSONS, BATCH_SIZE) + ceil(LESSONS * CONTENTS_PER_LESSON, BATCH_SIZE);
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+        .withUrlParam("rewriteBatchedStatements", "true");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.datasource.driver-class-name", MYSQL::getDriverClassName);
+    }
+
+    @Autowired
+    private CourseCommandServiceImpl courseCommandService;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private CourseDomainService courseDomainService;
+
+    @MockBean
+    private FileStorageService fileStorageService;
+
+    @MockBean
+    private CourseSearchIndexer courseSearchIndexer;
+
+    @Test
+    void importOfTakenSlugsUsesBoundedNumberOfStatements() {
+        when(courseDomainService.isTitleUnique(anyString())).thenReturn(true);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // First import takes every section and lesson base slug
+        courseCommandService.importCourse(request("Spring Boot from scratch"), UUID.randomUUID());
+
+        statistics.clear();
+        long started = System.nanoTime();
+        CurriculumResponseDto second = courseCommandService.importCourse(request("Spring Boot from scratch, 2nd edition"), UUID.randomUUID());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} lessons over taken slugs in {} ms: {} queries, {} statements",
+            LESSONS, elapsedMillis, statistics.getQueryExecutionCount(), statistics.getPrepareStatementCount());
+
+        assertThat(statistics.getQueryExecutionCount()).isLessThanOrEqualTo(MAX_QUERIES);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+
+        Set<String> lessonSlugs = new HashSet<>();
+        for (CurriculumSectionDto section : second.getSections()) {
+            assertThat(section.getSectionSlug()).endsWith("-2");
+            for (CurriculumLessonDto lesson : section.getLessons()) {
+                assertThat(lesson.getLessonSlug()).endsWith("-2");
+                lessonSlugs.add(lesson.getLessonSlug());
+            }
+        }
+        assertThat(lessonSlugs).hasSize(LESSONS);
+        assertThat(lessonRepository.count()).isEqualTo(2L * LESSONS);
+    }
+
+    private static CourseImportRequestDto request(String title) {
+        List<CourseImportSectionDto> sections = new ArrayList<>(SECTIONS);
+        for (int s = 0; s < SECTIONS; s++) {
+            List<CourseImportLessonDto> lessons = new ArrayList<>(LESSONS_PER_SECTION);
+            for (int l = 0; l < LESSONS_PER_SECTION; l++) {
+                List<ContentMetadataRequestDto> contents = new ArrayList<>(CONTENTS_PER_LESSON);
+                for (int c = 0; c < CONTENTS_PER_LESSON; c++) {
+                    contents.add(ContentMetadataRequestDto.builder()
+                        .contentUrl("https://cdn.example.com/" + s + "/" + l + "/" + c)
+                        .orderIndex(c)
+                        .build());
+                }
+                lessons.add(CourseImportLessonDto.builder()
+                    .title("Lesson " + s + "." + l)
+                    .orderIndex(l)
+                    .contents(contents)
+                    .build());
+            }
+            sections.add(CourseImportSectionDto.builder()
+                .title("Section " + s)
+                .description("Section " + s)
+                .orderIndex(s)
+                .lessons(lessons)
+                .build());
+        }
+        return CourseImportRequestDto.builder()
+            .title(title)
+            .description("Course used to measure the bulk import")
+            .price(new BigDecimal("10.00"))
+            .level(CourseLevel.BEGINNER)
+            .categoryName("testing")
+            .sections(sections)
+            .build();
+    }
+
+    private static long ceil(long count, long per) {
+        return (count + per - 1) / per;
+    }
+}
@@ -0,0 +1,124 @@
+package com.se347.courseservice.services.impl;
+
+import com.se347.courseservice.caches.CourseReadCache;
+import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CursorPageDto;
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.valueobjects.Money;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.CourseRepository;
+import com.se347.courseservice.search.CourseSearchIndexer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset pagination of the course lists: page boundaries, hasMore and courses sharing a createdAt
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:coursepages;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CourseQueryServiceImpl.class)
+class CourseQueryServiceImplTest {
+
+    @Autowired
+    private CourseQueryServiceImpl courseQueryService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private CourseReadCache courseReadCache;
+
+    @MockBean
+    private CourseSearchIndexer courseSearchIndexer;
+
+    @Test
+    void pagesVisitEveryCourseOnceWhenCreatedAtTies() {
+        LocalDateTime tie = LocalDateTime.of(2024, 5, 1, 9, 0);
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Three courses share one timestamp, so a page boundary falls inside the tie
+            courses.add(saveCourse("Paged course " + i, i < 3 ? tie : tie.minusDays(i)));
+        }
+        // Newest first, ties broken by courseId DESC (byte order of the stored UUID = hex order)
+        List<UUID> expected = courses.stream()
+            .sorted(Comparator.comparing(Course::getCreatedAt)
+                .thenComparing(course -> course.getCourseId().toString())
+                .reversed())
+            .map(Course::getCourseId)
+            .toList();
+
+        List<UUID> visited = new ArrayList<>();
+        List<Boolean> hasMore = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<CourseResponseDto> page = courseQueryService.getAllCourses(cursor, 2);
+            page.getItems().forEach(course -> visited.add(course.getCourseId()));
+            hasMore.add(page.isHasMore());
+            assertThat(page.getNextCursor() != null).isEqualTo(page.isHasMore());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(visited).containsExactlyElementsOf(expected);
+        assertThat(hasMore).containsExactly(true, true, false);
+    }
+
+    @Test
+    void fullLastPageHasNoMore() {
+        saveCourse("Only course a", LocalDateTime.now().minusHours(1));
+        saveCourse("Only course b", LocalDateTime.now());
+
+        CursorPageDto<CourseResponseDto> page = courseQueryService.getAllCourses(null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    private Course saveCourse(String title, LocalDateTime createdAt) {
+        Course course = Course.importNew(
+            title,
+            "Course used by the pagination tests",
+            title.toLowerCase().replace(' ', '-'),
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            "testing",
+            UUID.randomUUID()
+        );
+        course.completeImport();
+        courseRepository.saveAndFlush(course);
+        // created_at is not updatable through JPA
+        jdbcTemplate.update("UPDATE courses SET created_at = ? WHERE course_id = ?", createdAt, course.getCourseId());
+        entityManager.detach(course);
+        return courseRepository.findById(course.getCourseId()).orElseThrow();
+    }
+}
@@ -0,0 +1,141 @@
+package com.se347.courseservice.services.impl;
+
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.valueobjects.Money;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.CourseRepository;
+import com.se347.courseservice.search.CourseSearchIndex;
+import com.se347.courseservice.search.CourseSearchIndexer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two replicas of the search index over one (mocked) database, synced through a Redis channel
+ * that delivers every message to all subscribers, the sender included
+ */
+class CourseSearchIndexerTest {
+
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final List<String> published = new ArrayList<>();
+
+    private CourseSearchIndexer replicaA;
+    private CourseSearchIndexer replicaB;
+
+    private Course java;
+    private Course javascript;
+    private Course cooking;
+
+    @BeforeEach
+    void setUp() {
+        java = course("Lập trình Java cơ bản", "programming", "Biến, vòng lặp và hướng đối tượng với Java");
+        javascript = course("JavaScript cho người mới", "programming", "Lập trình web phía trình duyệt");
+        cooking = course("Nấu ăn gia đình", "cooking", "Món Việt hằng ngày");
+        when(courseRepository.findPage(any())).thenReturn(List.of(java, javascript, cooking));
+        for (Course course : List.of(java, javascript, cooking)) {
+            when(courseRepository.findById(course.getCourseId())).thenReturn(Optional.of(course));
+        }
+
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        replicaA = new CourseSearchIndexer(courseRepository, redis, new SimpleMeterRegistry(), true, 500);
+        replicaB = new CourseSearchIndexer(courseRepository, redis, new SimpleMeterRegistry(), true, 500);
+        doAnswer(invocation -> {
+            String message = invocation.getArgument(1);
+            published.add(message);
+            replicaA.onSyncMessage(message);
+            replicaB.onSyncMessage(message);
+            return 1L;
+        }).when(redis).convertAndSend(eq(CourseSearchIndexer.SYNC_CHANNEL), anyString());
+
+        assertThat(replicaA.rebuild()).isEqualTo(3);
+        assertThat(replicaB.rebuild()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuildIndexesEveryCourseAndMatchesWithoutDiacritics() {
+        assertThat(replicaA.isReady()).isTrue();
+
+        assertThat(ids(replicaA.search("lap trinh java", false, 10)))
+            .first().isEqualTo(java.getCourseId());
+        assertThat(ids(replicaA.search("nau an", false, 10)))
+            .containsExactly(cooking.getCourseId());
+    }
+
+    @Test
+    void lastWordMatchesAsPrefixOnlyForSuggestions() {
+        assertThat(ids(replicaA.search("javas", true, 10)))
+            .containsExactly(javascript.getCourseId());
+        assertThat(ids(replicaA.search("javas", false, 10))).isEmpty();
+        assertThat(ids(replicaA.search("ja", true, 10)))
+            .containsExactlyInAnyOrder(java.getCourseId(), javascript.getCourseId());
+    }
+
+    @Test
+    void reindexReachesOtherReplicasAndTheSenderIgnoresItsOwnMessage() {
+        java.updateDetails("Lập trình Kotlin", java.getDescription(), null,
+            Money.of(new BigDecimal("10.00")), CourseLevel.BEGINNER);
+
+        replicaA.reindex(java.getCourseId());
+
+        assertThat(published).singleElement()
+            .satisfies(message -> assertThat(message).endsWith(":reindex:" + java.getCourseId()));
+        assertThat(ids(replicaB.search("kotlin", false, 10))).containsExactly(java.getCourseId());
+        assertThat(ids(replicaA.search("kotlin", false, 10))).containsExactly(java.getCourseId());
+        // Local reindex on A plus the one on B: A skipped its own message instead of reading the course again
+        verify(courseRepository, times(2)).findById(java.getCourseId());
+    }
+
+    @Test
+    void deletedCourseIsRemovedFromOtherReplicas() {
+        when(courseRepository.findById(cooking.getCourseId())).thenReturn(Optional.empty());
+
+        replicaA.reindex(cooking.getCourseId());
+
+        assertThat(replicaB.search("nau an", false, 10)).isEmpty();
+        assertThat(replicaA.search("nau an", false, 10)).isEmpty();
+    }
+
+    @Test
+    void malformedSyncMessagesAreIgnored() {
+        replicaB.onSyncMessage("other-replica:reindex:not-a-uuid");
+        replicaB.onSyncMessage("garbage");
+
+        assertThat(ids(replicaB.search("nau an", false, 10))).containsExactly(cooking.getCourseId());
+    }
+
+    private static List<UUID> ids(List<CourseSearchIndex.Hit> hits) {
+        return hits.stream().map(CourseSearchIndex.Hit::courseId).toList();
+    }
+
+    private static Course course(String title, String category, String description) {
+        Course course = Course.importNew(
+            title,
+            description,
+            title.toLowerCase().replace(' ', '-'),
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            category,
+            UUID.randomUUID()
+        );
+        course.completeImport();
+        return course;
+    }
+}
@@ -0,0 +1,114 @@
+package com.se347.courseservice.services.impl;
+
+import com.se347.courseservice.dtos.CourseResponseDto;
+import com.se347.courseservice.dtos.CurriculumResponseDto;
+import com.se347.courseservice.dtos.CurriculumSectionDto;
+import com.se347.courseservice.entities.Course;
+import com.se347.courseservice.entities.Lesson;
+import com.se347.courseservice.entities.Section;
+import com.se347.courseservice.entities.valueobjects.Money;
+import com.se347.courseservice.enums.CourseLevel;
+import com.se347.courseservice.repositories.CourseRepository;
+import com.se347.courseservice.services.CourseQueryService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * The curriculum read model must cost a fixed number of SQL statements, whatever the size of the course
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:curriculum;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CurriculumQueryServiceImpl.class)
+class CurriculumQueryServiceImplTest {
+
+    private static final int SECTIONS = 20;
+    private static final int LESSONS_PER_SECTION = 25;
+    private static final int CONTENTS_PER_LESSON = 2;
+
+    // sections + lessons + contents; the course itself comes from CourseQueryService (read cache)
+    private static final long MAX_STATEMENTS = 3;
+
+    @Autowired
+    private CurriculumQueryServiceImpl curriculumQueryService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private CourseQueryService courseQueryService;
+
+    private UUID courseId;
+
+    @BeforeEach
+    void setUp() {
+        Course course = Course.importNew(
+            "Statement budget",
+            "Course used to count the statements of the curriculum query",
+            "statement-budget",
+            null,
+            Money.of(new BigDecimal("10.00")),
+            CourseLevel.BEGINNER,
+            "testing",
+            UUID.randomUUID()
+        );
+        for (int s = 0; s < SECTIONS; s++) {
+            Section section = course.addSection("Section " + s, "Section " + s, "section-" + s, s);
+            for (int l = 0; l < LESSONS_PER_SECTION; l++) {
+                Lesson lesson = course.addLessonToSection(section.getSectionId(), "Lesson " + s + "." + l, "lesson-" + s + "-" + l, l);
+                for (int c = 0; c < CONTENTS_PER_LESSON; c++) {
+                    lesson.addContent("https://cdn.example.com/" + s + "/" + l + "/" + c, c);
+                }
+            }
+        }
+        course.completeImport();
+        courseRepository.save(course);
+        entityManager.flush();
+        entityManager.clear();
+
+        courseId = course.getCourseId();
+        when(courseQueryService.getCourseById(courseId))
+            .thenReturn(CourseResponseDto.builder().courseId(courseId).courseSlug("statement-budget").build());
+    }
+
+    @Test
+    void curriculumOfLargeCourseUsesFixedNumberOfStatements() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CurriculumResponseDto curriculum = curriculumQueryService.getCurriculumByCourseId(courseId);
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(curriculum.getSections()).hasSize(SECTIONS);
+        for (CurriculumSectionDto section : curriculum.getSections()) {
+            assertThat(section.getLessons()).hasSize(LESSONS_PER_SECTION);
+            assertThat(section.getLessons()).allSatisfy(lesson -> assertThat(lesson.getContents()).hasSize(CONTENTS_PER_LESSON));
+        }
+    }
+}
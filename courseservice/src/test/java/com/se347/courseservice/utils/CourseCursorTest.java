@@ -0,0 +1,47 @@
+package com.se347.courseservice.utils;
+
+import com.se347.courseservice.exceptions.CourseException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourseCursorTest {
+
+    @Test
+    void encodeDecodeRoundTripKeepsNanosAndId() {
+        CourseCursor cursor = new CourseCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123456789), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(CourseCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void missingTokenIsTheFirstPage() {
+        assertThat(CourseCursor.decode(null)).isNull();
+        assertThat(CourseCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatThrownBy(() -> CourseCursor.decode("not base64!"))
+            .isInstanceOf(CourseException.InvalidRequestException.class);
+        assertThatThrownBy(() -> CourseCursor.decode(token("2024-03-01T10:15:30")))
+            .isInstanceOf(CourseException.InvalidRequestException.class);
+        assertThatThrownBy(() -> CourseCursor.decode(token("yesterday|" + UUID.randomUUID())))
+            .isInstanceOf(CourseException.InvalidRequestException.class);
+        assertThatThrownBy(() -> CourseCursor.decode(token("2024-03-01T10:15:30|not-a-uuid")))
+            .isInstanceOf(CourseException.InvalidRequestException.class);
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
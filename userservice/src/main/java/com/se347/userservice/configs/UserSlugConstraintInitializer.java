@@ -0,0 +1,115 @@
+package com.se347.userservice.configs;
+
+import com.se347.userservice.entities.UserProfile;
+import com.se347.userservice.repositories.UserProfileRepository;
+import com.se347.userservice.services.SlugGenerateService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Đảm bảo unique constraint trên user_profiles.user_slug trước khi nhận request
+ *
+ * ddl-auto=update chỉ ghi warning và bỏ qua constraint khi bảng đã có slug trùng (dữ liệu từ trước
+ * khi có constraint), lúc đó withSlugRetry không còn gì để bắt. Khi không tìm thấy unique index nào
+ * chỉ gồm user_slug: đổi slug của các profile trùng (profile tạo sớm nhất giữ slug), tạo constraint,
+ * rồi kiểm tra lại; vẫn không có thì dừng khởi động.
+ */
+@Slf4j
+@Component
+public class UserSlugConstraintInitializer implements SmartInitializingSingleton {
+
+    private static final String TABLE = "user_profiles";
+    private static final String COLUMN = "user_slug";
+
+    private final UserProfileRepository userProfileRepository;
+    private final SlugGenerateService slugGenerateService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public UserSlugConstraintInitializer(UserProfileRepository userProfileRepository,
+                                         SlugGenerateService slugGenerateService,
+                                         JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager) {
+        this.userProfileRepository = userProfileRepository;
+        this.slugGenerateService = slugGenerateService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (hasUniqueSlugIndex()) {
+            return;
+        }
+        log.warn("Unique constraint on {}.{} is missing, removing duplicate slugs and creating it", TABLE, COLUMN);
+
+        Integer renamed = transactionTemplate.execute(status -> deduplicateSlugs());
+        log.warn("Renamed {} duplicate user slug(s)", renamed);
+
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + UserProfile.USER_SLUG_CONSTRAINT
+                    + " UNIQUE (" + COLUMN + ")");
+        } catch (DataAccessException e) {
+            // Replica khác có thể vừa tạo xong; kiểm tra lại bên dưới
+            log.warn("Creating {} failed: {}", UserProfile.USER_SLUG_CONSTRAINT, e.getMostSpecificCause().getMessage());
+        }
+
+        if (!hasUniqueSlugIndex()) {
+            throw new IllegalStateException("Unique constraint on " + TABLE + "." + COLUMN + " is missing and could not be created");
+        }
+    }
+
+    /**
+     * Giữ slug cho profile tạo sớm nhất, các profile còn lại nhận base-N mới
+     */
+    int deduplicateSlugs() {
+        int renamed = 0;
+        for (String slug : userProfileRepository.findDuplicateSlugs()) {
+            List<UserProfile> profiles = userProfileRepository.findByUserSlugOrderByCreatedAtAscUserIdAsc(slug);
+            for (UserProfile profile : profiles.subList(1, profiles.size())) {
+                profile.setUserSlug(slugGenerateService.generateSlug(slug));
+                // Flush trước lần tính suffix tiếp theo
+                userProfileRepository.saveAndFlush(profile);
+                renamed++;
+            }
+        }
+        return renamed;
+    }
+
+    /**
+     * Có unique index nào chỉ gồm cột user_slug không (tên do Hibernate hoặc initializer này đặt)
+     */
+    public boolean hasUniqueSlugIndex() {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase() : TABLE;
+            Map<String, List<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, false)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        columnsByIndex.computeIfAbsent(index, k -> new ArrayList<>()).add(column);
+                    }
+                }
+            }
+            return columnsByIndex.values().stream()
+                    .anyMatch(columns -> columns.size() == 1 && COLUMN.equalsIgnoreCase(columns.get(0)));
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "user_profiles")
+@Table(name = "user_profiles", uniqueConstraints = {
+    // Tên cố định để UserSlugConstraintInitializer kiểm tra/tạo lại khi ddl-auto bỏ qua (dữ liệu trùng)
+    @UniqueConstraint(name = UserProfile.USER_SLUG_CONSTRAINT, columnNames = "user_slug")
+})
 @Getter
 @Setter
 @Builder
@@ -15,6 +18,8 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class UserProfile {
 
+    public static final String USER_SLUG_CONSTRAINT = "uk_user_profiles_user_slug";
+
     @Id
     @Column(nullable = false)
     private UUID userId;
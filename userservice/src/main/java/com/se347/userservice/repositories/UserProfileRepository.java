@@ -2,7 +2,10 @@ package com.se347.userservice.repositories;
 
 import com.se347.userservice.entities.UserProfile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
 
@@ -12,4 +15,23 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, UUID>
     Optional<UserProfile> findByUserSlug(String userSlug);
     boolean existsByUserSlug(String userSlug);
     boolean existsByUserId(UUID userId);
+
+    /**
+     * Slugs used by more than one profile (rows written before the unique constraint existed)
+     */
+    @Query("SELECT p.userSlug FROM UserProfile p GROUP BY p.userSlug HAVING COUNT(p) > 1")
+    List<String> findDuplicateSlugs();
+
+    List<UserProfile> findByUserSlugOrderByCreatedAtAscUserIdAsc(String userSlug);
+
+    /**
+     * Highest numeric suffix in use for a base slug (the base itself counts as 1), null if unused.
+     * One range scan on the unique user_slug index (MySQL REGEXP); suffixes over 9 digits are not counted, so N cannot overflow
+     */
+    @Query(value = "SELECT MAX(CASE WHEN user_slug = :base THEN 1 " +
+                   "ELSE CAST(SUBSTRING(user_slug, CHAR_LENGTH(:base) + 2) AS SIGNED) END) " +
+                   "FROM user_profiles WHERE user_slug = :base " +
+                   "OR (user_slug LIKE CONCAT(:base, '-%') " +
+                   "AND SUBSTRING(user_slug, CHAR_LENGTH(:base) + 2) REGEXP '^[0-9]{1,9}$')", nativeQuery = true)
+    Long findMaxSlugSuffix(@Param("base") String base);
 }
@@ -1,42 +1,97 @@
 package com.se347.userservice.services;
 
+import com.se347.userservice.entities.UserProfile;
 import com.se347.userservice.repositories.UserProfileRepository;
 import com.se347.userservice.utils.SlugUtil;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.extern.slf4j.Slf4j;
 
-import java.util.Random;
+import java.util.Locale;
+import java.util.function.Supplier;
 
+/**
+ * Cấp slug cho user: base slug của tên, hoặc base-N với N lớn hơn hậu tố số lớn nhất đang dùng một đơn vị
+ * (một truy vấn có index). Hai lần cấp đồng thời cùng slug do unique constraint trên user_slug
+ * cùng withSlugRetry giải quyết; các vi phạm khác (NOT NULL, khóa ngoại) ném ra ngay
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class SlugGenerateService {
 
+    private static final int MAX_BASE_LENGTH = 200;
+    private static final String DEFAULT_BASE = "user";
+    /** MySQL ER_DUP_ENTRY */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    /** SQLState unique violation chuẩn (H2, PostgreSQL) */
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final UserProfileRepository userProfileRepository;
-    private final Random random = new Random();
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public SlugGenerateService(UserProfileRepository userProfileRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${userservice.slug.max-attempts:8}") int maxAttempts) {
+        this.userProfileRepository = userProfileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public String generateSlug(String input) {
+        String baseSlug = SlugUtil.toSlug(input);
+        if (baseSlug.length() > MAX_BASE_LENGTH) {
+            baseSlug = baseSlug.substring(0, MAX_BASE_LENGTH).replaceAll("-+$", "");
+        }
+        if (baseSlug.isEmpty()) {
+            baseSlug = DEFAULT_BASE;
+        }
+
+        Long highest = userProfileRepository.findMaxSlugSuffix(baseSlug);
+        return highest == null ? baseSlug : baseSlug + "-" + (highest + 1);
+    }
 
     /**
-     * Generate random alphabetic string
-     * @param length length of random string
-     * @return random string containing only letters (a-z, A-Z)
+     * Chạy thao tác ghi có cấp slug trong transaction riêng, chạy lại khi insert/update thua cuộc đua slug
+     * (vi phạm uk_user_profiles_user_slug lúc commit). Đang ở trong transaction thì chỉ chạy một lần:
+     * lỗi đã đánh dấu transaction đó rollback-only
      */
-    private String generateRandomString(int length) {
-        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-        StringBuilder sb = new StringBuilder(length);
-        for (int i = 0; i < length; i++) {
-            sb.append(chars.charAt(random.nextInt(chars.length())));
+    public <T> T withSlugRetry(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts || !isSlugConflict(e)) {
+                    throw e;
+                }
+                log.debug("Slug conflict on attempt {}, retrying: {}", attempt, e.getMostSpecificCause().getMessage());
+            }
         }
-        return sb.toString();
     }
 
-    public String generateSlug(String input) {
-        String baseSlug = SlugUtil.toSlug(input);
-        String candidateSlug = baseSlug;
-        
-        while (userProfileRepository.existsByUserSlug(candidateSlug)) {
-            candidateSlug = baseSlug + "-" + generateRandomString(4);
+    /**
+     * Vi phạm unique key user_slug: tên constraint Hibernate tách từ thông báo của DB kèm mã lỗi
+     * duplicate key (SQLState 23000 của MySQL dùng chung cho cả NOT NULL, khóa ngoại)
+     */
+    static boolean isSlugConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                boolean unique = violation.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                        || UNIQUE_VIOLATION.equals(violation.getSQLState());
+                String name = violation.getConstraintName();
+                return unique && name != null
+                        && name.toLowerCase(Locale.ROOT).contains(UserProfile.USER_SLUG_CONSTRAINT);
+            }
         }
-        
-        return candidateSlug;
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -27,44 +27,46 @@ public class UserProfileServiceImpl implements UserProfileService {
     private final UserProfileRepository userProfileRepository;
     private final UserProfileEventPublisher userProfileEventPublisher;
     private final SlugGenerateService slugGenerateService;
+    // Slug race on insert: SlugGenerateService.withSlugRetry runs the create again in a new transaction
     @Override
-    @Transactional
     public UserProfileResponseDto createProfile(UserProfileRequestDto request) {
         // Validate input
         validateCreateProfileRequest(request);
         
-        // Check if profile already exists
-        if (userProfileRepository.findByUserId(request.getUserId()).isPresent()) {
-            throw new UserException.UserProfileAlreadyExistsException(request.getUserId().toString());
-        }
+        return slugGenerateService.withSlugRetry(() -> {
+            // Check if profile already exists
+            if (userProfileRepository.findByUserId(request.getUserId()).isPresent()) {
+                throw new UserException.UserProfileAlreadyExistsException(request.getUserId().toString());
+            }
         
-        UserProfile profile = UserProfile.builder()
-                .userId(request.getUserId())
-                .userSlug(slugGenerateService.generateSlug(request.getFullName()))
-                .fullName(request.getFullName())
-                .email(request.getEmail())
-                .avatarUrl(request.getAvatarUrl())
-                .bio(request.getBio())
-                .phoneNumber(request.getPhoneNumber())
-                .address(request.getAddress())
-                .profileCompleted(false)
-                .build();
-
-        try {
-            profile.onCreate();
-            userProfileRepository.save(profile);
-            return mapToResponse(profile);
-        } catch (DataAccessException e) {
-            log.error("Failed to save user profile. userId={}", request.getUserId(), e);
-            throw new BusinessException.DependencyException("Database", "Failed to save user profile", e);
-        }
+            UserProfile profile = UserProfile.builder()
+                    .userId(request.getUserId())
+                    .userSlug(slugGenerateService.generateSlug(request.getFullName()))
+                    .fullName(request.getFullName())
+                    .email(request.getEmail())
+                    .avatarUrl(request.getAvatarUrl())
+                    .bio(request.getBio())
+                    .phoneNumber(request.getPhoneNumber())
+                    .address(request.getAddress())
+                    .profileCompleted(false)
+                    .build();
+
+            try {
+                profile.onCreate();
+                userProfileRepository.save(profile);
+                return mapToResponse(profile);
+            } catch (DataAccessException e) {
+                log.error("Failed to save user profile. userId={}", request.getUserId(), e);
+                throw new BusinessException.DependencyException("Database", "Failed to save user profile", e);
+            }
+        });
     }
 
-    @Transactional
     @Override
     public UserProfileResponseDto createProfileDefault(UserCreatedEventDto userCreatedEvent) {
-        // Idempotency: safeguard against duplicate events
-        return userProfileRepository.findByUserId(userCreatedEvent.getUserId())
+        return slugGenerateService.withSlugRetry(() ->
+            // Idempotency: safeguard against duplicate events
+            userProfileRepository.findByUserId(userCreatedEvent.getUserId())
                 .map(this::mapToResponse)
                 .orElseGet(() -> {
                     UserProfile profile = UserProfile.builder()
@@ -81,7 +83,7 @@ public class UserProfileServiceImpl implements UserProfileService {
                         log.error("Failed to save default user profile. userId={}", userCreatedEvent.getUserId(), e);
                         throw new BusinessException.DependencyException("Database", "Failed to save user profile", e);
                     }
-                });
+                }));
     }
 
     @Override
@@ -131,14 +133,14 @@ public class UserProfileServiceImpl implements UserProfileService {
         UserProfile profile = userProfileRepository.findByUserId(userId)
                 .orElseThrow(() -> new UserException.UserProfileNotFoundException(userId.toString()));
 
-        // Update fields
-        profile.setFullName(request.getFullName());
-
-        // Update user slug if full name changes
-        if (request.getFullName() != null) {
+        // Update user slug only if full name changes (otherwise the current slug would count as taken)
+        if (request.getFullName() != null && !request.getFullName().equals(profile.getFullName())) {
             profile.setUserSlug(slugGenerateService.generateSlug(request.getFullName()));
         }
 
+        // Update fields
+        profile.setFullName(request.getFullName());
+
         profile.setAvatarUrl(request.getAvatarUrl());
         profile.setBio(request.getBio());
         profile.setPhoneNumber(request.getPhoneNumber());
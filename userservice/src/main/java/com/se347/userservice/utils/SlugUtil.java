@@ -1,32 +1,31 @@
 package com.se347.userservice.utils;
 
 import java.text.Normalizer;
+import java.util.regex.Pattern;
 
 public class SlugUtil {
 
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern EDGE_DASHES = Pattern.compile("^-|-$");
+
     public static String toSlug(String input) {
         if (input == null || input.isEmpty()) {
             return "";
         }
 
-        // 1. Chuẩn hóa, tách dấu tiếng Việt
+        // 1. Chuẩn hóa, tách dấu tiếng Việt ("đ" không có dạng tách nên đổi riêng)
         String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        String noAccent = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        String noAccent = COMBINING_MARKS.matcher(normalized).replaceAll("").replace('đ', 'd').replace('Đ', 'D');
 
         // 2. Chuyển về lowercase
         String lower = noAccent.toLowerCase();
 
-        // 3. Thay ký tự không phải chữ/số thành dấu '-'
-        String slug = lower.replaceAll("[^a-z0-9]+", "-");
-
-        // 4. Xóa dấu '-' dư
-        slug = slug.replaceAll("-{2,}", "-");
+        // 3. Thay ký tự không phải chữ/số thành dấu '-' (chuỗi liên tiếp thành một dấu nên không còn '-' dư)
+        String slug = NON_ALPHANUMERIC.matcher(lower).replaceAll("-");
 
-        // 5. Xóa '-' ở đầu/cuối
-        slug = slug.replaceAll("^-|-$", "");
-
-        return slug;
+        // 4. Xóa '-' ở đầu/cuối
+        return EDGE_DASHES.matcher(slug).replaceAll("");
     }
 
 }
-
@@ -0,0 +1,161 @@
+package com.se347.userservice.services;
+
+import com.se347.userservice.configs.UserSlugConstraintInitializer;
+import com.se347.userservice.entities.UserProfile;
+import com.se347.userservice.repositories.UserProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Slug allocation against a real database (H2 in MySQL mode runs the native suffix query):
+ * concurrent creates with the same name must all succeed with distinct slugs
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:userslug;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "userservice.slug.max-attempts=" + SlugGenerateServiceTest.THREADS
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SlugGenerateService.class, UserSlugConstraintInitializer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SlugGenerateServiceTest {
+
+    static final int THREADS = 16;
+
+    @Autowired
+    private SlugGenerateService slugGenerateService;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Autowired
+    private UserSlugConstraintInitializer userSlugConstraintInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        userProfileRepository.deleteAll();
+    }
+
+    @Test
+    void suffixSkipsNonNumericAndOverlongSuffixes() {
+        save("john", LocalDateTime.now());
+        save("john-3", LocalDateTime.now());
+        save("john-smith", LocalDateTime.now());
+        save("john-12345678901", LocalDateTime.now());
+
+        assertThat(slugGenerateService.generateSlug("John")).isEqualTo("john-4");
+        assertThat(slugGenerateService.generateSlug("Jane")).isEqualTo("jane");
+    }
+
+    @Test
+    void concurrentCreatesWithSameNameGetDistinctSlugs() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                Callable<String> create = () -> {
+                    start.await();
+                    return slugGenerateService.withSlugRetry(() ->
+                        save(slugGenerateService.generateSlug("Nguyễn Văn A"), LocalDateTime.now()).getUserSlug());
+                };
+                results.add(pool.submit(create));
+            }
+            start.countDown();
+
+            Set<String> slugs = new HashSet<>();
+            for (Future<String> result : results) {
+                slugs.add(result.get(30, TimeUnit.SECONDS));
+            }
+
+            Set<String> expected = IntStream.rangeClosed(1, THREADS)
+                .mapToObj(n -> n == 1 ? "nguyen-van-a" : "nguyen-van-a-" + n)
+                .collect(Collectors.toSet());
+            assertThat(slugs).isEqualTo(expected);
+            assertThat(userProfileRepository.count()).isEqualTo(THREADS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> slugGenerateService.withSlugRetry(() -> {
+            attempts.incrementAndGet();
+            return save(null, LocalDateTime.now());
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void missingConstraintIsRestoredAfterRenamingDuplicates() {
+        jdbcTemplate.execute("ALTER TABLE user_profiles DROP CONSTRAINT " + UserProfile.USER_SLUG_CONSTRAINT);
+        try {
+            UserProfile oldest = save("tran-b", LocalDateTime.now().minusDays(2));
+            save("tran-b", LocalDateTime.now().minusDays(1));
+            save("tran-b", LocalDateTime.now());
+
+            userSlugConstraintInitializer.afterSingletonsInstantiated();
+
+            assertThat(userProfileRepository.findByUserSlug("tran-b"))
+                .hasValueSatisfying(profile -> assertThat(profile.getUserId()).isEqualTo(oldest.getUserId()));
+            assertThat(userProfileRepository.findAll())
+                .extracting(UserProfile::getUserSlug)
+                .containsExactlyInAnyOrder("tran-b", "tran-b-2", "tran-b-3");
+        } finally {
+            userProfileRepository.deleteAll();
+            if (!userSlugConstraintInitializer.hasUniqueSlugIndex()) {
+                jdbcTemplate.execute("ALTER TABLE user_profiles ADD CONSTRAINT " + UserProfile.USER_SLUG_CONSTRAINT
+                    + " UNIQUE (user_slug)");
+            }
+        }
+    }
+
+    private UserProfile save(String slug, LocalDateTime createdAt) {
+        UserProfile profile = userProfileRepository.saveAndFlush(UserProfile.builder()
+            .userId(UUID.randomUUID())
+            .userSlug(slug)
+            .profileCompleted(false)
+            .build());
+        // @PrePersist stamps "now" and created_at is not updatable through JPA
+        jdbcTemplate.update("UPDATE user_profiles SET created_at = ? WHERE user_id = ?", createdAt, profile.getUserId());
+        return profile;
+    }
+}